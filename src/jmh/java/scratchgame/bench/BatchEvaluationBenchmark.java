@@ -0,0 +1,96 @@
+package scratchgame.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scratchgame.logic.BatchEvaluator;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.random.RandomSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring a block of 64 random grids one by one versus with {@link BatchEvaluator}; times are per grid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchEvaluationBenchmark {
+
+    private static final int BLOCKS = 16;
+
+    @Param({"3", "5", "10"})
+    public int gridSize;
+
+    @Param({"6", "16"})
+    public int symbolCount;
+
+    private CompiledWinCombinations combinations;
+    private BatchEvaluator evaluator;
+    private byte[] cells;
+    private Grid grid;
+    private RoundScore score;
+    private int block;
+
+    @Setup
+    public void setup() {
+        Config config = BenchmarkConfigs.create(gridSize, symbolCount, 8);
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        GenerationPlan plan = GenerationPlan.compile(config, dictionary, gridSize, gridSize);
+        combinations = CompiledWinCombinations.compile(config, dictionary, gridSize, gridSize);
+        evaluator = new BatchEvaluator(combinations);
+
+        int cellCount = gridSize * gridSize;
+        RandomSource rand = RandomSource.seeded(42);
+        grid = new Grid(gridSize, gridSize);
+        cells = new byte[BLOCKS * BatchEvaluator.LANES * cellCount];
+        for (int i = 0; i < BLOCKS * BatchEvaluator.LANES; i++) {
+            MatrixGenerator.generateGrid(plan, rand, grid);
+            System.arraycopy(grid.cells(), 0, cells, i * cellCount, cellCount);
+        }
+        score = new RoundScore();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BatchEvaluator.LANES)
+    public long scalar() {
+        int cellCount = grid.size();
+        int offset = nextBlock() * BatchEvaluator.LANES * cellCount;
+        long total = 0;
+        for (int j = 0; j < BatchEvaluator.LANES; j++) {
+            System.arraycopy(cells, offset + j * cellCount, grid.cells(), 0, cellCount);
+            total += RewardCalculator.score(combinations, grid, 100, score).finalReward;
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BatchEvaluator.LANES)
+    public long batch() {
+        int offset = nextBlock() * BatchEvaluator.LANES * grid.size();
+        evaluator.evaluate(cells, offset, BatchEvaluator.LANES, 100);
+        long total = 0;
+        for (int j = 0; j < BatchEvaluator.LANES; j++) {
+            total += evaluator.reward(j);
+        }
+        return total;
+    }
+
+    private int nextBlock() {
+        block = (block + 1) & (BLOCKS - 1);
+        return block;
+    }
+}
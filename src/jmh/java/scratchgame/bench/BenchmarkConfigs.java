@@ -0,0 +1,105 @@
+package scratchgame.bench;
+
+import scratchgame.model.BonusSymbolsProb;
+import scratchgame.model.Config;
+import scratchgame.model.Probabilities;
+import scratchgame.model.StandardSymbolsProb;
+import scratchgame.model.SymbolConfig;
+import scratchgame.model.WinCombination;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic configs for benchmarks, shaped like config.json but scaled by grid size,
+ * number of standard symbols and number of win combinations.
+ */
+final class BenchmarkConfigs {
+
+    private BenchmarkConfigs() {
+    }
+
+    /**
+     * Up to four of the combinations are line families (rows, columns, both diagonals);
+     * the rest are "same_symbols" thresholds. Thresholds start high enough that losing
+     * grids still occur on large grids.
+     */
+    static Config create(int gridSize, int symbolCount, int comboCount) {
+        Config config = new Config();
+        config.rows = gridSize;
+        config.columns = gridSize;
+
+        config.symbols = new LinkedHashMap<>();
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (int i = 0; i < symbolCount; i++) {
+            String name = "S" + i;
+            config.symbols.put(name, new SymbolConfig("standard", symbolCount - i));
+            weights.put(name, i + 1);
+        }
+        config.symbols.put("10x", new SymbolConfig("bonus", 10, "multiply_reward"));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+        config.symbols.put("+1000", new SymbolConfig("bonus", 0, "extra_bonus", 1000));
+        config.symbols.put("+500", new SymbolConfig("bonus", 0, "extra_bonus", 500));
+        config.symbols.put("MISS", new SymbolConfig("bonus", 0, "miss"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = new ArrayList<>();
+        config.probabilities.standard_symbols.add(new StandardSymbolsProb(0, 0, weights));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = new LinkedHashMap<>();
+        config.probabilities.bonus_symbols.symbols.put("10x", 1);
+        config.probabilities.bonus_symbols.symbols.put("5x", 2);
+        config.probabilities.bonus_symbols.symbols.put("+1000", 3);
+        config.probabilities.bonus_symbols.symbols.put("+500", 4);
+        config.probabilities.bonus_symbols.symbols.put("MISS", 5);
+
+        config.win_combinations = new LinkedHashMap<>();
+        int linear = Math.min(4, comboCount);
+        List<List<List<String>>> families = lineFamilies(gridSize);
+        String[] familyNames = {"horizontally", "vertically", "diagonally_left_to_right", "diagonally_right_to_left"};
+        for (int i = 0; i < linear; i++) {
+            config.win_combinations.put("same_symbols_" + familyNames[i],
+                    new WinCombination("linear_symbols", null, 2 + i, familyNames[i], families.get(i)));
+        }
+        int cells = gridSize * gridSize;
+        int threshold = cells / symbolCount + 2;
+        for (int i = linear; i < comboCount && threshold <= cells; i++, threshold++) {
+            config.win_combinations.put("same_symbol_" + threshold + "_times",
+                    new WinCombination("same_symbols", threshold, 1 + (i - linear) * 0.5, "same_symbols"));
+        }
+        return config;
+    }
+
+    private static List<List<List<String>>> lineFamilies(int n) {
+        List<List<String>> rows = new ArrayList<>();
+        List<List<String>> cols = new ArrayList<>();
+        List<String> ltr = new ArrayList<>();
+        List<String> rtl = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            List<String> row = new ArrayList<>();
+            List<String> col = new ArrayList<>();
+            for (int j = 0; j < n; j++) {
+                row.add(i + ":" + j);
+                col.add(j + ":" + i);
+            }
+            rows.add(row);
+            cols.add(col);
+            ltr.add(i + ":" + i);
+            rtl.add(i + ":" + (n - 1 - i));
+        }
+        List<List<List<String>>> families = new ArrayList<>();
+        families.add(rows);
+        families.add(cols);
+        families.add(singleton(ltr));
+        families.add(singleton(rtl));
+        return families;
+    }
+
+    private static List<List<String>> singleton(List<String> line) {
+        List<List<String>> list = new ArrayList<>();
+        list.add(line);
+        return list;
+    }
+}
@@ -0,0 +1,67 @@
+package scratchgame.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SplittableRandomSource;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GenerationBenchmark {
+
+    @Param({"3", "5", "8"})
+    public int gridSize;
+
+    @Param({"6", "16"})
+    public int symbolCount;
+
+    private Config config;
+    private GenerationPlan plan;
+    private Grid grid;
+    private SplittableRandomSource rand;
+
+    @Setup
+    public void setup() {
+        config = BenchmarkConfigs.create(gridSize, symbolCount, 4);
+        plan = GenerationPlan.compile(config, gridSize, gridSize);
+        grid = new Grid(gridSize, gridSize);
+        rand = RandomSource.splittable(42);
+    }
+
+    /**
+     * Compiled plan, reused grid: the steady-state generation path.
+     */
+    @Benchmark
+    public Grid generateGrid() {
+        return MatrixGenerator.generateGrid(plan, rand, grid);
+    }
+
+    /**
+     * Compiled plan, materialized String[][] for display.
+     */
+    @Benchmark
+    public String[][] generateMatrix() {
+        return MatrixGenerator.generateMatrix(plan, rand);
+    }
+
+    /**
+     * Original entry point: compiles the plan on every call.
+     */
+    @Benchmark
+    public String[][] generateMatrixFromConfig() {
+        return MatrixGenerator.generateMatrix(config, gridSize, gridSize);
+    }
+}
@@ -0,0 +1,66 @@
+package scratchgame.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.random.RandomSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fast-path scoring on large grids with every line family enabled (2n + 2 paylines),
+ * over a pool of unfiltered random grids.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LineEvaluationBenchmark {
+
+    private static final int POOL_SIZE = 1024;
+
+    @Param({"5", "8", "10"})
+    public int gridSize;
+
+    @Param({"6", "16"})
+    public int symbolCount;
+
+    private CompiledWinCombinations combinations;
+    private Grid[] grids;
+    private RoundScore score;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Config config = BenchmarkConfigs.create(gridSize, symbolCount, 8);
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        GenerationPlan plan = GenerationPlan.compile(config, dictionary, gridSize, gridSize);
+        combinations = CompiledWinCombinations.compile(config, dictionary, gridSize, gridSize);
+
+        RandomSource rand = RandomSource.seeded(42);
+        grids = new Grid[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            grids[i] = MatrixGenerator.generateGrid(plan, rand);
+        }
+        score = new RoundScore();
+    }
+
+    @Benchmark
+    public RoundScore score() {
+        Grid grid = grids[next];
+        next = (next + 1) & (POOL_SIZE - 1);
+        return RewardCalculator.score(combinations, grid, 100, score);
+    }
+}
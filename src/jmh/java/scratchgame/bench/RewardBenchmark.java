@@ -0,0 +1,130 @@
+package scratchgame.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.model.CalculationResult;
+import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.random.RandomSource;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RewardBenchmark {
+
+    // Grids are cycled so branch predictors cannot learn a single grid
+    private static final int POOL_SIZE = 1024;
+    private static final int MAX_ATTEMPTS = 10_000_000;
+
+    @Param({"3", "5"})
+    public int gridSize;
+
+    @Param({"6", "16"})
+    public int symbolCount;
+
+    @Param({"4", "11", "24"})
+    public int comboCount;
+
+    @Param({"WIN", "LOSS", "WIN_BONUS", "LOSS_BONUS"})
+    public String outcome;
+
+    private Config config;
+    private CompiledWinCombinations combinations;
+    private Grid[] grids;
+    private String[][][] matrices;
+    private int next;
+
+    @Setup
+    public void setup() {
+        config = BenchmarkConfigs.create(gridSize, symbolCount, comboCount);
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        GenerationPlan plan = GenerationPlan.compile(config, dictionary, gridSize, gridSize);
+        combinations = CompiledWinCombinations.compile(config, dictionary, gridSize, gridSize);
+
+        boolean wantWin = outcome.startsWith("WIN");
+        boolean wantBonus = outcome.endsWith("BONUS");
+        grids = new Grid[POOL_SIZE];
+        matrices = new String[POOL_SIZE][][];
+        RandomSource rand = RandomSource.seeded(42);
+        int found = 0;
+        for (int attempt = 0; found < POOL_SIZE && attempt < MAX_ATTEMPTS; attempt++) {
+            Grid grid = MatrixGenerator.generateGrid(plan, rand);
+            setBonus(grid, dictionary, wantBonus, rand);
+            boolean win = RewardCalculator.calculateReward(combinations, grid, 100).finalReward > 0;
+            if (win == wantWin && hasBonus(grid, dictionary) == wantBonus) {
+                grids[found] = grid;
+                matrices[found] = grid.toMatrix(dictionary);
+                found++;
+            }
+        }
+        if (found < POOL_SIZE) {
+            throw new IllegalStateException("Outcome " + outcome + " is too rare for this configuration");
+        }
+    }
+
+    /**
+     * Compiled combinations on an encoded grid.
+     */
+    @Benchmark
+    public CalculationResult calculateReward() {
+        return RewardCalculator.calculateReward(combinations, nextGrid(), 100);
+    }
+
+    /**
+     * Original entry point: String matrix, compiles the config on every call.
+     */
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public CalculationResult calculateRewardFromConfig() {
+        String[][] matrix = matrices[next];
+        next = (next + 1) & (POOL_SIZE - 1);
+        return RewardCalculator.calculateReward(matrix, 100, config);
+    }
+
+    private Grid nextGrid() {
+        Grid grid = grids[next];
+        next = (next + 1) & (POOL_SIZE - 1);
+        return grid;
+    }
+
+    /**
+     * Replaces bonus cells with standard symbols, or places one bonus symbol, so both
+     * bonus variants are as common as the underlying win/loss outcome.
+     */
+    private static void setBonus(Grid grid, SymbolDictionary dictionary, boolean wantBonus, RandomSource rand) {
+        int standard = dictionary.standardCount();
+        if (wantBonus) {
+            if (!hasBonus(grid, dictionary)) {
+                grid.set(rand.nextInt(grid.size()), standard + rand.nextInt(dictionary.size() - standard));
+            }
+            return;
+        }
+        for (int i = 0; i < grid.size(); i++) {
+            if (dictionary.isBonus(grid.get(i))) {
+                grid.set(i, rand.nextInt(standard));
+            }
+        }
+    }
+
+    private static boolean hasBonus(Grid grid, SymbolDictionary dictionary) {
+        for (int i = 0; i < grid.size(); i++) {
+            if (dictionary.isBonus(grid.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+package scratchgame.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.logic.RoundEngine;
+import scratchgame.model.CalculationResult;
+import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SplittableRandomSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full round: generate a grid and score it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoundBenchmark {
+
+    @Param({"3", "5", "8"})
+    public int gridSize;
+
+    @Param({"6", "16"})
+    public int symbolCount;
+
+    @Param({"4", "11"})
+    public int comboCount;
+
+    private Config config;
+    private GenerationPlan plan;
+    private CompiledWinCombinations combinations;
+    private Grid grid;
+    private RoundEngine engine;
+    private SplittableRandomSource rand;
+
+    @Setup
+    public void setup() {
+        config = BenchmarkConfigs.create(gridSize, symbolCount, comboCount);
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        plan = GenerationPlan.compile(config, dictionary, gridSize, gridSize);
+        combinations = CompiledWinCombinations.compile(config, dictionary, gridSize, gridSize);
+        grid = new Grid(gridSize, gridSize);
+        engine = new RoundEngine(plan, combinations);
+        rand = RandomSource.splittable(42);
+    }
+
+    @Benchmark
+    public CalculationResult compiledRound() {
+        MatrixGenerator.generateGrid(plan, rand, grid);
+        return RewardCalculator.calculateReward(combinations, grid, 100);
+    }
+
+    /**
+     * Steady-state round on reused scratch state; should report 0 B/op under the GC profiler.
+     */
+    @Benchmark
+    public RoundScore engineRound() {
+        return engine.play(rand, 100);
+    }
+
+    /**
+     * Original path as used by GameSession before compilation existed.
+     */
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public CalculationResult configRound() {
+        String[][] matrix = MatrixGenerator.generateMatrix(config, gridSize, gridSize);
+        return RewardCalculator.calculateReward(matrix, 100, config);
+    }
+}
@@ -1,34 +1,77 @@
 package scratchgame;
 
+import scratchgame.audit.AuditLog;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
 import scratchgame.logic.MatrixGenerator;
 import scratchgame.logic.RewardCalculator;
+import scratchgame.logic.RoundEngine;
 import scratchgame.model.CalculationResult;
 import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundResult;
+import scratchgame.model.RoundScore;
+import scratchgame.random.RandomSource;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class GameSession {
 
-    // Mapping internal combo names to more readable strings
+    // Mapping internal combo names to more readable strings; same_symbol_N_times is named for any N
     private static final Map<String, String> COMBO_READABLE_NAMES = new HashMap<>();
+    private static final Pattern SAME_SYMBOL_TIMES = Pattern.compile("same_symbol_(\\d+)_times");
 
     static {
-        COMBO_READABLE_NAMES.put("same_symbol_3_times", "3 identical symbols");
-        COMBO_READABLE_NAMES.put("same_symbol_4_times", "4 identical symbols");
-        COMBO_READABLE_NAMES.put("same_symbol_5_times", "5 identical symbols");
-        COMBO_READABLE_NAMES.put("same_symbol_6_times", "6 identical symbols");
-        COMBO_READABLE_NAMES.put("same_symbol_7_times", "7 identical symbols");
-        COMBO_READABLE_NAMES.put("same_symbol_8_times", "8 identical symbols");
-        COMBO_READABLE_NAMES.put("same_symbol_9_times", "9 identical symbols");
         COMBO_READABLE_NAMES.put("same_symbols_horizontally", "horizontal line");
         COMBO_READABLE_NAMES.put("same_symbols_vertically", "vertical line");
         COMBO_READABLE_NAMES.put("same_symbols_diagonally_left_to_right", "diagonal (left-to-right)");
         COMBO_READABLE_NAMES.put("same_symbols_diagonally_right_to_left", "diagonal (right-to-left)");
     }
 
+    /**
+     * Readable name of a win combination; unknown names are shown with spaces for underscores.
+     */
+    public static String readableComboName(String combo) {
+        String readable = COMBO_READABLE_NAMES.get(combo);
+        if (readable != null) {
+            return readable;
+        }
+        Matcher matcher = SAME_SYMBOL_TIMES.matcher(combo);
+        if (matcher.matches()) {
+            return matcher.group(1) + " identical symbols";
+        }
+        return combo.replace('_', ' ');
+    }
+
+    /**
+     * Plays one console round.
+     *
+     * @deprecated validates and compiles the config on every call; compile it once with
+     * {@link ConfigSnapshot#of} and use {@link #playRound(Scanner, ConfigSnapshot)}.
+     */
+    @Deprecated
     public static void playRound(Scanner scanner, Config config) {
+        playRound(scanner, ConfigSnapshot.of(config));
+    }
+
+    /**
+     * Plays one console round against a compiled config snapshot.
+     */
+    public static void playRound(Scanner scanner, ConfigSnapshot snapshot) {
+        playRound(scanner, snapshot, null);
+    }
+
+    /**
+     * Plays one console round and, if an audit log is given, records it there.
+     */
+    public static void playRound(Scanner scanner, ConfigSnapshot snapshot, AuditLog audit) {
         System.out.print("\nEnter your bet (default 100): ");
         String input = scanner.nextLine().trim();
         int betAmount = 100;
@@ -40,17 +83,76 @@ public class GameSession {
             }
         }
 
-        int rows = (config.rows == null) ? 3 : config.rows;
-        int cols = (config.columns == null) ? 3 : config.columns;
-
-        // Generate the matrix
-        String[][] matrix = MatrixGenerator.generateMatrix(config, rows, cols);
+        // Generate the matrix; audited rounds draw from a recorded seed so they can be replayed
+        long seed = ThreadLocalRandom.current().nextLong();
+        RandomSource rand = audit == null ? RandomSource.threadLocal() : RandomSource.seeded(seed);
+        Grid grid = MatrixGenerator.generateGrid(snapshot.plan(), rand);
 
         // Calculate the reward
-        CalculationResult result = RewardCalculator.calculateReward(matrix, betAmount, config);
+        CalculationResult result = RewardCalculator.calculateReward(snapshot.combinations(), grid, betAmount);
 
         // Print the outcome
-        printGameResult(matrix, result);
+        printGameResult(grid.toMatrix(snapshot.dictionary()), result);
+        if (audit != null) {
+            long roundId = audit.append(seed, snapshot.hash(), betAmount, grid, result.finalReward);
+            System.out.println("Round id: " + roundId);
+        }
+    }
+
+    /**
+     * Plays one round without any console I/O. Safe to call concurrently: the plan and
+     * combinations are immutable and each call borrows its own {@link RoundEngine}, so the
+     * round itself allocates nothing beyond the returned result.
+     */
+    public static RoundResult play(GenerationPlan plan, CompiledWinCombinations combinations, int bet, RandomSource rand) {
+        return play(plan, combinations, null, bet, rand, null);
+    }
+
+    /**
+     * Plays one headless round against a config snapshot.
+     */
+    public static RoundResult play(ConfigSnapshot snapshot, int bet, RandomSource rand) {
+        return play(snapshot, bet, rand, null);
+    }
+
+    /**
+     * Plays one headless round from a fresh seed and records it in the audit log; the result
+     * carries the round id under which it can be replayed.
+     */
+    public static RoundResult play(ConfigSnapshot snapshot, int bet, AuditLog audit) {
+        return play(snapshot, bet, RandomSource.threadLocal(), audit);
+    }
+
+    /**
+     * Plays one headless round. With an audit log, the round is generated from a seed drawn
+     * from rand, so it can be replayed, and recorded under the returned round id.
+     *
+     * @throws scratchgame.audit.AuditLogUnavailableException if the audit log can no longer record rounds
+     */
+    public static RoundResult play(ConfigSnapshot snapshot, int bet, RandomSource rand, AuditLog audit) {
+        return play(snapshot.plan(), snapshot.combinations(), snapshot.hash(), bet, rand, audit);
+    }
+
+    private static RoundResult play(GenerationPlan plan, CompiledWinCombinations combinations, String configHash,
+                                    int bet, RandomSource rand, AuditLog audit) {
+        RoundEngine engine = RoundEngine.acquire(plan, combinations);
+        try {
+            long seed = audit == null ? 0 : rand.nextLong();
+            RoundScore score = audit == null ? engine.play(rand, bet) : engine.play(seed, bet);
+
+            RoundResult round = new RoundResult();
+            round.bet = bet;
+            round.matrix = engine.grid().toMatrix(combinations.dictionary());
+            round.reward = score.finalReward;
+            round.applied_winning_combinations = engine.appliedCombinations();
+            round.applied_bonus_symbol = engine.appliedBonusSymbol();
+            if (audit != null) {
+                round.round_id = audit.append(seed, configHash, bet, engine.grid(), score.finalReward);
+            }
+            return round;
+        } finally {
+            engine.release();
+        }
     }
 
     private static void printGameResult(String[][] matrix, CalculationResult result) {
@@ -62,9 +164,21 @@ public class GameSession {
             System.out.println();
         }
 
+        if (!result.appliedCombinations.isEmpty()) {
+            System.out.println("\nWinning combinations:");
+            for (Map.Entry<String, List<String>> entry : result.appliedCombinations.entrySet()) {
+                StringBuilder line = new StringBuilder("  ").append(entry.getKey()).append(": ");
+                for (int i = 0; i < entry.getValue().size(); i++) {
+                    line.append(i == 0 ? "" : ", ").append(readableComboName(entry.getValue().get(i)));
+                }
+                System.out.println(line);
+            }
+        }
+
         System.out.println("\nDetailed breakdown:");
-        if (result.detailedBreakdown != null && !result.detailedBreakdown.isEmpty()) {
-            for (String line : result.detailedBreakdown) {
+        List<String> breakdown = result.getDetailedBreakdown();
+        if (!breakdown.isEmpty()) {
+            for (String line : breakdown) {
                 System.out.println("  " + line);
             }
         } else {
@@ -1,41 +1,536 @@
 package scratchgame;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import scratchgame.audit.AuditLog;
+import scratchgame.audit.AuditRecord;
+import scratchgame.audit.AuditReplay;
+import scratchgame.config.ConfigCache;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.config.ConfigWatcher;
+import scratchgame.export.ExportFormat;
+import scratchgame.export.TicketExport;
+import scratchgame.logic.BatchGenerator;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.RewardCache;
+import scratchgame.metrics.GameMetrics;
+import scratchgame.metrics.MetricsDumper;
 import scratchgame.model.Config;
+import scratchgame.optimizer.OptimizationTarget;
+import scratchgame.optimizer.PaytableOptimizer;
+import scratchgame.pipeline.TicketPipeline;
+import scratchgame.server.GameServer;
+import scratchgame.simulation.ExactCalculator;
+import scratchgame.simulation.SimulationReport;
+import scratchgame.simulation.SimulationShard;
+import scratchgame.simulation.SimulationStats;
+import scratchgame.simulation.Simulator;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
 public class ScratchGame {
 
     public static void main(String[] args) throws Exception {
         // Load config.json path from arguments or use default
         String configPath = null;
+        String configCacheDir = null;
+        Long simulateRounds = null;
+        Integer rewardCacheSize = null;
+        int[] shard = null;
+        Integer localShards = null;
+        String statsOut = null;
+        String mergeDir = null;
+        String exportDir = null;
+        long exportTickets = 1_000_000;
+        ExportFormat exportFormat = ExportFormat.BINARY;
+        int chunkSize = 1_000_000;
+        int[] pipeline = null;
+        Integer servePort = null;
+        String metricsFile = null;
+        long metricsInterval = 10;
+        String auditFile = null;
+        String replayFile = null;
+        Long replayRound = null;
+        String optimizeFile = null;
+        Double targetRtp = null;
+        OptimizationTarget target = new OptimizationTarget();
+        int generations = 60;
+        Integer sampleRounds = null;
+        boolean exact = false;
+        int bet = 100;
+        long seed = System.nanoTime();
+        boolean seedGiven = false;
+        int threads = Runtime.getRuntime().availableProcessors();
         for (int i = 0; i < args.length; i++) {
-            if ("--config".equals(args[i]) && i + 1 < args.length) {
-                configPath = args[i + 1];
+            if ("--exact".equals(args[i])) {
+                exact = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                break;
+            }
+            switch (args[i]) {
+                case "--config":
+                    configPath = args[i + 1];
+                    break;
+                case "--config-cache":
+                    configCacheDir = args[i + 1];
+                    break;
+                case "--simulate":
+                    simulateRounds = Long.parseLong(args[i + 1]);
+                    break;
+                case "--reward-cache":
+                    rewardCacheSize = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--bet":
+                    bet = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    seedGiven = true;
+                    break;
+                case "--shard":
+                    shard = SimulationShard.parse(args[i + 1]);
+                    break;
+                case "--local-shards":
+                    localShards = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--stats-out":
+                    statsOut = args[i + 1];
+                    break;
+                case "--merge":
+                    mergeDir = args[i + 1];
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--export":
+                    exportDir = args[i + 1];
+                    break;
+                case "--tickets":
+                    exportTickets = Long.parseLong(args[i + 1]);
+                    break;
+                case "--format":
+                    exportFormat = ExportFormat.parse(args[i + 1]);
+                    break;
+                case "--chunk-size":
+                    chunkSize = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--pipeline":
+                    pipeline = TicketPipeline.parseParallelism(args[i + 1]);
+                    break;
+                case "--serve":
+                    servePort = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--metrics":
+                    metricsFile = args[i + 1];
+                    break;
+                case "--metrics-interval":
+                    metricsInterval = Long.parseLong(args[i + 1]);
+                    break;
+                case "--audit":
+                    auditFile = args[i + 1];
+                    break;
+                case "--replay":
+                    replayFile = args[i + 1];
+                    break;
+                case "--round":
+                    replayRound = Long.parseLong(args[i + 1]);
+                    break;
+                case "--optimize":
+                    optimizeFile = args[i + 1];
+                    break;
+                case "--target-rtp":
+                    targetRtp = Double.parseDouble(args[i + 1]) / 100;
+                    break;
+                case "--rtp-tolerance":
+                    target.rtpTolerance = Double.parseDouble(args[i + 1]) / 100;
+                    break;
+                case "--target-hit":
+                    target.hitRate = Double.parseDouble(args[i + 1]) / 100;
+                    break;
+                case "--min-volatility":
+                    target.minVolatility = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--max-volatility":
+                    target.maxVolatility = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--generations":
+                    generations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--samples":
+                    sampleRounds = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    break;
             }
         }
         if (configPath == null) {
             configPath = "config.json";
         }
 
-        // Read configuration file
-        ObjectMapper mapper = new ObjectMapper();
-        Config config = mapper.readValue(new File(configPath), Config.class);
+        if (metricsFile != null) {
+            startMetrics(metricsFile, metricsInterval);
+        }
+
+        // Read, validate and compile the configuration file; watched modes reload it on change
+        Path configFile = Paths.get(configPath);
+        ConfigCache configCache = configCacheDir == null ? null : new ConfigCache(Paths.get(configCacheDir));
+
+        if (replayFile != null) {
+            replay(load(configFile, configCache), Paths.get(replayFile), replayRound);
+            return;
+        }
+        if (optimizeFile != null) {
+            if (targetRtp == null) {
+                System.out.println("--optimize needs --target-rtp <percent>");
+                return;
+            }
+            target.rtp = targetRtp;
+            optimize(load(configFile, configCache), Paths.get(optimizeFile), target, generations, sampleRounds, bet, seed,
+                    threads);
+            return;
+        }
+        if (exact) {
+            calculateExact(load(configFile, configCache), bet);
+            return;
+        }
+        if (mergeDir != null) {
+            merge(load(configFile, configCache), Paths.get(mergeDir), SimulationShard.readAll(Paths.get(mergeDir)));
+            return;
+        }
+        if (simulateRounds != null && localShards != null) {
+            simulateLocalShards(configPath, load(configFile, configCache), simulateRounds, bet, seed, threads,
+                    localShards, Paths.get(statsOut == null ? "shards" : statsOut), configCacheDir);
+            return;
+        }
+        if (simulateRounds != null && shard != null) {
+            if (!seedGiven) {
+                System.out.println("--shard needs --seed, so that every shard simulates the same run");
+                return;
+            }
+            Path file = Paths.get(statsOut == null ? SimulationShard.fileName(shard[0], shard[1]) : statsOut);
+            simulateShard(load(configFile, configCache), simulateRounds, bet, seed, threads, shard[0], shard[1], file);
+            return;
+        }
+        if (simulateRounds != null) {
+            simulate(load(configFile, configCache), simulateRounds, bet, seed, threads, rewardCacheSize);
+            return;
+        }
+        if (exportDir != null) {
+            export(load(configFile, configCache), exportDir, exportTickets, exportFormat, chunkSize, bet, seed, threads,
+                    pipeline);
+            return;
+        }
+
+        ConfigWatcher config = new ConfigWatcher(configFile, configCache);
+        config.start();
+        AuditLog audit = auditFile == null ? null : openAudit(auditFile);
+        if (servePort != null) {
+            serve(config, servePort, threads, audit);
+            return;
+        }
 
         Scanner scanner = new Scanner(System.in);
 
         // Game loop
         while (true) {
-            GameSession.playRound(scanner, config);
+            GameSession.playRound(scanner, config.get(), audit);
 
             System.out.print("\nDo you want to play again? (y/n): ");
             String answer = scanner.nextLine().trim().toLowerCase();
             if (!answer.equals("y") && !answer.equals("yes")) {
                 System.out.println("Thanks for playing! Goodbye.");
+                if (audit != null) {
+                    audit.close();
+                }
                 break;
             }
         }
     }
-}
\ No newline at end of file
+
+    private static ConfigSnapshot load(Path configFile, ConfigCache cache) throws IOException {
+        return cache == null ? ConfigSnapshot.load(configFile) : cache.load(configFile);
+    }
+
+    /**
+     * Certification mode: prints the exact RTP and payout distribution summary.
+     */
+    private static void calculateExact(ConfigSnapshot config, int bet) {
+        System.out.println("Calculating exact payout distribution for a " + config.rows() + "x" + config.cols() + " grid...");
+        System.out.println();
+        System.out.print(new ExactCalculator(config.plan(), config.combinations()).calculate(bet).format());
+    }
+
+    /**
+     * Batch mode: simulates the given number of rounds and prints an RTP report.
+     */
+    private static void simulate(ConfigSnapshot config, long rounds, int bet, long seed, int threads,
+                                 Integer rewardCacheSize) {
+        GenerationPlan plan = config.plan();
+        CompiledWinCombinations combinations = config.combinations();
+        RewardCache cache = null;
+        if (rewardCacheSize != null && RewardCache.supports(combinations)) {
+            cache = RewardCache.create(combinations, rewardCacheSize);
+        } else if (rewardCacheSize != null) {
+            System.out.println("Grid too large for the reward cache; scoring every round.");
+        }
+
+        System.out.println("Simulating " + rounds + " rounds on " + threads + " threads (seed " + seed + ")...");
+        long start = System.nanoTime();
+        SimulationStats stats = new Simulator(plan, combinations, bet, cache).run(rounds, seed, threads);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println();
+        System.out.print(SimulationReport.format(stats, bet, combinations, elapsed, threads));
+        if (cache != null) {
+            System.out.printf("Reward cache: %s of %d entries, %d hits, %d misses, %d evictions (%.1f%% hit rate)%n",
+                    cache.isFullTable() ? "full table" : "bounded", cache.capacity(), cache.hits(), cache.misses(),
+                    cache.evictions(), 100 * cache.hitRate());
+        }
+    }
+
+    /**
+     * Shard mode: simulates one shard of a run and writes its statistics for {@code --merge}.
+     */
+    private static void simulateShard(ConfigSnapshot config, long rounds, int bet, long seed, int threads,
+                                      int shard, int shards, Path file) throws IOException {
+        Simulator simulator = new Simulator(config.plan(), config.combinations(), bet);
+        SimulationShard result = SimulationShard.run(simulator, config.hash(), rounds, seed, shard, shards, threads);
+        result.write(file);
+        System.out.printf("Shard %d/%d: chunks [%d, %d) of %d, %d rounds in %.2f s -> %s%n", shard, shards,
+                result.firstChunk, result.endChunk, Simulator.chunkCount(rounds), result.stats.rounds(),
+                result.elapsedNanos / 1e9, file);
+    }
+
+    /**
+     * Runs every shard of a simulation as a separate local JVM, then merges them. Shards whose
+     * statistics file already exists for the same run are not rerun.
+     */
+    private static void simulateLocalShards(String configPath, ConfigSnapshot config, long rounds, int bet, long seed,
+                                            int threads, int shards, Path directory, String configCacheDir)
+            throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        int shardThreads = Math.max(1, threads / shards);
+        System.out.println("Simulating " + rounds + " rounds in " + shards + " local processes of " + shardThreads
+                + " thread(s) (seed " + seed + ")...");
+        List<Process> processes = new ArrayList<>();
+        List<Integer> launched = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            Path file = directory.resolve(SimulationShard.fileName(shard, shards));
+            if (isDone(file, config.hash(), bet, seed, rounds, shard, shards)) {
+                System.out.println("Shard " + shard + "/" + shards + " already done");
+                continue;
+            }
+            List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", System.getProperty("java.class.path"),
+                    ScratchGame.class.getName(), "--config", configPath, "--simulate", Long.toString(rounds),
+                    "--bet", Integer.toString(bet), "--seed", Long.toString(seed),
+                    "--threads", Integer.toString(shardThreads), "--shard", shard + "/" + shards,
+                    "--stats-out", file.toString()));
+            if (configCacheDir != null) {
+                command.addAll(Arrays.asList("--config-cache", configCacheDir));
+            }
+            Path log = directory.resolve(file.getFileName().toString().replace(SimulationShard.EXTENSION, ".log"));
+            processes.add(new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start());
+            launched.add(shard);
+        }
+        boolean failed = false;
+        for (int i = 0; i < processes.size(); i++) {
+            int exit = processes.get(i).waitFor();
+            if (exit != 0) {
+                System.out.println("Shard " + launched.get(i) + "/" + shards + " failed with exit code " + exit
+                        + "; see its log in " + directory);
+                failed = true;
+            }
+        }
+        if (!failed) {
+            // Only this run's files: the directory may hold shards of earlier runs
+            merge(config, directory, SimulationShard.readAll(directory, shards));
+        }
+    }
+
+    private static boolean isDone(Path file, String configHash, int bet, long seed, long rounds, int shard, int shards) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            return SimulationShard.read(file).matches(configHash, bet, seed, rounds, shard, shards);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Merge mode: combines the shard statistics files of a directory into one report.
+     */
+    private static void merge(ConfigSnapshot config, Path directory, List<SimulationShard> shards) {
+        SimulationShard merged;
+        try {
+            merged = SimulationShard.merge(shards);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Cannot merge the shards in " + directory + ": " + e.getMessage());
+            return;
+        }
+        if (!merged.configHash.equals(config.hash())) {
+            System.out.println("The shards in " + directory + " were simulated on a different config (hash "
+                    + merged.configHash + ")");
+            return;
+        }
+        System.out.println("Merged " + shards.size() + " shard(s) of " + merged.rounds + " rounds (seed " + merged.seed + ")");
+        System.out.println();
+        System.out.print(SimulationReport.format(merged.stats, merged.bet, config.combinations(),
+                merged.elapsedNanos, merged.threads));
+    }
+
+    /**
+     * Export mode: streams pre-generated tickets to chunk files, resuming an interrupted export.
+     * With a pipeline (generators, scorers), generation, scoring and writing overlap.
+     */
+    private static void export(ConfigSnapshot config, String directory, long tickets, ExportFormat format, int chunkSize,
+                               int bet, long seed, int threads, int[] pipeline) throws IOException {
+        GenerationPlan plan = config.plan();
+        CompiledWinCombinations combinations = config.combinations();
+        BatchGenerator generator = new BatchGenerator(plan, combinations, bet);
+
+        System.out.println("Exporting " + tickets + " tickets as " + format + " to " + directory + " (seed " + seed + ")...");
+        if (pipeline != null) {
+            TicketPipeline stages = new TicketPipeline(generator, pipeline[0], pipeline[1]);
+            long start = System.nanoTime();
+            int written = new TicketExport(stages, config.hash(), format, Paths.get(directory), chunkSize).run(tickets, seed);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Wrote %d chunk(s) in %.2f s%n%n", written, elapsed / 1e9);
+            System.out.print(stages.report());
+            return;
+        }
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            long start = System.nanoTime();
+            int written = new TicketExport(generator, combinations, config.hash(), format, Paths.get(directory),
+                    chunkSize, 1 << 16, pool).run(tickets, seed);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Wrote %d chunk(s) in %.2f s%n", written, elapsed / 1e9);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Optimizer mode: tunes the symbol weights towards the target and writes the resulting config.
+     */
+    private static void optimize(ConfigSnapshot snapshot, Path output, OptimizationTarget target, int generations,
+                                 Integer sampleRounds, int bet, long seed, int threads) throws IOException {
+        Config config = snapshot.config();
+        int rounds = sampleRounds != null ? sampleRounds
+                : PaytableOptimizer.defaultSampleRounds(snapshot.rows(), snapshot.cols());
+
+        System.out.println("Optimizing towards " + target + " with " + rounds + " rounds per sample (seed " + seed + ")...");
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            PaytableOptimizer optimizer = new PaytableOptimizer(config, snapshot.rows(), snapshot.cols(), bet, rounds, pool);
+            PaytableOptimizer.Result result = optimizer.optimize(target, generations, 16, seed);
+            PaytableOptimizer.write(result.config, output);
+
+            System.out.println();
+            System.out.println((result.met ? "Target met: " : "Target not met, closest found: ") + result.estimate.format());
+            System.out.printf("%d generation(s), %d candidate(s), %d sample(s) in %.2f s%n",
+                    result.generations, result.evaluations, result.samples, result.elapsedNanos / 1e9);
+            if (result.estimate.rtpConfidence95 > target.rtpTolerance) {
+                System.out.println("Sampling noise exceeds the RTP tolerance; raise --samples or confirm with --exact.");
+            }
+            System.out.println("Wrote " + output);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Service mode: serves rounds over HTTP until the process is stopped, picking up config changes.
+     */
+    private static void serve(ConfigWatcher config, int port, int threads, AuditLog audit) throws IOException {
+        // Small JSON responses otherwise wait on Nagle/delayed-ACK; must be set before the server classes load
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        GameServer server = new GameServer(config, port, Math.max(threads * 4, 16), audit);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            if (audit != null) {
+                try {
+                    audit.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close the audit log: " + e.getMessage());
+                }
+            }
+        }));
+        System.out.println("Serving rounds on http://localhost:" + server.port() + "/play?bet=100"
+                + (server.virtualThreads() ? " (virtual threads)" : " (thread pool)"));
+    }
+
+    /**
+     * Opens the audit log for appending, recovering it if the last run stopped mid-write.
+     */
+    private static AuditLog openAudit(String file) throws IOException {
+        AuditLog audit = new AuditLog(Paths.get(file));
+        System.out.println("Recording rounds to audit log " + file);
+        return audit;
+    }
+
+    /**
+     * Replay mode: regenerates and rescores logged rounds, or prints a single round.
+     */
+    private static void replay(ConfigSnapshot config, Path log, Long roundId) throws IOException {
+        AuditReplay replay = new AuditReplay(Collections.singletonList(config));
+        if (roundId != null) {
+            AuditRecord record = AuditReplay.find(log, roundId);
+            if (record == null) {
+                System.out.println("Round " + roundId + " is not in " + log);
+                return;
+            }
+            System.out.println("Round " + record.roundId + ": seed " + record.seed + ", bet " + record.bet
+                    + ", reward " + record.reward + ", config " + record.configHash);
+            for (String[] row : record.grid.toMatrix(config.dictionary())) {
+                System.out.println("  " + String.join(" ", row));
+            }
+            String mismatch = replay.verify(record);
+            System.out.println(mismatch == null ? "Replay matches" : "MISMATCH: " + mismatch);
+            return;
+        }
+        AuditReplay.Report report = replay.verifyAll(log);
+        System.out.println("Records: " + report.records);
+        System.out.println("Verified: " + report.verified);
+        System.out.println("Other configs: " + report.unknownConfig);
+        System.out.println("Mismatches: " + report.mismatches.size());
+        for (String mismatch : report.mismatches) {
+            System.out.println("  " + mismatch);
+        }
+    }
+
+    /**
+     * Enables round metrics and dumps them to the file periodically and once more on exit.
+     */
+    private static void startMetrics(String file, long intervalSeconds) {
+        GameMetrics.setEnabled(true);
+        MetricsDumper dumper = new MetricsDumper(Paths.get(file), intervalSeconds);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                dumper.close();
+            } catch (IOException e) {
+                System.err.println("Failed to write metrics to " + file + ": " + e.getMessage());
+            }
+        }));
+    }
+}
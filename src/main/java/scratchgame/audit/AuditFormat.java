@@ -0,0 +1,111 @@
+package scratchgame.audit;
+
+import scratchgame.model.Grid;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of the audit log (big-endian).
+ * <p>
+ * File header: {@code magic (4), version (4)}. Each record: {@code bodyLength (4)}, body
+ * {@code roundId (8), timestamp (8), seed (8), configHash (32), bet (4), reward (8), rows (1),
+ * cols (1), cells (rows * cols)}, then {@code crc32(body) (4)}. A torn or corrupt tail fails
+ * its length or checksum and is dropped when the log is reopened.
+ */
+final class AuditFormat {
+
+    static final int MAGIC = 0x4C534155; // "LSAU"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int HASH_BYTES = 32;
+    static final int FIXED_BODY = 8 + 8 + 8 + HASH_BYTES + 4 + 8 + 1 + 1;
+    static final int MAX_CELLS = 255 * 255;
+
+    private AuditFormat() {
+    }
+
+    static int recordSize(int cells) {
+        return 4 + FIXED_BODY + cells + 4;
+    }
+
+    /**
+     * Encodes one record; hash is the record's config hash as bytes, decoded once by the caller.
+     */
+    static void write(ByteBuffer out, AuditRecord record, byte[] hash, CRC32 crc) {
+        int cells = record.grid.size();
+        int start = out.position();
+        out.putInt(FIXED_BODY + cells);
+        int bodyStart = out.position();
+        out.putLong(record.roundId)
+                .putLong(record.timestampMillis)
+                .putLong(record.seed)
+                .put(hash)
+                .putInt(record.bet)
+                .putLong(record.reward)
+                .put((byte) record.grid.rows())
+                .put((byte) record.grid.cols())
+                .put(record.grid.cells());
+        crc.reset();
+        ByteBuffer body = out.duplicate();
+        body.position(bodyStart).limit(out.position());
+        crc.update(body);
+        out.putInt((int) crc.getValue());
+        if (out.position() - start != recordSize(cells)) {
+            throw new IllegalStateException("Audit record size mismatch");
+        }
+    }
+
+    /**
+     * Decodes the body of one record; returns null if the checksum does not match.
+     */
+    static AuditRecord read(ByteBuffer body, int storedCrc, CRC32 crc) {
+        crc.reset();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != storedCrc) {
+            return null;
+        }
+        AuditRecord record = new AuditRecord();
+        record.roundId = body.getLong();
+        record.timestampMillis = body.getLong();
+        record.seed = body.getLong();
+        byte[] hash = new byte[HASH_BYTES];
+        body.get(hash);
+        record.configHash = hashHex(hash);
+        record.bet = body.getInt();
+        record.reward = body.getLong();
+        int rows = body.get() & 0xFF;
+        int cols = body.get() & 0xFF;
+        if (rows == 0 || cols == 0 || body.remaining() != rows * cols) {
+            return null;
+        }
+        record.grid = new Grid(rows, cols);
+        body.get(record.grid.cells());
+        return record;
+    }
+
+    static byte[] hashBytes(String hex) {
+        if (hex == null || hex.length() != HASH_BYTES * 2) {
+            throw new IllegalArgumentException("Config hash must be " + HASH_BYTES * 2 + " hex digits: " + hex);
+        }
+        byte[] bytes = new byte[HASH_BYTES];
+        for (int i = 0; i < HASH_BYTES; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    static String hashHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    static void checkGrid(Grid grid) {
+        if (grid.rows() > 255 || grid.cols() > 255) {
+            throw new IllegalArgumentException("Audit records hold grids up to 255x255");
+        }
+    }
+}
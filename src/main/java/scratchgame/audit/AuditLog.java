@@ -0,0 +1,248 @@
+package scratchgame.audit;
+
+import scratchgame.model.Grid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only audit log of played rounds.
+ * <p>
+ * {@link #append} only assigns a round id and queues the record on a lock-free queue, so it
+ * adds no I/O or wake-ups to the round. A single writer thread wakes every millisecond, drains
+ * the queue in groups, encodes each group into one buffer and writes and forces it with one
+ * channel call each (group commit). {@link #sync()} waits until everything appended so far is on
+ * disk. When the writer falls more than {@value #MAX_PENDING} records behind, appenders wait
+ * rather than dropping records. Once a write fails, or the log is closed, {@link #append} throws,
+ * so no round is played that cannot be recorded.
+ * <p>
+ * Opening an existing log validates it, drops a torn tail left by a crash and continues the
+ * round ids after the last good record.
+ */
+public final class AuditLog implements Closeable {
+
+    private static final int MAX_PENDING = 1 << 16;
+    private static final int MAX_GROUP = 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Queue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextRoundId;
+    private final AtomicLong appended = new AtomicLong();
+    private final Thread writer;
+    private final Object durableLock = new Object();
+
+    private volatile long durable;
+    // Last config hash validated by append; snapshots hand out the same String instance
+    private volatile String checkedHash;
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    public AuditLog(Path file) throws IOException {
+        this(file, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Log writing through the given channel, which must be open for writing on the file.
+     */
+    AuditLog(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        long lastRoundId = -1;
+        long validLength = 0;
+        if (Files.exists(file) && Files.size(file) > 0) {
+            try (AuditReader reader = new AuditReader(file)) {
+                AuditRecord record;
+                while ((record = reader.next()) != null) {
+                    lastRoundId = record.roundId;
+                }
+                validLength = reader.validLength();
+            }
+        }
+        if (validLength == 0) {
+            ByteBuffer header = ByteBuffer.allocate(AuditFormat.HEADER_SIZE);
+            header.putInt(AuditFormat.MAGIC).putInt(AuditFormat.VERSION).flip();
+            channel.truncate(0);
+            writeFully(header, 0);
+            validLength = AuditFormat.HEADER_SIZE;
+        } else {
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        this.nextRoundId = new AtomicLong(lastRoundId + 1);
+
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a round for writing and returns its round id.
+     *
+     * @throws AuditLogUnavailableException if the log is closed or a write has failed
+     */
+    public long append(long seed, String configHash, int bet, Grid grid, long reward) {
+        AuditFormat.checkGrid(grid);
+        if (configHash != checkedHash) {
+            AuditFormat.hashBytes(configHash);
+            checkedHash = configHash;
+        }
+        checkWritable();
+        // Backpressure: a stalled disk must not grow the queue without bound
+        while (appended.get() - durable >= MAX_PENDING && failure == null && !closing) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        // Reserve before the last check: the writer only stops once every reserved record is durable
+        appended.incrementAndGet();
+        if (closing || failure != null) {
+            appended.decrementAndGet();
+            checkWritable();
+        }
+        AuditRecord record = new AuditRecord();
+        record.roundId = nextRoundId.getAndIncrement();
+        record.timestampMillis = System.currentTimeMillis();
+        record.seed = seed;
+        record.configHash = configHash;
+        record.bet = bet;
+        record.grid = new Grid(grid.rows(), grid.cols());
+        System.arraycopy(grid.cells(), 0, record.grid.cells(), 0, grid.size());
+        record.reward = reward;
+        queue.add(record);
+        // A close now still writes the record, but a failed writer never will
+        checkFailure();
+        return record.roundId;
+    }
+
+    private void checkWritable() {
+        checkFailure();
+        if (closing) {
+            throw new AuditLogUnavailableException("Audit log " + file + " is closed");
+        }
+    }
+
+    private void checkFailure() {
+        IOException failed = failure;
+        if (failed != null) {
+            throw new AuditLogUnavailableException("Audit log " + file + " failed: " + failed.getMessage(), failed);
+        }
+    }
+
+    /**
+     * Blocks until every record appended before this call has been written and forced to disk.
+     */
+    public void sync() throws IOException {
+        long target = appended.get();
+        synchronized (durableLock) {
+            // A stopped writer writes nothing more; only a failure explains missing records
+            while (durable < target && writer.isAlive()) {
+                if (failure != null) {
+                    throw failure;
+                }
+                try {
+                    durableLock.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while syncing the audit log");
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeLoop() {
+        List<AuditRecord> group = new ArrayList<>(MAX_GROUP);
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        // Rounds between reloads share one config hash; decode it once
+        String hash = null;
+        byte[] hashBytes = null;
+        try {
+            // After close, keep going until every reserved record has been queued and written
+            while (!closing || durable < appended.get()) {
+                AuditRecord next;
+                while (group.size() < MAX_GROUP && (next = queue.poll()) != null) {
+                    group.add(next);
+                }
+                if (group.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+
+                buffer.clear();
+                for (AuditRecord record : group) {
+                    int size = AuditFormat.recordSize(record.grid.size());
+                    if (buffer.remaining() < size) {
+                        buffer = flush(buffer, size);
+                    }
+                    if (!record.configHash.equals(hash)) {
+                        hash = record.configHash;
+                        hashBytes = AuditFormat.hashBytes(hash);
+                    }
+                    AuditFormat.write(buffer, record, hashBytes, crc);
+                }
+                flush(buffer, 0);
+                channel.force(false);
+                synchronized (durableLock) {
+                    durable += group.size();
+                    durableLock.notifyAll();
+                }
+                group.clear();
+            }
+        } catch (IOException e) {
+            failure = e;
+            System.err.println("Audit log " + file + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the buffered bytes and returns an empty buffer with room for at least minFree bytes.
+     */
+    private ByteBuffer flush(ByteBuffer buffer, int minFree) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return buffer.capacity() >= minFree ? buffer : ByteBuffer.allocateDirect(minFree);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Writes all queued records, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package scratchgame.audit;
+
+/**
+ * Thrown by {@link AuditLog#append} once the log has failed or is closed, so callers can refuse
+ * the round without mistaking other illegal states for an audit outage.
+ */
+public final class AuditLogUnavailableException extends IllegalStateException {
+
+    public AuditLogUnavailableException(String message) {
+        super(message);
+    }
+
+    public AuditLogUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,98 @@
+package scratchgame.audit;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Sequential reader for audit logs written by {@link AuditLog}. Stops at the end of the file
+ * or at the first torn or corrupt record; {@link #validLength()} is then the offset after the
+ * last good record.
+ */
+public final class AuditReader implements Closeable {
+
+    private static final int MAX_BODY = AuditFormat.FIXED_BODY + AuditFormat.MAX_CELLS;
+
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+    private ByteBuffer body = ByteBuffer.allocate(256);
+    private long position;
+    private boolean corrupt;
+
+    public AuditReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(AuditFormat.HEADER_SIZE);
+        try {
+            readFully(header);
+        } catch (EOFException e) {
+            channel.close();
+            throw new IOException("Not an audit log: " + file);
+        }
+        header.flip();
+        if (header.getInt() != AuditFormat.MAGIC || header.getInt() != AuditFormat.VERSION) {
+            channel.close();
+            throw new IOException("Not an audit log or unsupported version: " + file);
+        }
+        position = AuditFormat.HEADER_SIZE;
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the valid log.
+     */
+    public AuditRecord next() throws IOException {
+        if (corrupt) {
+            return null;
+        }
+        try {
+            lengthBuffer.clear();
+            readFully(lengthBuffer);
+            int length = lengthBuffer.getInt(0);
+            if (length < AuditFormat.FIXED_BODY || length > MAX_BODY) {
+                corrupt = true;
+                return null;
+            }
+            if (body.capacity() < length + 4) {
+                body = ByteBuffer.allocate(length + 4);
+            }
+            body.clear().limit(length + 4);
+            readFully(body);
+            int storedCrc = body.getInt(length);
+            body.flip().limit(length);
+            AuditRecord record = AuditFormat.read(body, storedCrc, crc);
+            if (record == null) {
+                corrupt = true;
+                return null;
+            }
+            position += 4 + length + 4;
+            return record;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Offset just past the last record returned by {@link #next()}.
+     */
+    public long validLength() {
+        return position;
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,18 @@
+package scratchgame.audit;
+
+import scratchgame.model.Grid;
+
+/**
+ * One audited round: everything needed to regenerate and rescore it.
+ */
+public class AuditRecord {
+    public long roundId;
+    public long timestampMillis;
+    // Seed of the round's SeededRandomSource
+    public long seed;
+    // Hex SHA-256 of the config the round was played on, see ConfigSnapshot#hash()
+    public String configHash;
+    public int bet;
+    public Grid grid;
+    public long reward;
+}
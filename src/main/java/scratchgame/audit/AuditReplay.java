@@ -0,0 +1,104 @@
+package scratchgame.audit;
+
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.random.RandomSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies audit records by regenerating each grid from its seed with {@link MatrixGenerator}
+ * and rescoring it with {@link RewardCalculator} on the config with the recorded hash.
+ */
+public final class AuditReplay {
+
+    private final Map<String, ConfigSnapshot> configs = new HashMap<>();
+
+    public AuditReplay(List<ConfigSnapshot> snapshots) {
+        for (ConfigSnapshot snapshot : snapshots) {
+            configs.put(snapshot.hash(), snapshot);
+        }
+    }
+
+    /**
+     * Replays one record; returns null if it matches, otherwise a description of the mismatch.
+     * Throws IllegalArgumentException if no config with the recorded hash was supplied.
+     */
+    public String verify(AuditRecord record) {
+        ConfigSnapshot snapshot = configs.get(record.configHash);
+        if (snapshot == null) {
+            throw new IllegalArgumentException("No config with hash " + record.configHash);
+        }
+        Grid grid = regenerate(snapshot, record.seed);
+        if (!grid.equals(record.grid)) {
+            return "round " + record.roundId + ": grid differs from the one regenerated from seed " + record.seed;
+        }
+        long reward = RewardCalculator.score(snapshot.combinations(), grid, record.bet, new RoundScore()).finalReward;
+        if (reward != record.reward) {
+            return "round " + record.roundId + ": recorded reward " + record.reward + " but the grid scores " + reward;
+        }
+        return null;
+    }
+
+    /**
+     * The grid a round with this seed produces on the config.
+     */
+    public static Grid regenerate(ConfigSnapshot snapshot, long seed) {
+        return MatrixGenerator.generateGrid(snapshot.plan(), RandomSource.seeded(seed));
+    }
+
+    /**
+     * Replays every record of a log.
+     */
+    public Report verifyAll(Path log) throws IOException {
+        Report report = new Report();
+        try (AuditReader reader = new AuditReader(log)) {
+            AuditRecord record;
+            while ((record = reader.next()) != null) {
+                report.records++;
+                if (!configs.containsKey(record.configHash)) {
+                    report.unknownConfig++;
+                    continue;
+                }
+                String mismatch = verify(record);
+                if (mismatch == null) {
+                    report.verified++;
+                } else {
+                    report.mismatches.add(mismatch);
+                }
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Finds one round of a log, or returns null.
+     */
+    public static AuditRecord find(Path log, long roundId) throws IOException {
+        try (AuditReader reader = new AuditReader(log)) {
+            AuditRecord record;
+            while ((record = reader.next()) != null) {
+                if (record.roundId == roundId) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static class Report {
+        public long records;
+        public long verified;
+        // Records played on a config that was not supplied
+        public long unknownConfig;
+        public List<String> mismatches = new ArrayList<>();
+    }
+}
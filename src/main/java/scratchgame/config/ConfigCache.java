@@ -0,0 +1,124 @@
+package scratchgame.config;
+
+import scratchgame.model.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Directory of parsed configs in a binary form, keyed by the SHA-256 of the config file.
+ * <p>
+ * A load whose file content is cached decodes the binary form and compiles it without touching
+ * Jackson; the compile itself takes a few milliseconds, while bootstrapping Jackson and parsing
+ * JSON on a cold JVM takes hundreds. A miss parses the JSON as usual and caches the config once
+ * it compiled, so invalid configs are never cached. Entries are written atomically and carry a
+ * checksum; an unreadable entry counts as a miss and is rewritten.
+ * <p>
+ * File layout (big-endian): {@code magic (4), version (4), hash (UTF)}, the {@link ConfigCodec}
+ * body, then {@code crc32 (8)} of everything before it.
+ */
+public final class ConfigCache {
+
+    private static final int MAGIC = 0x4C534343; // "LSCC"
+    // Bump when ConfigCodec changes, so stale entries are reparsed
+    static final int VERSION = 1;
+
+    private final Path directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ConfigCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Same as {@link ConfigSnapshot#load}, with the hash of the same content, served from the cache when possible.
+     */
+    public ConfigSnapshot load(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        String hash = ConfigSnapshot.sha256(content);
+        Path entry = entry(hash);
+        Config cached = read(entry, hash);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return ConfigSnapshot.compile(cached, hash);
+        }
+        misses.incrementAndGet();
+        Config config = ConfigSnapshot.parse(content);
+        byte[] encoded = encode(config, hash);
+        ConfigSnapshot snapshot = ConfigSnapshot.compile(config, hash);
+        try {
+            Files.createDirectories(directory);
+            Path part = entry.resolveSibling(entry.getFileName() + ".part");
+            Files.write(part, encoded);
+            Files.move(part, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The cache only saves time; a read-only or full disk must not fail the start
+            System.err.println("Could not cache config " + file + " in " + directory + ": " + e.getMessage());
+        }
+        return snapshot;
+    }
+
+    public Path entry(String hash) {
+        return directory.resolve(hash + ".bin");
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    static byte[] encode(Config config, String hash) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(hash);
+        ConfigCodec.write(out, config);
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an entry, or returns null if it is missing, stale or damaged.
+     */
+    static Config read(Path entry, String hash) {
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(entry);
+            if (bytes.length < 16) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 8);
+            if (ByteBuffer.wrap(bytes, bytes.length - 8, 8).getLong() != crc.getValue()) {
+                return null;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !hash.equals(in.readUTF())) {
+                return null;
+            }
+            Config config = ConfigCodec.read(in);
+            return in.available() == 0 ? config : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package scratchgame.config;
+
+import scratchgame.model.BonusSymbolsProb;
+import scratchgame.model.Config;
+import scratchgame.model.Probabilities;
+import scratchgame.model.StandardSymbolsProb;
+import scratchgame.model.SymbolConfig;
+import scratchgame.model.WinCombination;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of a {@link Config}, read and written field by field without Jackson.
+ * Nullable values are preceded by a presence flag; maps keep their order, which fixes the
+ * symbol ordinals. Bump {@link ConfigCache}'s version when a model field is added.
+ */
+final class ConfigCodec {
+
+    private ConfigCodec() {
+    }
+
+    static void write(DataOutputStream out, Config config) throws IOException {
+        writeInteger(out, config.columns);
+        writeInteger(out, config.rows);
+        writeString(out, config.bonus_resolution);
+
+        out.writeBoolean(config.symbols != null);
+        if (config.symbols != null) {
+            out.writeInt(config.symbols.size());
+            for (Map.Entry<String, SymbolConfig> entry : config.symbols.entrySet()) {
+                out.writeUTF(entry.getKey());
+                SymbolConfig symbol = entry.getValue();
+                out.writeBoolean(symbol != null);
+                if (symbol != null) {
+                    out.writeDouble(symbol.reward_multiplier);
+                    writeString(out, symbol.type);
+                    writeInteger(out, symbol.extra);
+                    writeString(out, symbol.impact);
+                }
+            }
+        }
+
+        Probabilities probabilities = config.probabilities;
+        out.writeBoolean(probabilities != null);
+        if (probabilities != null) {
+            out.writeBoolean(probabilities.standard_symbols != null);
+            if (probabilities.standard_symbols != null) {
+                out.writeInt(probabilities.standard_symbols.size());
+                for (StandardSymbolsProb cell : probabilities.standard_symbols) {
+                    out.writeBoolean(cell != null);
+                    if (cell != null) {
+                        out.writeInt(cell.column);
+                        out.writeInt(cell.row);
+                        writeWeights(out, cell.symbols);
+                        writeInteger(out, cell.bonus_chance_percent);
+                    }
+                }
+            }
+            BonusSymbolsProb bonus = probabilities.bonus_symbols;
+            out.writeBoolean(bonus != null);
+            if (bonus != null) {
+                writeWeights(out, bonus.symbols);
+                writeInteger(out, bonus.chance_percent);
+            }
+        }
+
+        out.writeBoolean(config.win_combinations != null);
+        if (config.win_combinations != null) {
+            out.writeInt(config.win_combinations.size());
+            for (Map.Entry<String, WinCombination> entry : config.win_combinations.entrySet()) {
+                out.writeUTF(entry.getKey());
+                WinCombination combination = entry.getValue();
+                out.writeBoolean(combination != null);
+                if (combination != null) {
+                    out.writeDouble(combination.reward_multiplier);
+                    writeString(out, combination.when);
+                    writeInteger(out, combination.count);
+                    writeString(out, combination.group);
+                    writeAreas(out, combination.covered_areas);
+                    writeInteger(out, combination.count_percent);
+                    writeString(out, combination.line_family);
+                    writeInteger(out, combination.length);
+                    writeInteger(out, combination.width);
+                    writeInteger(out, combination.height);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deep copy of a config through its binary form.
+     */
+    static Config copy(Config config) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            write(new DataOutputStream(bytes), config);
+            return read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        } catch (IOException e) {
+            // In-memory streams do not fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Config read(DataInputStream in) throws IOException {
+        Config config = new Config();
+        config.columns = readInteger(in);
+        config.rows = readInteger(in);
+        config.bonus_resolution = readString(in);
+
+        if (in.readBoolean()) {
+            int size = readSize(in);
+            config.symbols = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                String name = in.readUTF();
+                SymbolConfig symbol = null;
+                if (in.readBoolean()) {
+                    symbol = new SymbolConfig();
+                    symbol.reward_multiplier = in.readDouble();
+                    symbol.type = readString(in);
+                    symbol.extra = readInteger(in);
+                    symbol.impact = readString(in);
+                }
+                config.symbols.put(name, symbol);
+            }
+        }
+
+        if (in.readBoolean()) {
+            Probabilities probabilities = new Probabilities();
+            if (in.readBoolean()) {
+                int size = readSize(in);
+                probabilities.standard_symbols = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    StandardSymbolsProb cell = null;
+                    if (in.readBoolean()) {
+                        cell = new StandardSymbolsProb();
+                        cell.column = in.readInt();
+                        cell.row = in.readInt();
+                        cell.symbols = readWeights(in);
+                        cell.bonus_chance_percent = readInteger(in);
+                    }
+                    probabilities.standard_symbols.add(cell);
+                }
+            }
+            if (in.readBoolean()) {
+                BonusSymbolsProb bonus = new BonusSymbolsProb();
+                bonus.symbols = readWeights(in);
+                bonus.chance_percent = readInteger(in);
+                probabilities.bonus_symbols = bonus;
+            }
+            config.probabilities = probabilities;
+        }
+
+        if (in.readBoolean()) {
+            int size = readSize(in);
+            config.win_combinations = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                String name = in.readUTF();
+                WinCombination combination = null;
+                if (in.readBoolean()) {
+                    combination = new WinCombination();
+                    combination.reward_multiplier = in.readDouble();
+                    combination.when = readString(in);
+                    combination.count = readInteger(in);
+                    combination.group = readString(in);
+                    combination.covered_areas = readAreas(in);
+                    combination.count_percent = readInteger(in);
+                    combination.line_family = readString(in);
+                    combination.length = readInteger(in);
+                    combination.width = readInteger(in);
+                    combination.height = readInteger(in);
+                }
+                config.win_combinations.put(name, combination);
+            }
+        }
+        return config;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeWeights(DataOutputStream out, Map<String, Integer> weights) throws IOException {
+        out.writeBoolean(weights != null);
+        if (weights != null) {
+            out.writeInt(weights.size());
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeInteger(out, entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, Integer> readWeights(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int size = readSize(in);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            weights.put(in.readUTF(), readInteger(in));
+        }
+        return weights;
+    }
+
+    private static void writeAreas(DataOutputStream out, List<List<String>> areas) throws IOException {
+        out.writeBoolean(areas != null);
+        if (areas != null) {
+            out.writeInt(areas.size());
+            for (List<String> area : areas) {
+                out.writeBoolean(area != null);
+                if (area != null) {
+                    out.writeInt(area.size());
+                    for (String cell : area) {
+                        writeString(out, cell);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<List<String>> readAreas(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int size = readSize(in);
+        List<List<String>> areas = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<String> area = null;
+            if (in.readBoolean()) {
+                int cells = readSize(in);
+                area = new ArrayList<>(cells);
+                for (int c = 0; c < cells; c++) {
+                    area.add(readString(in));
+                }
+            }
+            areas.add(area);
+        }
+        return areas;
+    }
+
+    private static int readSize(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > 1 << 24) {
+            throw new IOException("Invalid collection size " + size);
+        }
+        return size;
+    }
+}
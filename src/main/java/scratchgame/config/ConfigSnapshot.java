@@ -0,0 +1,145 @@
+package scratchgame.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.model.Config;
+import scratchgame.model.SymbolDictionary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Immutable, validated and compiled form of a config file.
+ * <p>
+ * All validation happens when the snapshot is built: a config that cannot be compiled never
+ * becomes a snapshot, so rounds do no per-call checks or lookups. The source {@link Config} is
+ * kept private and only handed out as a copy; a round that captured a snapshot keeps using it
+ * even after a reload.
+ */
+public final class ConfigSnapshot {
+
+    private static final int DEFAULT_SIZE = 3;
+
+    private final String hash;
+    private final int rows;
+    private final int cols;
+    private final SymbolDictionary dictionary;
+    private final GenerationPlan plan;
+    private final CompiledWinCombinations combinations;
+    private final Config source;
+
+    private ConfigSnapshot(Config source, String hash, int rows, int cols, SymbolDictionary dictionary,
+                           GenerationPlan plan, CompiledWinCombinations combinations) {
+        this.source = source;
+        this.hash = hash;
+        this.rows = rows;
+        this.cols = cols;
+        this.dictionary = dictionary;
+        this.plan = plan;
+        this.combinations = combinations;
+    }
+
+    /**
+     * Reads, validates and compiles a config file.
+     *
+     * @throws IOException if the file cannot be read or parsed
+     * @throws IllegalArgumentException if the config is invalid
+     */
+    public static ConfigSnapshot load(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        return compile(parse(content), sha256(content));
+    }
+
+    static Config parse(byte[] content) throws IOException {
+        return Json.MAPPER.readValue(content, Config.class);
+    }
+
+    /**
+     * Validates and compiles an in-memory config; the hash is taken over its JSON form.
+     */
+    public static ConfigSnapshot of(Config config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config is null");
+        }
+        try {
+            // The caller keeps its instance and may change it; the snapshot must not follow
+            return compile(ConfigCodec.copy(config), sha256(Json.MAPPER.writeValueAsBytes(config)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Config cannot be serialized", e);
+        }
+    }
+
+    /**
+     * Compiles a config that no one else holds.
+     */
+    static ConfigSnapshot compile(Config config, String hash) {
+        if (config.symbols == null || config.symbols.isEmpty()) {
+            throw new IllegalArgumentException("Config has no symbols");
+        }
+        int rows = (config.rows == null) ? DEFAULT_SIZE : config.rows;
+        int cols = (config.columns == null) ? DEFAULT_SIZE : config.columns;
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        GenerationPlan plan = GenerationPlan.compile(config, dictionary, rows, cols);
+        CompiledWinCombinations combinations = CompiledWinCombinations.compile(config, dictionary, rows, cols);
+        return new ConfigSnapshot(config, hash, rows, cols, dictionary, plan, combinations);
+    }
+
+    /** Hex SHA-256 of the config content; equal hashes mean identical configs. */
+    public String hash() {
+        return hash;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public SymbolDictionary dictionary() {
+        return dictionary;
+    }
+
+    public GenerationPlan plan() {
+        return plan;
+    }
+
+    public CompiledWinCombinations combinations() {
+        return combinations;
+    }
+
+    /**
+     * A fresh copy of the config this snapshot was compiled from, for callers that derive a new
+     * config from it; changing the copy does not affect the snapshot.
+     */
+    public Config config() {
+        return ConfigCodec.copy(source);
+    }
+
+    static String sha256(byte[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest(content)) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Holds the mapper so that Jackson is only bootstrapped when a config is actually parsed,
+     * not on a start served from the {@link ConfigCache}.
+     */
+    private static final class Json {
+        static final ObjectMapper MAPPER = new ObjectMapper();
+    }
+}
@@ -0,0 +1,127 @@
+package scratchgame.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current {@link ConfigSnapshot} of a file and swaps it atomically when the file changes.
+ * <p>
+ * Readers call {@link #get()} once per round and keep that snapshot for the whole round. A change
+ * that fails to parse or validate is reported and the previous snapshot stays active.
+ */
+public final class ConfigWatcher implements Supplier<ConfigSnapshot>, Closeable {
+
+    // Editors often write a file in several steps; wait for them to settle before reloading
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path file;
+    private final ConfigCache cache;
+    private final AtomicReference<ConfigSnapshot> current;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(Path file) throws IOException {
+        this(file, null);
+    }
+
+    /**
+     * @param cache cache to load the file through, or null to always parse it
+     */
+    public ConfigWatcher(Path file, ConfigCache cache) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.cache = cache;
+        this.current = new AtomicReference<>(load());
+    }
+
+    @Override
+    public ConfigSnapshot get() {
+        return current.get();
+    }
+
+    /**
+     * Starts watching the file's directory on a daemon thread.
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService service = watchService;
+        thread = new Thread(() -> watch(service), "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reloads the file now. Returns true if a new snapshot was installed; an unchanged hash or an
+     * invalid file keeps the current one.
+     */
+    public boolean reload() {
+        ConfigSnapshot next;
+        try {
+            next = load();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Config reload of " + file + " failed, keeping the current config: " + e.getMessage());
+            return false;
+        }
+        ConfigSnapshot previous = current.get();
+        if (previous.hash().equals(next.hash())) {
+            return false;
+        }
+        current.set(next);
+        System.err.println("Config reloaded from " + file + " (" + next.hash().substring(0, 12) + ")");
+        return true;
+    }
+
+    private ConfigSnapshot load() throws IOException {
+        return cache == null ? ConfigSnapshot.load(file) : cache.load(file);
+    }
+
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && file.getFileName().equals(context)) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    // Drain follow-up events of the same write
+                    WatchKey more;
+                    while ((more = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        more.pollEvents();
+                        more.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            thread.interrupt();
+            watchService = null;
+            thread = null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package scratchgame.export;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sequential reader for files written by {@link BinaryTicketWriter}.
+ */
+public final class BinaryTicketReader implements Closeable {
+
+    private final DataInputStream in;
+    public final int rows;
+    public final int cols;
+    public final long seed;
+    public final long firstTicket;
+    public final int bet;
+    // Hex SHA-256 of the config the tickets were scored with, see ConfigSnapshot#hash()
+    public final String configHash;
+
+    /** Fields of the last record read by {@link #next()}. */
+    public long ticket;
+    public long reward;
+    public long comboMask;
+    public byte bonus;
+    public final byte[] cells;
+
+    public BinaryTicketReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        if (in.readInt() != BinaryTicketWriter.MAGIC) {
+            in.close();
+            throw new IOException("Not a ticket file: " + file);
+        }
+        int version = in.readInt();
+        if (version != BinaryTicketWriter.VERSION) {
+            in.close();
+            throw new IOException("Unsupported ticket file version " + version);
+        }
+        this.rows = in.readInt();
+        this.cols = in.readInt();
+        int recordSize = in.readInt();
+        if (recordSize != BinaryTicketWriter.recordSize(rows, cols)) {
+            in.close();
+            throw new IOException("Corrupt ticket file header: " + file);
+        }
+        this.seed = in.readLong();
+        this.firstTicket = in.readLong();
+        this.bet = in.readInt();
+        byte[] hash = new byte[BinaryTicketWriter.HASH_BYTES];
+        in.readFully(hash);
+        this.configHash = BinaryTicketWriter.hashHex(hash);
+        this.cells = new byte[rows * cols];
+    }
+
+    /**
+     * Reads the next record into the public fields; returns false at end of file.
+     */
+    public boolean next() throws IOException {
+        try {
+            ticket = in.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        reward = in.readLong();
+        comboMask = in.readLong();
+        bonus = in.readByte();
+        in.readFully(cells);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
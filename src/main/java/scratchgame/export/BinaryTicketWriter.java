@@ -0,0 +1,123 @@
+package scratchgame.export;
+
+import scratchgame.model.TicketBatch;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-width binary ticket file written through one memory-mapped region of a {@link FileChannel}
+ * that covers the whole chunk. {@link #close} forces the region before the file is renamed into
+ * place, since forcing the channel is not guaranteed to write back dirty mapped pages.
+ * <p>
+ * Layout (big-endian): a {@value #HEADER_SIZE}-byte header
+ * {@code magic, version, rows, cols, recordSize, seed, firstTicket, bet, config hash (32)}, with
+ * the raw SHA-256 of the config, followed by one record per ticket: {@code ticket (8), reward (8), combo mask (8), bonus ordinal (1), cells (rows * cols)}.
+ */
+public final class BinaryTicketWriter implements TicketWriter {
+
+    public static final int MAGIC = 0x4C53544B; // "LSTK"
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 72;
+    static final int HASH_BYTES = 32;
+    public static final int FIXED_RECORD_BYTES = 25;
+
+    private final FileChannel channel;
+    private final int cellCount;
+    private final int recordSize;
+    private MappedByteBuffer region;
+
+    /**
+     * Opens a file for the given number of tickets, which are mapped up front. The bet and the
+     * config hash ({@code ConfigSnapshot#hash()}) identify how the tickets were scored.
+     */
+    public BinaryTicketWriter(Path file, int rows, int cols, long seed, long firstTicket, long tickets,
+                              int bet, String configHash) throws IOException {
+        byte[] hash = hashBytes(configHash);
+        this.cellCount = rows * cols;
+        this.recordSize = recordSize(rows, cols);
+        long size = HEADER_SIZE + tickets * recordSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(tickets + " tickets of " + recordSize
+                    + " bytes do not fit one mapped region; use a smaller chunk size");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        region.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(recordSize)
+                .putLong(seed).putLong(firstTicket).putInt(bet).put(hash);
+    }
+
+    public static int recordSize(int rows, int cols) {
+        return FIXED_RECORD_BYTES + rows * cols;
+    }
+
+    static byte[] hashBytes(String hex) {
+        if (hex == null || hex.length() != HASH_BYTES * 2) {
+            throw new IllegalArgumentException("Config hash must be " + HASH_BYTES * 2 + " hex digits: " + hex);
+        }
+        byte[] bytes = new byte[HASH_BYTES];
+        for (int i = 0; i < HASH_BYTES; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    static String hashHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    @Override
+    public void write(TicketBatch batch) throws IOException {
+        int count = batch.size();
+        if (count == 0) {
+            return;
+        }
+        if (batch.cellCount() != cellCount) {
+            throw new IllegalArgumentException("Batch has " + batch.cellCount() + " cells per ticket, file has " + cellCount);
+        }
+        if ((long) count * recordSize > region.remaining()) {
+            throw new IllegalStateException("File was opened for fewer tickets than written");
+        }
+        byte[] cells = batch.cells();
+        long[] rewards = batch.rewards();
+        long[] combos = batch.comboMasks();
+        byte[] bonuses = batch.bonuses();
+        long ticket = batch.firstTicket();
+        for (int i = 0; i < count; i++) {
+            region.putLong(ticket + i)
+                    .putLong(rewards[i])
+                    .putLong(combos[i])
+                    .put(bonuses[i])
+                    .put(cells, i * cellCount, cellCount);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            region.force();
+            // Fewer tickets than mapped (an aborted chunk) must not leave zeroed records behind
+            if (region.hasRemaining()) {
+                channel.truncate(region.position());
+            }
+            channel.force(true);
+        } finally {
+            // The mapping itself is released once the buffer is collected
+            region = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package scratchgame.export;
+
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.model.TicketBatch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * One CSV row per ticket: {@code ticket,reward,bonus,combinations,r0c0,r0c1,...}.
+ * Combinations are separated by ';'; an absent bonus is left empty.
+ */
+public final class CsvTicketWriter implements TicketWriter {
+
+    private final Writer out;
+    private final CompiledWinCombinations combinations;
+    private final SymbolDictionary dictionary;
+
+    public CsvTicketWriter(Path file, CompiledWinCombinations combinations) throws IOException {
+        this.out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16);
+        this.combinations = combinations;
+        this.dictionary = combinations.dictionary();
+
+        StringBuilder header = new StringBuilder("ticket,reward,bonus,combinations");
+        for (int r = 0; r < combinations.rows(); r++) {
+            for (int c = 0; c < combinations.cols(); c++) {
+                header.append(",r").append(r).append('c').append(c);
+            }
+        }
+        out.write(header.append('\n').toString());
+    }
+
+    @Override
+    public void write(TicketBatch batch) throws IOException {
+        byte[] cells = batch.cells();
+        int cellCount = batch.cellCount();
+        for (int i = 0; i < batch.size(); i++) {
+            out.write(Long.toString(batch.firstTicket() + i));
+            out.write(',');
+            out.write(Long.toString(batch.rewards()[i]));
+            out.write(',');
+            int bonus = batch.bonuses()[i];
+            if (bonus != SymbolDictionary.UNKNOWN) {
+                out.write(dictionary.name(bonus));
+            }
+            out.write(',');
+            boolean first = true;
+            for (long mask = batch.comboMasks()[i]; mask != 0; mask &= mask - 1) {
+                if (!first) {
+                    out.write(';');
+                }
+                out.write(combinations.comboName(Long.numberOfTrailingZeros(mask)));
+                first = false;
+            }
+            for (int c = 0; c < cellCount; c++) {
+                out.write(',');
+                out.write(dictionary.name(cells[i * cellCount + c]));
+            }
+            out.write('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,42 @@
+package scratchgame.export;
+
+import scratchgame.logic.CompiledWinCombinations;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum ExportFormat {
+    BINARY("bin"),
+    CSV("csv"),
+    JSONL("jsonl");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    TicketWriter open(Path file, CompiledWinCombinations combinations, long seed, long firstTicket, long tickets,
+                      int bet, String configHash) throws IOException {
+        switch (this) {
+            case BINARY:
+                return new BinaryTicketWriter(file, combinations.rows(), combinations.cols(), seed, firstTicket, tickets,
+                        bet, configHash);
+            case CSV:
+                return new CsvTicketWriter(file, combinations);
+            case JSONL:
+                return new JsonlTicketWriter(file, combinations);
+            default:
+                throw new IllegalStateException("Unknown format " + this);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package scratchgame.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.model.TicketBatch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * One JSON object per line, streamed with a Jackson generator:
+ * {@code {"ticket":0,"matrix":[[...]],"reward":0,"applied_winning_combinations":[...],"applied_bonus_symbol":null}}.
+ */
+public final class JsonlTicketWriter implements TicketWriter {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final JsonGenerator json;
+    private final CompiledWinCombinations combinations;
+    private final SymbolDictionary dictionary;
+
+    public JsonlTicketWriter(Path file, CompiledWinCombinations combinations) throws IOException {
+        this.json = JSON.createGenerator(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16), JsonEncoding.UTF8);
+        this.json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        this.combinations = combinations;
+        this.dictionary = combinations.dictionary();
+    }
+
+    @Override
+    public void write(TicketBatch batch) throws IOException {
+        byte[] cells = batch.cells();
+        int rows = batch.rows();
+        int cols = batch.cols();
+        int cellCount = batch.cellCount();
+        for (int i = 0; i < batch.size(); i++) {
+            json.writeStartObject();
+            json.writeNumberField("ticket", batch.firstTicket() + i);
+            json.writeArrayFieldStart("matrix");
+            for (int r = 0; r < rows; r++) {
+                json.writeStartArray();
+                for (int c = 0; c < cols; c++) {
+                    json.writeString(dictionary.name(cells[i * cellCount + r * cols + c]));
+                }
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+            json.writeNumberField("reward", batch.rewards()[i]);
+            json.writeArrayFieldStart("applied_winning_combinations");
+            for (long mask = batch.comboMasks()[i]; mask != 0; mask &= mask - 1) {
+                json.writeString(combinations.comboName(Long.numberOfTrailingZeros(mask)));
+            }
+            json.writeEndArray();
+            int bonus = batch.bonuses()[i];
+            if (bonus == SymbolDictionary.UNKNOWN) {
+                json.writeNullField("applied_bonus_symbol");
+            } else {
+                json.writeStringField("applied_bonus_symbol", dictionary.name(bonus));
+            }
+            json.writeEndObject();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.writeRaw('\n');
+        json.close();
+    }
+}
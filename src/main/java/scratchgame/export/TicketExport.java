@@ -0,0 +1,182 @@
+package scratchgame.export;
+
+import scratchgame.logic.BatchGenerator;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.model.TicketBatch;
+import scratchgame.pipeline.TicketPipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Streams tickets {@code [0, tickets)} into chunk files of at most {@code chunkSize} tickets each.
+ * <p>
+ * Every chunk is written to a {@code .part} file and atomically renamed when complete, so a
+ * crashed export can be resumed: finished chunks are skipped and the rest are regenerated from
+ * the per-ticket seeds, producing identical files. A manifest records the export parameters,
+ * including the bet and the config hash the tickets are scored with, and a resume with different
+ * parameters is refused, so chunks scored under different paytables never mix. Memory use is
+ * one reusable batch, or the pipeline's batches when chunks are written through a
+ * {@link TicketPipeline}.
+ */
+public final class TicketExport {
+
+    public static final String MANIFEST = "manifest.properties";
+    private static final String PART_SUFFIX = ".part";
+
+    private final BatchGenerator generator;
+    private final CompiledWinCombinations combinations;
+    private final String configHash;
+    private final ExportFormat format;
+    private final Path directory;
+    private final int chunkSize;
+    private final int batchSize;
+    private final ForkJoinPool pool;
+    private final TicketPipeline pipeline;
+
+    /**
+     * @param configHash hash of the config the generator was compiled from, see {@code ConfigSnapshot#hash()}
+     * @param pool pool used to generate each batch in parallel, or null to generate on the calling thread
+     */
+    public TicketExport(BatchGenerator generator, CompiledWinCombinations combinations, String configHash,
+                        ExportFormat format, Path directory, int chunkSize, int batchSize, ForkJoinPool pool) {
+        if (chunkSize <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Chunk and batch size must be positive");
+        }
+        if (configHash == null) {
+            throw new IllegalArgumentException("Config hash is required");
+        }
+        this.generator = generator;
+        this.combinations = combinations;
+        this.configHash = configHash;
+        this.format = format;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.batchSize = Math.min(batchSize, chunkSize);
+        this.pool = pool;
+        this.pipeline = null;
+    }
+
+    /**
+     * Generates, scores and writes each chunk in overlapping stages on the pipeline's threads.
+     */
+    public TicketExport(TicketPipeline pipeline, String configHash, ExportFormat format, Path directory, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        if (configHash == null) {
+            throw new IllegalArgumentException("Config hash is required");
+        }
+        this.generator = pipeline.generator();
+        this.combinations = generator.combinations();
+        this.configHash = configHash;
+        this.format = format;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.batchSize = 0;
+        this.pool = null;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Exports the tickets and returns the number of chunks that were written (skipped chunks excluded).
+     */
+    public int run(long tickets, long seed) throws IOException {
+        Files.createDirectories(directory);
+        checkManifest(tickets, seed);
+        deleteStaleParts();
+
+        TicketBatch batch = pipeline == null ? generator.newBatch(batchSize) : null;
+        long chunks = (tickets + chunkSize - 1) / chunkSize;
+        int written = 0;
+        for (long chunk = 0; chunk < chunks; chunk++) {
+            Path target = chunkFile(chunk);
+            if (Files.exists(target)) {
+                continue;
+            }
+            long first = chunk * chunkSize;
+            long end = Math.min(tickets, first + chunkSize);
+            Path part = directory.resolve(target.getFileName() + PART_SUFFIX);
+            try (TicketWriter writer = format.open(part, combinations, seed, first, end - first, generator.bet(),
+                    configHash)) {
+                if (pipeline != null) {
+                    pipeline.run(first, end, seed, writer::write);
+                } else {
+                    writeChunk(writer, batch, first, end, seed);
+                }
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            written++;
+        }
+        return written;
+    }
+
+    private void writeChunk(TicketWriter writer, TicketBatch batch, long first, long end, long seed)
+            throws IOException {
+        for (long ticket = first; ticket < end; ticket += batchSize) {
+            int count = (int) Math.min(batchSize, end - ticket);
+            if (pool == null) {
+                generator.fill(batch, ticket, count, seed);
+            } else {
+                generator.fill(batch, ticket, count, seed, pool);
+            }
+            writer.write(batch);
+        }
+    }
+
+    public Path chunkFile(long chunk) {
+        return directory.resolve(String.format("tickets-%06d.%s", chunk, format.extension()));
+    }
+
+    private void checkManifest(long tickets, long seed) throws IOException {
+        Properties expected = new Properties();
+        expected.setProperty("format", format.name());
+        expected.setProperty("tickets", Long.toString(tickets));
+        expected.setProperty("seed", Long.toString(seed));
+        expected.setProperty("chunkSize", Integer.toString(chunkSize));
+        expected.setProperty("rows", Integer.toString(combinations.rows()));
+        expected.setProperty("cols", Integer.toString(combinations.cols()));
+        expected.setProperty("bet", Integer.toString(generator.bet()));
+        expected.setProperty("configHash", configHash);
+
+        Path manifest = directory.resolve(MANIFEST);
+        if (Files.exists(manifest)) {
+            Properties existing = new Properties();
+            try (InputStream in = Files.newInputStream(manifest)) {
+                existing.load(in);
+            }
+            if (!existing.equals(expected)) {
+                StringBuilder differences = new StringBuilder();
+                for (String key : expected.stringPropertyNames()) {
+                    if (!expected.getProperty(key).equals(existing.getProperty(key))) {
+                        differences.append(differences.length() == 0 ? "" : ", ").append(key).append(' ')
+                                .append(existing.getProperty(key)).append(" -> ").append(expected.getProperty(key));
+                    }
+                }
+                throw new IllegalStateException("Export directory " + directory
+                        + " holds an export with different parameters: " + differences);
+            }
+            return;
+        }
+        Path tmp = directory.resolve(MANIFEST + PART_SUFFIX);
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            expected.store(out, "LuckyScratch ticket export");
+        }
+        Files.move(tmp, manifest, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteStaleParts() throws IOException {
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(directory, "*" + PART_SUFFIX)) {
+            for (Path part : parts) {
+                Files.delete(part);
+            }
+        }
+    }
+}
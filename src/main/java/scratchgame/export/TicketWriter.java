@@ -0,0 +1,15 @@
+package scratchgame.export;
+
+import scratchgame.model.TicketBatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams scored tickets to one output file. Implementations keep no tickets in memory
+ * beyond their write buffer.
+ */
+public interface TicketWriter extends Closeable {
+
+    void write(TicketBatch batch) throws IOException;
+}
@@ -0,0 +1,262 @@
+package scratchgame.logic;
+
+import scratchgame.metrics.GameMetrics;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
+
+import java.util.Arrays;
+
+/**
+ * Scores up to {@link #LANES} grids at once, one grid per bit of a long.
+ * <p>
+ * The grids are transposed into bit planes: bit j of plane (symbol, cell) is set when grid j has
+ * that symbol in that cell. A line check for all grids is then an AND over the line's cells, and
+ * symbol counts are summed with bitwise adders into bit-sliced counters, which are compared to
+ * the smallest paying count without leaving the bit planes. Only grids where some symbol can
+ * pay are resolved one by one, with the same combination rules and floating-point operations, in
+ * the same order, as {@link RewardCalculator}, so the scores are identical.
+ * <p>
+ * Owns its scratch state and allocates nothing per batch. Not thread-safe.
+ */
+public final class BatchEvaluator {
+
+    public static final int LANES = 64;
+
+    private final CompiledWinCombinations compiled;
+    private final int cells;
+    private final int standardCount;
+    // Smallest count that pays a same_symbols combination, Integer.MAX_VALUE if none
+    private final int minSameCount;
+    private final int counterBits;
+
+    private final long[] planes;
+    // Bitboard of the bonus cells of each grid, compiled.words longs per grid
+    private final long[] bonusCells;
+    private final long[] counter;
+    private final long[] lineHits;
+    // Scalar path, used while metrics are on
+    private final Grid grid;
+    private final RoundScore score = new RoundScore();
+    private final long[] boards;
+
+    private final double[] totals = new double[LANES];
+    private final long[] applied = new long[LANES];
+    private final int[] bonuses = new int[LANES];
+    private final double[] beforeBonus = new double[LANES];
+    private final long[] rewards = new long[LANES];
+    private int size;
+
+    public BatchEvaluator(CompiledWinCombinations compiled) {
+        this.compiled = compiled;
+        this.cells = compiled.rows * compiled.cols;
+        this.standardCount = compiled.standardCount;
+        int min = Integer.MAX_VALUE;
+        for (int count = compiled.sameComboByCount.length - 1; count > 0; count--) {
+            if (compiled.sameComboByCount[count] >= 0) {
+                min = count;
+            }
+        }
+        this.minSameCount = min;
+        this.counterBits = 32 - Integer.numberOfLeadingZeros(cells);
+        this.planes = new long[standardCount * cells];
+        this.bonusCells = new long[LANES * compiled.words];
+        this.counter = new long[counterBits];
+        this.lineHits = new long[compiled.linearMasks.length];
+        this.grid = new Grid(compiled.rows, compiled.cols);
+        this.boards = RewardCalculator.newBoards(compiled);
+    }
+
+    public CompiledWinCombinations combinations() {
+        return compiled;
+    }
+
+    /**
+     * Scores count grids stored back to back in cells, starting at the given byte offset.
+     * Results are read with {@link #reward}, {@link #appliedCombos}, {@link #appliedBonus}
+     * or {@link #score} until the next call.
+     */
+    public void evaluate(byte[] cells, int offset, int count, int bet) {
+        if (count < 0 || count > LANES) {
+            throw new IllegalArgumentException("Batch holds 0 to " + LANES + " grids: " + count);
+        }
+        if (offset < 0 || offset + count * this.cells > cells.length) {
+            throw new IllegalArgumentException("Batch of " + count + " grids at " + offset + " exceeds the cells array");
+        }
+        size = count;
+        if (GameMetrics.enabled()) {
+            // Metrics time and count each round; the scalar path does that
+            evaluateScalar(cells, offset, bet);
+            return;
+        }
+        transpose(cells, offset, count);
+        Arrays.fill(totals, 0, count, 0.0);
+        Arrays.fill(applied, 0, count, 0L);
+        for (int s = 0; s < standardCount; s++) {
+            resolveSymbol(s, bet);
+        }
+        for (int j = 0; j < count; j++) {
+            double totalReward = totals[j];
+            beforeBonus[j] = totalReward;
+            bonuses[j] = SymbolDictionary.UNKNOWN;
+            if (totalReward > 0) {
+                totalReward = compiled.applyBonuses(cells, offset + j * this.cells, bonusCells, j * compiled.words,
+                        totalReward, score);
+                bonuses[j] = score.appliedBonus;
+            }
+            rewards[j] = Math.round(totalReward);
+        }
+    }
+
+    /**
+     * Number of grids of the last batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    public long reward(int grid) {
+        return rewards[grid];
+    }
+
+    public long appliedCombos(int grid) {
+        return applied[grid];
+    }
+
+    public int appliedBonus(int grid) {
+        return bonuses[grid];
+    }
+
+    /**
+     * Copies the score of one grid of the last batch into the holder.
+     */
+    public RoundScore score(int grid, RoundScore out) {
+        out.finalReward = rewards[grid];
+        out.appliedCombos = applied[grid];
+        out.appliedBonus = bonuses[grid];
+        out.rewardBeforeBonus = beforeBonus[grid];
+        return out;
+    }
+
+    /**
+     * Builds the bit planes and, in the same pass, the bonus cells of every grid.
+     */
+    private void transpose(byte[] source, int offset, int count) {
+        Arrays.fill(planes, 0L);
+        int words = compiled.words;
+        int bonusEnd = compiled.dictionary.bonusEnd();
+        Arrays.fill(bonusCells, 0, count * words, 0L);
+        for (int j = 0; j < count; j++) {
+            long bit = 1L << j;
+            int base = offset + j * cells;
+            for (int c = 0; c < cells; c++) {
+                int s = source[base + c];
+                if (s >= 0 && s < standardCount) {
+                    planes[s * cells + c] |= bit;
+                } else if (s >= standardCount && s < bonusEnd) {
+                    bonusCells[j * words + (c >>> 6)] |= 1L << c;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the payout of symbol s to every grid of the batch where it pays.
+     */
+    private void resolveSymbol(int s, int bet) {
+        int base = s * cells;
+
+        // Bit-sliced count of the symbol in every grid
+        Arrays.fill(counter, 0L);
+        long present = 0;
+        for (int c = 0; c < cells; c++) {
+            long carry = planes[base + c];
+            present |= carry;
+            for (int k = 0; carry != 0 && k < counterBits; k++) {
+                long sum = counter[k] ^ carry;
+                carry &= counter[k];
+                counter[k] = sum;
+            }
+        }
+        if (present == 0) {
+            return;
+        }
+
+        long candidates = minSameCount == Integer.MAX_VALUE ? 0 : atLeast(minSameCount);
+        for (int i = 0; i < lineHits.length; i++) {
+            long hits = lineHitsOf(base, compiled.linearLines[i]);
+            lineHits[i] = hits;
+            candidates |= hits;
+        }
+        // A symbol that does not occur never pays, even on an empty line
+        candidates &= present;
+
+        double symbolBaseMultiplier = compiled.symbolMultiplier[s];
+        for (long lanes = candidates; lanes != 0; lanes &= lanes - 1) {
+            int j = Long.numberOfTrailingZeros(lanes);
+            long bit = 1L << j;
+            int count = 0;
+            for (int k = 0; k < counterBits; k++) {
+                if ((counter[k] & bit) != 0) {
+                    count |= 1 << k;
+                }
+            }
+            long linear = 0;
+            for (int i = 0; i < lineHits.length; i++) {
+                if ((lineHits[i] & bit) != 0) {
+                    linear |= 1L << i;
+                }
+            }
+            long symbolApplied = compiled.resolveCombos(count, linear);
+            if (symbolApplied == 0) {
+                continue;
+            }
+            double finalMultiplierForSymbol = compiled.comboMultiplier(count, symbolApplied);
+            totals[j] += bet * symbolBaseMultiplier * finalMultiplierForSymbol;
+            applied[j] |= symbolApplied;
+        }
+    }
+
+    /**
+     * Lanes whose bit-sliced counter is at least the given value.
+     */
+    private long atLeast(int value) {
+        if (value >= 1 << counterBits) {
+            return 0;
+        }
+        long greater = 0;
+        long equal = -1L;
+        for (int k = counterBits - 1; k >= 0; k--) {
+            if ((value & (1 << k)) != 0) {
+                equal &= counter[k];
+            } else {
+                greater |= equal & counter[k];
+                equal &= ~counter[k];
+            }
+        }
+        return greater | equal;
+    }
+
+    private long lineHitsOf(int base, int[][] lines) {
+        long hits = 0;
+        for (int[] line : lines) {
+            long all = -1L;
+            for (int c = 0; c < line.length && all != 0; c++) {
+                all &= planes[base + line[c]];
+            }
+            hits |= all;
+        }
+        return hits;
+    }
+
+    private void evaluateScalar(byte[] source, int offset, int bet) {
+        for (int j = 0; j < size; j++) {
+            System.arraycopy(source, offset + j * cells, grid.cells(), 0, cells);
+            RewardCalculator.score(compiled, grid, bet, score, boards);
+            rewards[j] = score.finalReward;
+            applied[j] = score.appliedCombos;
+            bonuses[j] = score.appliedBonus;
+            beforeBonus[j] = score.rewardBeforeBonus;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package scratchgame.logic;
+
+import scratchgame.model.Grid;
+import scratchgame.model.TicketBatch;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SeededRandomSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates and scores tickets straight into a {@link TicketBatch}.
+ * Ticket t of a run draws from its own stream seeded by (seed, t), so the output depends
+ * only on the seed and the ticket indexes, not on batch size or thread count, and any
+ * single ticket can be regenerated on its own.
+ */
+public final class BatchGenerator {
+
+    // Smallest range of tickets handed to one fork/join task
+    static final int MIN_SPLIT = 2048;
+
+    private final GenerationPlan plan;
+    private final CompiledWinCombinations combinations;
+    private final int bet;
+
+    public BatchGenerator(GenerationPlan plan, CompiledWinCombinations combinations, int bet) {
+        if (!plan.dictionary().equals(combinations.dictionary())) {
+            throw new IllegalArgumentException("Plan and win combinations use different symbol dictionaries");
+        }
+        if (plan.rows() != combinations.rows() || plan.cols() != combinations.cols()) {
+            throw new IllegalArgumentException("Plan and win combinations use different grid sizes");
+        }
+        this.plan = plan;
+        this.combinations = combinations;
+        this.bet = bet;
+    }
+
+    public CompiledWinCombinations combinations() {
+        return combinations;
+    }
+
+    public int bet() {
+        return bet;
+    }
+
+    public TicketBatch newBatch(int capacity) {
+        return new TicketBatch(plan.rows(), plan.cols(), capacity);
+    }
+
+    /**
+     * Fills tickets [firstTicket, firstTicket + count) of the run into the batch on the calling thread.
+     */
+    public TicketBatch fill(TicketBatch batch, long firstTicket, int count, long seed) {
+        prepare(batch, firstTicket, count);
+        fillRange(batch, 0, count, seed);
+        return batch;
+    }
+
+    /**
+     * Same as {@link #fill(TicketBatch, long, int, long)}, split across the pool's threads.
+     */
+    public TicketBatch fill(TicketBatch batch, long firstTicket, int count, long seed, ForkJoinPool pool) {
+        prepare(batch, firstTicket, count);
+        pool.invoke(new FillTask(batch, 0, count, seed));
+        return batch;
+    }
+
+    /**
+     * Generates the grids of tickets [firstTicket, firstTicket + count) into the batch without
+     * scoring them; {@link #score} completes the batch, possibly on another thread.
+     */
+    public TicketBatch generate(TicketBatch batch, long firstTicket, int count, long seed) {
+        prepare(batch, firstTicket, count);
+        Grid grid = new Grid(plan.rows(), plan.cols());
+        SeededRandomSource rand = RandomSource.seeded(seed);
+        generateRange(batch, 0, count, seed, rand, grid);
+        return batch;
+    }
+
+    /**
+     * Scores every ticket of a batch filled by {@link #generate}, with the caller's evaluator.
+     */
+    public TicketBatch score(TicketBatch batch, BatchEvaluator evaluator) {
+        if (evaluator.combinations() != combinations) {
+            throw new IllegalArgumentException("Evaluator scores a different set of win combinations");
+        }
+        for (int block = 0; block < batch.size(); block += BatchEvaluator.LANES) {
+            scoreBlock(batch, block, Math.min(BatchEvaluator.LANES, batch.size() - block), evaluator);
+        }
+        return batch;
+    }
+
+    /**
+     * Regenerates a single ticket of a run into the target grid.
+     */
+    public Grid regenerate(long ticket, long seed, Grid target) {
+        return MatrixGenerator.generateGrid(plan, RandomSource.seeded(SeededRandomSource.derive(seed, ticket)), target);
+    }
+
+    private void prepare(TicketBatch batch, long firstTicket, int count) {
+        if (batch.rows() != plan.rows() || batch.cols() != plan.cols()) {
+            throw new IllegalArgumentException("Batch is " + batch.rows() + "x" + batch.cols()
+                    + " but the plan is " + plan.rows() + "x" + plan.cols());
+        }
+        batch.reset(firstTicket, count);
+    }
+
+    private void fillRange(TicketBatch batch, int from, int to, long seed) {
+        Grid grid = new Grid(plan.rows(), plan.cols());
+        BatchEvaluator evaluator = new BatchEvaluator(combinations);
+        SeededRandomSource rand = RandomSource.seeded(seed);
+        for (int block = from; block < to; block += BatchEvaluator.LANES) {
+            int lanes = Math.min(BatchEvaluator.LANES, to - block);
+            generateRange(batch, block, block + lanes, seed, rand, grid);
+            // Score the block in place while its cells are still in cache
+            scoreBlock(batch, block, lanes, evaluator);
+        }
+    }
+
+    private void generateRange(TicketBatch batch, int from, int to, long seed, SeededRandomSource rand, Grid grid) {
+        long firstTicket = batch.firstTicket();
+        int cellCount = batch.cellCount();
+        byte[] cells = batch.cells();
+        for (int i = from; i < to; i++) {
+            rand.reseed(SeededRandomSource.derive(seed, firstTicket + i));
+            MatrixGenerator.generateGrid(plan, rand, grid);
+            System.arraycopy(grid.cells(), 0, cells, i * cellCount, cellCount);
+        }
+    }
+
+    private void scoreBlock(TicketBatch batch, int block, int lanes, BatchEvaluator evaluator) {
+        // Straight from the batch's cell column
+        evaluator.evaluate(batch.cells(), block * batch.cellCount(), lanes, bet);
+        for (int j = 0; j < lanes; j++) {
+            batch.rewards()[block + j] = evaluator.reward(j);
+            batch.bonuses()[block + j] = (byte) evaluator.appliedBonus(j);
+            batch.comboMasks()[block + j] = evaluator.appliedCombos(j);
+        }
+    }
+
+    private final class FillTask extends RecursiveAction {
+        private final TicketBatch batch;
+        private final int from;
+        private final int to;
+        private final long seed;
+
+        FillTask(TicketBatch batch, int from, int to, long seed) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_SPLIT) {
+                fillRange(batch, from, to, seed);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FillTask(batch, from, mid, seed), new FillTask(batch, mid, to, seed));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package scratchgame.logic;
+
+import java.util.Arrays;
+
+/**
+ * Per-symbol cell occupancy as bitboards: bit i of a board is row-major cell i, split into
+ * 64-bit words. A line is a mask of the same shape, so "symbol fills the line" is one AND-compare
+ * per word and a symbol count is one {@link Long#bitCount} per word. Grids up to 8x8 use one word.
+ */
+final class Bitboards {
+
+    private Bitboards() {
+    }
+
+    static int words(int cells) {
+        return (cells + 63) >>> 6;
+    }
+
+    /**
+     * Compiles lines of cell indexes to masks; line l occupies [l * words, (l + 1) * words).
+     */
+    static long[] lineMasks(int[][] lines, int words) {
+        long[] masks = new long[lines.length * words];
+        for (int l = 0; l < lines.length; l++) {
+            for (int cell : lines[l]) {
+                masks[l * words + (cell >>> 6)] |= 1L << cell;
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Fills boards with the occupancy of every standard symbol; symbol s occupies
+     * [s * words, (s + 1) * words). The next board, at standardCount * words, marks the cells
+     * holding any bonus symbol, ordinals [standardCount, bonusEnd). Unknown cells are ignored.
+     */
+    static void fill(byte[] cells, int standardCount, int bonusEnd, int words, long[] boards) {
+        Arrays.fill(boards, 0, (standardCount + 1) * words, 0L);
+        for (int i = 0; i < cells.length; i++) {
+            int s = cells[i];
+            if (s >= 0 && s < bonusEnd) {
+                boards[Math.min(s, standardCount) * words + (i >>> 6)] |= 1L << i;
+            }
+        }
+    }
+
+    static int count(long[] boards, int symbol, int words) {
+        if (words == 1) {
+            return Long.bitCount(boards[symbol]);
+        }
+        int count = 0;
+        for (int w = symbol * words, end = w + words; w < end; w++) {
+            count += Long.bitCount(boards[w]);
+        }
+        return count;
+    }
+
+    /**
+     * True if the symbol's board covers at least one of the line masks.
+     */
+    static boolean anyLine(long[] boards, int symbol, int words, long[] masks) {
+        if (words == 1) {
+            long board = boards[symbol];
+            for (long mask : masks) {
+                if ((board & mask) == mask) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        int base = symbol * words;
+        for (int l = 0; l < masks.length; l += words) {
+            boolean covered = true;
+            for (int w = 0; w < words; w++) {
+                long mask = masks[l + w];
+                if ((boards[base + w] & mask) != mask) {
+                    covered = false;
+                    break;
+                }
+            }
+            if (covered) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package scratchgame.logic;
+
+import java.util.Locale;
+
+/**
+ * How the bonus symbols of a grid are applied, set by the config's "bonus_resolution".
+ * Bonus symbols only apply to a grid that wins before bonus; cells are visited in row-major order.
+ */
+public enum BonusResolution {
+    // Only the first bonus symbol applies; the default
+    FIRST,
+    // Every bonus symbol applies in order, so a multiplier also scales extras found before it
+    ALL,
+    // The one bonus symbol that gives the largest reward applies; ties go to the first
+    HIGHEST,
+    // All multipliers stack on the winnings, then all extras are added
+    STACKED;
+
+    /**
+     * Parses a config value; null means {@link #FIRST}.
+     */
+    public static BonusResolution parse(String name) {
+        if (name == null) {
+            return FIRST;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown bonus_resolution '" + name + "'", e);
+        }
+    }
+}
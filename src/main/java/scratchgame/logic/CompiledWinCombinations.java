@@ -0,0 +1,496 @@
+package scratchgame.logic;
+
+import scratchgame.model.Config;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolConfig;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.model.WinCombination;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, precompiled form of the symbols and win combinations of a {@link Config}
+ * for a fixed grid size. Covered areas become flat cell indexes and bitboard masks, groups
+ * become small ints and the best "same_symbols" combination is looked up directly by count.
+ */
+public final class CompiledWinCombinations {
+
+    static final int IMPACT_NONE = 0;
+    static final int IMPACT_MULTIPLY = 1;
+    static final int IMPACT_EXTRA = 2;
+    static final int IMPACT_MISS = 3;
+
+    // Applied combinations and groups are tracked as bits of a long
+    public static final int MAX_COMBINATIONS = 64;
+
+    final int rows;
+    final int cols;
+
+    // Per-ordinal symbol data; standard ordinals are [0, standardCount)
+    final SymbolDictionary dictionary;
+    final int standardCount;
+    final double[] symbolMultiplier;
+    final int[] bonusImpact;
+    final int[] bonusExtra;
+    // Every bonus as reward * factor + addend: (m, 0) multiplies, (1, extra) adds, (1, 0) has no effect
+    final double[] bonusFactor;
+    final double[] bonusAddend;
+    final BonusResolution bonusResolution;
+
+    final String[] comboNames;
+    final Map<String, Integer> comboIds;
+    final double[] comboMultiplier;
+    final int[] comboGroup;
+    final int groupCount;
+
+    // Best same_symbols combo id for a symbol count, -1 if none applies
+    final int[] sameComboByCount;
+    // Linear combo ids in config order and their lines as row-major cell indexes
+    final int[] linearCombos;
+    final int[][][] linearLines;
+    // The same lines as bitboard masks, see Bitboards
+    final int words;
+    final long[][] linearMasks;
+    // Cells in the shortest line of each linear combo; a symbol with fewer cells cannot hit it
+    final int[] linearMinCells;
+
+    private CompiledWinCombinations(Builder b) {
+        this.rows = b.rows;
+        this.cols = b.cols;
+        this.dictionary = b.dictionary;
+        this.standardCount = b.standardCount;
+        this.symbolMultiplier = b.symbolMultiplier;
+        this.bonusImpact = b.bonusImpact;
+        this.bonusExtra = b.bonusExtra;
+        this.bonusFactor = b.bonusFactor;
+        this.bonusAddend = b.bonusAddend;
+        this.bonusResolution = b.bonusResolution;
+        this.comboNames = b.comboNames;
+        this.comboIds = b.comboIds;
+        this.comboMultiplier = b.comboMultiplier;
+        this.comboGroup = b.comboGroup;
+        this.groupCount = b.groupCount;
+        this.sameComboByCount = b.sameComboByCount;
+        this.linearCombos = b.linearCombos;
+        this.linearLines = b.linearLines;
+        this.words = Bitboards.words(b.rows * b.cols);
+        this.linearMasks = new long[linearLines.length][];
+        this.linearMinCells = new int[linearLines.length];
+        for (int i = 0; i < linearLines.length; i++) {
+            linearMasks[i] = Bitboards.lineMasks(linearLines[i], words);
+            linearMinCells[i] = minLineCells(linearMasks[i], words);
+        }
+    }
+
+    /**
+     * Compiles the symbols and win combinations of the config for a rows x cols grid.
+     */
+    public static CompiledWinCombinations compile(Config config, int rows, int cols) {
+        return compile(config, SymbolDictionary.of(config), rows, cols);
+    }
+
+    /**
+     * Compiles against an existing dictionary, so grids from a plan compiled with it can be scored.
+     */
+    public static CompiledWinCombinations compile(Config config, SymbolDictionary dictionary, int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive: " + rows + "x" + cols);
+        }
+        if (config == null || config.symbols == null) {
+            throw new IllegalArgumentException("Config has no symbols");
+        }
+        Builder b = new Builder(rows, cols, dictionary);
+        b.compileSymbols(config.symbols);
+        b.bonusResolution = BonusResolution.parse(config.bonus_resolution);
+        b.compileCombinations(config.win_combinations == null
+                ? new HashMap<String, WinCombination>() : config.win_combinations);
+        return new CompiledWinCombinations(b);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public SymbolDictionary dictionary() {
+        return dictionary;
+    }
+
+    public int comboCount() {
+        return comboNames.length;
+    }
+
+    public String comboName(int id) {
+        return comboNames[id];
+    }
+
+    /**
+     * Returns the id of the named win combination, or -1 if the config does not define it.
+     */
+    public int comboId(String name) {
+        Integer id = comboIds.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Number of standard symbols; their ordinals are [0, standardCount).
+     */
+    public int standardCount() {
+        return standardCount;
+    }
+
+    /**
+     * Id of the best "same_symbols" combination for a symbol count, -1 if none applies.
+     */
+    public int sameComboForCount(int count) {
+        return sameComboByCount[Math.min(count, sameComboByCount.length - 1)];
+    }
+
+    /**
+     * Number of "linear_symbols" combinations; bit i of a linear hit mask refers to the i-th one.
+     */
+    public int linearCount() {
+        return linearCombos.length;
+    }
+
+    /**
+     * Lines of the i-th linear combination as row-major cell indexes. Do not modify.
+     */
+    public int[][] linearLines(int linearIndex) {
+        return linearLines[linearIndex];
+    }
+
+    /**
+     * Resolves which combinations apply to a symbol that occurs count times and fills a full
+     * line of every linear combination flagged in linearHits. The best "same_symbols" combination
+     * claims its group first, then linear combinations claim unused groups in config order.
+     *
+     * @return bit mask of applied combination ids, 0 if none applies
+     */
+    public long resolveCombos(int count, long linearHits) {
+        long applied = 0;
+        long usedGroups = 0;
+        int sameCombo = sameComboByCount[Math.min(count, sameComboByCount.length - 1)];
+        if (sameCombo >= 0) {
+            applied |= 1L << sameCombo;
+            usedGroups |= 1L << comboGroup[sameCombo];
+        }
+        for (long hits = linearHits; hits != 0; hits &= hits - 1) {
+            int combo = linearCombos[Long.numberOfTrailingZeros(hits)];
+            long group = 1L << comboGroup[combo];
+            if ((usedGroups & group) == 0) {
+                applied |= 1L << combo;
+                usedGroups |= group;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Product of the multipliers of the applied combinations, in the order they were applied.
+     */
+    public double comboMultiplier(int count, long applied) {
+        double multiplier = 1.0;
+        int sameCombo = sameComboByCount[Math.min(count, sameComboByCount.length - 1)];
+        if (sameCombo >= 0 && (applied & (1L << sameCombo)) != 0) {
+            multiplier *= comboMultiplier[sameCombo];
+        }
+        for (int combo : linearCombos) {
+            if ((applied & (1L << combo)) != 0) {
+                multiplier *= comboMultiplier[combo];
+            }
+        }
+        return multiplier;
+    }
+
+    /**
+     * Applies the bonus symbol with the given ordinal to the winnings before bonus.
+     */
+    public double applyBonus(int ordinal, double totalReward) {
+        switch (bonusImpact[ordinal]) {
+            case IMPACT_MULTIPLY:
+                return totalReward * symbolMultiplier[ordinal];
+            case IMPACT_EXTRA:
+                return totalReward + bonusExtra[ordinal];
+            default:
+                return totalReward;
+        }
+    }
+
+    /**
+     * Applies the bonus symbols of a winning grid to the winnings before bonus, following the
+     * {@link BonusResolution}. The grid's cells start at offset in cells; bonusCells holds, from
+     * index at, a bitboard of the cells with a bonus symbol (as Bitboards.fill builds it), so only
+     * those cells are visited, or is null to check every cell. Sets out.appliedBonus to the bonus
+     * that FIRST or HIGHEST chose, or to the first bonus symbol for ALL and STACKED.
+     */
+    public double applyBonuses(byte[] cells, int offset, long[] bonusCells, int at, double totalReward, RoundScore out) {
+        int cellCount = rows * cols;
+        int applied = SymbolDictionary.UNKNOWN;
+        double best = 0;
+        double factor = 1.0;
+        double addend = 0.0;
+        for (int base = 0; base < cellCount; base += 64) {
+            long bits = bonusCells != null ? bonusCells[at + (base >>> 6)]
+                    : cellCount - base >= 64 ? -1L : (1L << (cellCount - base)) - 1;
+            for (; bits != 0; bits &= bits - 1) {
+                int ordinal = cells[offset + base + Long.numberOfTrailingZeros(bits)];
+                if (!dictionary.isBonus(ordinal)) {
+                    continue;
+                }
+                if (bonusResolution == BonusResolution.FIRST) {
+                    out.appliedBonus = ordinal;
+                    return applyBonus(ordinal, totalReward);
+                }
+                if (bonusResolution == BonusResolution.HIGHEST) {
+                    double reward = applyBonus(ordinal, totalReward);
+                    if (applied == SymbolDictionary.UNKNOWN || reward > best) {
+                        applied = ordinal;
+                        best = reward;
+                    }
+                    continue;
+                }
+                if (applied == SymbolDictionary.UNKNOWN) {
+                    applied = ordinal;
+                }
+                factor *= bonusFactor[ordinal];
+                if (bonusResolution == BonusResolution.ALL) {
+                    addend *= bonusFactor[ordinal];
+                }
+                addend += bonusAddend[ordinal];
+            }
+        }
+        out.appliedBonus = applied;
+        if (applied == SymbolDictionary.UNKNOWN) {
+            return totalReward;
+        }
+        return bonusResolution == BonusResolution.HIGHEST ? best : totalReward * factor + addend;
+    }
+
+    public BonusResolution bonusResolution() {
+        return bonusResolution;
+    }
+
+    /**
+     * Multiplier of a bonus symbol, 1 unless it multiplies the reward.
+     */
+    public double bonusFactor(int ordinal) {
+        return bonusFactor[ordinal];
+    }
+
+    /**
+     * Amount a bonus symbol adds, 0 unless it is an extra bonus.
+     */
+    public double bonusAddend(int ordinal) {
+        return bonusAddend[ordinal];
+    }
+
+    /**
+     * Base reward multiplier of the symbol with the given ordinal.
+     */
+    public double symbolMultiplier(int ordinal) {
+        return symbolMultiplier[ordinal];
+    }
+
+    private static int minLineCells(long[] masks, int words) {
+        int min = Integer.MAX_VALUE;
+        for (int l = 0; l < masks.length; l += words) {
+            int cells = 0;
+            for (int w = 0; w < words; w++) {
+                cells += Long.bitCount(masks[l + w]);
+            }
+            min = Math.min(min, cells);
+        }
+        return min;
+    }
+
+    private static final class Builder {
+        final int rows;
+        final int cols;
+        final SymbolDictionary dictionary;
+
+        int standardCount;
+        double[] symbolMultiplier;
+        int[] bonusImpact;
+        int[] bonusExtra;
+        double[] bonusFactor;
+        double[] bonusAddend;
+        BonusResolution bonusResolution;
+
+        String[] comboNames;
+        Map<String, Integer> comboIds;
+        double[] comboMultiplier;
+        int[] comboGroup;
+        int groupCount;
+        int[] sameComboByCount;
+        int[] linearCombos;
+        int[][][] linearLines;
+
+        Builder(int rows, int cols, SymbolDictionary dictionary) {
+            this.rows = rows;
+            this.cols = cols;
+            this.dictionary = dictionary;
+        }
+
+        void compileSymbols(Map<String, SymbolConfig> symbols) {
+            int n = dictionary.size();
+            standardCount = dictionary.standardCount();
+            symbolMultiplier = new double[n];
+            bonusImpact = new int[n];
+            bonusExtra = new int[n];
+            bonusFactor = new double[n];
+            bonusAddend = new double[n];
+            Arrays.fill(bonusFactor, 1.0);
+            for (int i = 0; i < n; i++) {
+                SymbolConfig cfg = symbols.get(dictionary.name(i));
+                if (cfg == null) {
+                    continue;
+                }
+                symbolMultiplier[i] = cfg.reward_multiplier;
+                if (dictionary.isBonus(i)) {
+                    bonusImpact[i] = impactOf(cfg.impact);
+                    bonusExtra[i] = cfg.extra == null ? 0 : cfg.extra;
+                    if (bonusImpact[i] == IMPACT_MULTIPLY) {
+                        bonusFactor[i] = cfg.reward_multiplier;
+                    } else if (bonusImpact[i] == IMPACT_EXTRA) {
+                        bonusAddend[i] = bonusExtra[i];
+                    }
+                }
+            }
+        }
+
+        void compileCombinations(Map<String, WinCombination> combinations) {
+            int n = combinations.size();
+            if (n > MAX_COMBINATIONS) {
+                throw new IllegalArgumentException("Too many win combinations: " + n + " (max " + MAX_COMBINATIONS + ")");
+            }
+            comboNames = new String[n];
+            comboIds = new HashMap<>(n * 2);
+            comboMultiplier = new double[n];
+            comboGroup = new int[n];
+
+            Map<String, Integer> groups = new HashMap<>();
+            int[] thresholds = new int[n];
+            int cells = rows * cols;
+            sameComboByCount = new int[cells + 1];
+            Arrays.fill(sameComboByCount, -1);
+            List<Integer> linear = new ArrayList<>();
+            List<int[][]> lines = new ArrayList<>();
+
+            int id = 0;
+            for (Map.Entry<String, WinCombination> e : combinations.entrySet()) {
+                WinCombination wc = e.getValue();
+                comboNames[id] = e.getKey();
+                comboIds.put(e.getKey(), id);
+                comboMultiplier[id] = wc.reward_multiplier;
+                Integer group = groups.get(wc.group);
+                if (group == null) {
+                    group = groups.size();
+                    groups.put(wc.group, group);
+                }
+                comboGroup[id] = group;
+
+                Integer threshold = threshold(wc, cells);
+                if ("same_symbols".equals(wc.when) && threshold != null) {
+                    thresholds[id] = threshold;
+                    // Highest threshold wins; the first one in config order wins a tie
+                    for (int count = Math.max(threshold, 0); count <= cells; count++) {
+                        int current = sameComboByCount[count];
+                        if (current < 0 || thresholds[current] < threshold) {
+                            sameComboByCount[count] = id;
+                        }
+                    }
+                } else if ("linear_symbols".equals(wc.when)) {
+                    linear.add(id);
+                    lines.add(compileLines(e.getKey(), wc));
+                }
+                id++;
+            }
+            groupCount = groups.size();
+
+            linearCombos = new int[linear.size()];
+            for (int i = 0; i < linearCombos.length; i++) {
+                linearCombos[i] = linear.get(i);
+            }
+            linearLines = lines.toArray(new int[0][][]);
+        }
+
+        /**
+         * Explicit count, else count_percent of the cells rounded up; null if neither is set.
+         */
+        private static Integer threshold(WinCombination wc, int cells) {
+            if (wc.count != null) {
+                return wc.count;
+            }
+            if (wc.count_percent != null) {
+                return Math.max(1, (cells * wc.count_percent + 99) / 100);
+            }
+            return null;
+        }
+
+        private int[][] compileLines(String name, WinCombination wc) {
+            List<List<String>> coveredAreas = wc.covered_areas;
+            int explicit = coveredAreas == null ? 0 : coveredAreas.size();
+            int[][] generated = new int[0][];
+            if (wc.line_family != null) {
+                try {
+                    generated = LineFamilies.generate(wc.line_family, wc.length, wc.width, wc.height, rows, cols);
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Win combination '" + name + "': " + ex.getMessage(), ex);
+                }
+            }
+            int[][] result = new int[explicit + generated.length][];
+            for (int i = 0; i < explicit; i++) {
+                List<String> line = coveredAreas.get(i);
+                int[] cells = new int[line.size()];
+                for (int j = 0; j < cells.length; j++) {
+                    cells[j] = parseCell(name, line.get(j));
+                }
+                result[i] = cells;
+            }
+            System.arraycopy(generated, 0, result, explicit, generated.length);
+            return result;
+        }
+
+        private int parseCell(String name, String cell) {
+            String[] parts = cell == null ? new String[0] : cell.split(":");
+            int r;
+            int c;
+            try {
+                r = parts.length == 2 ? Integer.parseInt(parts[0].trim()) : -1;
+                c = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : -1;
+            } catch (NumberFormatException ex) {
+                r = -1;
+                c = -1;
+            }
+            if (r < 0 || r >= rows || c < 0 || c >= cols) {
+                throw new IllegalArgumentException("Invalid cell '" + cell + "' in win combination '" + name
+                        + "' for a " + rows + "x" + cols + " grid");
+            }
+            return r * cols + c;
+        }
+
+        private static int impactOf(String impact) {
+            if (impact == null) {
+                return IMPACT_NONE;
+            }
+            switch (impact) {
+                case "multiply_reward":
+                    return IMPACT_MULTIPLY;
+                case "extra_bonus":
+                    return IMPACT_EXTRA;
+                case "miss":
+                    return IMPACT_MISS;
+                default:
+                    return IMPACT_NONE;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package scratchgame.logic;
+
+import scratchgame.model.Config;
+import scratchgame.model.StandardSymbolsProb;
+import scratchgame.model.SymbolDictionary;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, precompiled form of the generation settings of a {@link Config}.
+ * Built once and reused for every round, so generation needs no map lookups or boxing.
+ * Weight tables hold {@link SymbolDictionary} ordinals.
+ */
+public final class GenerationPlan {
+
+    // Chance (in percent) to place a bonus symbol in a cell when the config does not set one
+    public static final int DEFAULT_BONUS_CHANCE_PERCENT = 15;
+
+    private final int rows;
+    private final int cols;
+    private final SymbolDictionary dictionary;
+    private final WeightTable[] cellTables;
+    private final WeightTable bonusTable;
+    private final int[] bonusChance;
+
+    private GenerationPlan(int rows, int cols, SymbolDictionary dictionary, WeightTable[] cellTables, WeightTable bonusTable,
+                           int[] bonusChance) {
+        this.rows = rows;
+        this.cols = cols;
+        this.dictionary = dictionary;
+        this.cellTables = cellTables;
+        this.bonusTable = bonusTable;
+        this.bonusChance = bonusChance;
+    }
+
+    /**
+     * Compiles the standard and bonus weights of the config for a rows x cols grid.
+     * Cells without their own probability entry use the first entry, as before, and the global bonus chance.
+     */
+    public static GenerationPlan compile(Config config, int rows, int cols) {
+        return compile(config, SymbolDictionary.of(config), rows, cols);
+    }
+
+    /**
+     * Compiles against an existing dictionary, so grids can be scored by combinations compiled with it.
+     */
+    public static GenerationPlan compile(Config config, SymbolDictionary dictionary, int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive: " + rows + "x" + cols);
+        }
+        if (config == null || config.probabilities == null
+                || config.probabilities.standard_symbols == null
+                || config.probabilities.standard_symbols.isEmpty()) {
+            throw new IllegalArgumentException("Config has no standard symbol probabilities");
+        }
+        if (config.probabilities.bonus_symbols == null || config.probabilities.bonus_symbols.symbols == null) {
+            throw new IllegalArgumentException("Config has no bonus symbol probabilities");
+        }
+
+        Map<StandardSymbolsProb, WeightTable> compiled = new IdentityHashMap<>();
+        List<StandardSymbolsProb> stdProb = config.probabilities.standard_symbols;
+
+        Integer globalChance = config.probabilities.bonus_symbols.chance_percent;
+        int defaultChance = checkChance(globalChance == null ? DEFAULT_BONUS_CHANCE_PERCENT : globalChance, "bonus symbols");
+
+        WeightTable[] cellTables = new WeightTable[rows * cols];
+        int[] bonusChance = new int[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                StandardSymbolsProb probForCell = findProbForCell(stdProb, r, c);
+                WeightTable table = compiled.get(probForCell);
+                if (table == null) {
+                    table = compileTable(probForCell.symbols, dictionary, "cell " + r + ":" + c);
+                    compiled.put(probForCell, table);
+                }
+                cellTables[r * cols + c] = table;
+                boolean own = probForCell.row == r && probForCell.column == c;
+                bonusChance[r * cols + c] = own && probForCell.bonus_chance_percent != null
+                        ? checkChance(probForCell.bonus_chance_percent, "cell " + r + ":" + c) : defaultChance;
+            }
+        }
+        WeightTable bonusTable = compileTable(config.probabilities.bonus_symbols.symbols, dictionary, "bonus symbols");
+
+        return new GenerationPlan(rows, cols, dictionary, cellTables, bonusTable, bonusChance);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public SymbolDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Standard symbol table of the cell at the given row-major index.
+     */
+    public WeightTable cellTable(int index) {
+        return cellTables[index];
+    }
+
+    public WeightTable bonusTable() {
+        return bonusTable;
+    }
+
+    /**
+     * Chance, in percent, that the cell at the given row-major index holds a bonus symbol instead of a standard one.
+     */
+    public int bonusChancePercent(int index) {
+        return bonusChance[index];
+    }
+
+    /**
+     * Finds probability settings for the given cell (row, col).
+     * Uses the first list entry as a fallback if not found.
+     */
+    private static StandardSymbolsProb findProbForCell(List<StandardSymbolsProb> list, int row, int col) {
+        for (StandardSymbolsProb s : list) {
+            if (s.row == row && s.column == col) {
+                return s;
+            }
+        }
+        return list.get(0);
+    }
+
+    private static int checkChance(int percent, String where) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("Bonus chance must be 0-100% in " + where + ": " + percent);
+        }
+        return percent;
+    }
+
+    private static WeightTable compileTable(Map<String, Integer> symbolWeights, SymbolDictionary dictionary, String where) {
+        if (symbolWeights == null || symbolWeights.isEmpty()) {
+            throw new IllegalArgumentException("No symbol weights for " + where);
+        }
+        int[] symbolIds = new int[symbolWeights.size()];
+        int[] weights = new int[symbolWeights.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> e : symbolWeights.entrySet()) {
+            if (e.getValue() == null) {
+                throw new IllegalArgumentException("Missing weight for '" + e.getKey() + "' in " + where);
+            }
+            int ordinal = dictionary.ordinal(e.getKey());
+            if (ordinal == SymbolDictionary.UNKNOWN) {
+                throw new IllegalArgumentException("Symbol '" + e.getKey() + "' in " + where + " is not in the dictionary");
+            }
+            symbolIds[i] = ordinal;
+            weights[i++] = e.getValue();
+        }
+        try {
+            return new WeightTable(symbolIds, weights);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " in " + where, e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package scratchgame.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates standard line families for a grid as row-major cell indexes, so large grids need no
+ * hand-written {@code covered_areas}. Every family is a sliding window: a length shorter than the
+ * grid yields every placement of the window.
+ */
+public final class LineFamilies {
+
+    public static final String ROWS = "rows";
+    public static final String COLUMNS = "columns";
+    public static final String DIAGONALS_LEFT_TO_RIGHT = "diagonals_left_to_right";
+    public static final String DIAGONALS_RIGHT_TO_LEFT = "diagonals_right_to_left";
+    public static final String RECTANGLES = "rectangles";
+
+    private LineFamilies() {
+    }
+
+    /**
+     * Generates the lines of a family.
+     *
+     * @param length cells per line for rows, columns and diagonals; null for the full row, column
+     *               or the longest diagonal
+     * @param width  rectangle width, ignored by the other families
+     * @param height rectangle height, ignored by the other families
+     */
+    public static int[][] generate(String family, Integer length, Integer width, Integer height, int rows, int cols) {
+        List<int[]> lines = new ArrayList<>();
+        switch (family) {
+            case ROWS: {
+                int len = resolve(family, length, cols);
+                for (int r = 0; r < rows; r++) {
+                    for (int c = 0; c + len <= cols; c++) {
+                        lines.add(line(r, c, 0, 1, len, cols));
+                    }
+                }
+                break;
+            }
+            case COLUMNS: {
+                int len = resolve(family, length, rows);
+                for (int c = 0; c < cols; c++) {
+                    for (int r = 0; r + len <= rows; r++) {
+                        lines.add(line(r, c, 1, 0, len, cols));
+                    }
+                }
+                break;
+            }
+            case DIAGONALS_LEFT_TO_RIGHT: {
+                int len = resolve(family, length, Math.min(rows, cols));
+                for (int r = 0; r + len <= rows; r++) {
+                    for (int c = 0; c + len <= cols; c++) {
+                        lines.add(line(r, c, 1, 1, len, cols));
+                    }
+                }
+                break;
+            }
+            case DIAGONALS_RIGHT_TO_LEFT: {
+                int len = resolve(family, length, Math.min(rows, cols));
+                for (int r = 0; r + len <= rows; r++) {
+                    for (int c = len - 1; c < cols; c++) {
+                        lines.add(line(r, c, 1, -1, len, cols));
+                    }
+                }
+                break;
+            }
+            case RECTANGLES: {
+                if (width == null || height == null) {
+                    throw new IllegalArgumentException("Line family '" + family + "' needs a width and a height");
+                }
+                int w = resolve(family, width, cols);
+                int h = resolve(family, height, rows);
+                for (int r = 0; r + h <= rows; r++) {
+                    for (int c = 0; c + w <= cols; c++) {
+                        int[] cells = new int[w * h];
+                        for (int i = 0; i < cells.length; i++) {
+                            cells[i] = (r + i / w) * cols + c + i % w;
+                        }
+                        lines.add(cells);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown line family '" + family + "'");
+        }
+        return lines.toArray(new int[0][]);
+    }
+
+    private static int resolve(String family, Integer length, int max) {
+        int len = length == null ? max : length;
+        if (len <= 0 || len > max) {
+            throw new IllegalArgumentException("Line family '" + family + "' size " + len + " does not fit 1.." + max);
+        }
+        return len;
+    }
+
+    private static int[] line(int r, int c, int dr, int dc, int length, int cols) {
+        int[] cells = new int[length];
+        for (int i = 0; i < length; i++) {
+            cells[i] = (r + i * dr) * cols + c + i * dc;
+        }
+        return cells;
+    }
+}
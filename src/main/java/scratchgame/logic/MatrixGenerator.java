@@ -1,66 +1,61 @@
 package scratchgame.logic;
 
+import scratchgame.metrics.GameMetrics;
 import scratchgame.model.Config;
-import scratchgame.model.StandardSymbolsProb;
-
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import scratchgame.model.Grid;
+import scratchgame.random.RandomSource;
 
 public class MatrixGenerator {
 
+    /**
+     * Compiles a generation plan for the config and generates one matrix with it.
+     * Callers generating many rounds should compile the plan once and use {@link #generateGrid(GenerationPlan, RandomSource, Grid)}.
+     */
     public static String[][] generateMatrix(Config config, int rows, int cols) {
-        String[][] matrix = new String[rows][cols];
-        Random rand = new Random();
+        return generateMatrix(GenerationPlan.compile(config, rows, cols));
+    }
 
-        // Probability settings for standard symbols
-        List<StandardSymbolsProb> stdProb = config.probabilities.standard_symbols;
+    public static String[][] generateMatrix(GenerationPlan plan) {
+        return generateMatrix(plan, RandomSource.threadLocal());
+    }
 
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                // Example: 15% chance to place a bonus symbol
-                boolean isBonus = (rand.nextInt(100) < 15);
+    /**
+     * Generates a matrix drawing from the given source; a seeded source replays the same matrix.
+     */
+    public static String[][] generateMatrix(GenerationPlan plan, RandomSource rand) {
+        return generateGrid(plan, rand).toMatrix(plan.dictionary());
+    }
 
-                if (!isBonus) {
-                    // Get the probability settings for (r, c)
-                    StandardSymbolsProb probForCell = findProbForCell(stdProb, r, c);
-                    matrix[r][c] = pickSymbolByWeights(probForCell.symbols);
-                } else {
-                    // Pick from bonus symbols
-                    matrix[r][c] = pickSymbolByWeights(config.probabilities.bonus_symbols.symbols);
-                }
-            }
-        }
-        return matrix;
+    public static Grid generateGrid(GenerationPlan plan, RandomSource rand) {
+        return generateGrid(plan, rand, new Grid(plan.rows(), plan.cols()));
     }
 
     /**
-     * Finds probability settings for the given cell (row, col).
-     * Uses the first list entry as a fallback if not found.
+     * Fills the target grid with symbol ordinals and returns it.
      */
-    private static StandardSymbolsProb findProbForCell(List<StandardSymbolsProb> list, int row, int col) {
-        for (StandardSymbolsProb s : list) {
-            if (s.row == row && s.column == col) {
-                return s;
-            }
+    public static Grid generateGrid(GenerationPlan plan, RandomSource rand, Grid target) {
+        if (target.rows() != plan.rows() || target.cols() != plan.cols()) {
+            throw new IllegalArgumentException("Grid is " + target.rows() + "x" + target.cols()
+                    + " but the plan is " + plan.rows() + "x" + plan.cols());
+        }
+        if (!GameMetrics.enabled()) {
+            return fill(plan, rand, target);
         }
-        return list.get(0);
+        long start = GameMetrics.startTimer();
+        fill(plan, rand, target);
+        GameMetrics.recordGeneration(start);
+        return target;
     }
 
-    /**
-     * Picks a symbol based on weighted probabilities.
-     */
-    private static String pickSymbolByWeights(Map<String, Integer> symbolWeights) {
-        int total = symbolWeights.values().stream().mapToInt(i -> i).sum();
-        int rnd = new Random().nextInt(total) + 1;
-        int current = 0;
-        for (Map.Entry<String, Integer> e : symbolWeights.entrySet()) {
-            current += e.getValue();
-            if (rnd <= current) {
-                return e.getKey();
-            }
+    private static Grid fill(GenerationPlan plan, RandomSource rand, Grid target) {
+        byte[] cells = target.cells();
+        WeightTable bonusTable = plan.bonusTable();
+        for (int i = 0; i < cells.length; i++) {
+            boolean isBonus = (rand.nextInt(100) < plan.bonusChancePercent(i));
+
+            WeightTable table = isBonus ? bonusTable : plan.cellTable(i);
+            cells[i] = (byte) table.symbolFor(rand.nextInt(table.total()));
         }
-        // Theoretically never reached if total > 0
-        return "MISS";
+        return target;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,406 @@
+package scratchgame.logic;
+
+import scratchgame.metrics.GameMetrics;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes {@link RewardCalculator#score} for grids that repeat, independent of the bet.
+ * <p>
+ * Only the standard symbols of a grid decide which combinations apply, so a grid is keyed by
+ * its cells packed in base (standardCount + 1), with every bonus or unknown cell as the extra
+ * digit. Grids that are mirror images or rotations of each other are keyed alike when that
+ * symmetry maps the lines of every linear combination onto themselves. The cached value is the
+ * applied combinations and the multiplier factors of each winning symbol; the reward for a bet
+ * and the bonus symbols of the actual grid are applied on lookup with the same arithmetic
+ * as RewardCalculator, so results are identical.
+ * <p>
+ * When every key fits in {@link #MAX_TABLE_ENTRIES}, all grids are scored up front into a
+ * lookup table and scoring is one array read. Otherwise the cache is a bounded direct-mapped
+ * table: a new grid replaces whatever grid held its slot. Safe for concurrent use.
+ */
+public final class RewardCache {
+
+    public static final int MAX_TABLE_ENTRIES = 1 << 20;
+
+    private static final Outcome LOSS = new Outcome(-1, 0, new double[0]);
+
+    private final CompiledWinCombinations compiled;
+    private final long[] powers;
+    // Cell permutations that leave every combination unchanged, identity first
+    private final int[][] symmetries;
+
+    // Full lookup table: key -> index into outcomes
+    private final int[] table;
+    private final Outcome[] outcomes;
+    // Bounded cache
+    private final Outcome[] slots;
+    private final int slotShift;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private RewardCache(CompiledWinCombinations compiled, int capacity, boolean fullTable) {
+        this.compiled = compiled;
+        int cells = compiled.rows * compiled.cols;
+        this.powers = new long[cells];
+        long power = 1;
+        for (int i = 0; i < cells; i++) {
+            powers[i] = power;
+            power = i + 1 < cells ? Math.multiplyExact(power, compiled.standardCount + 1) : power;
+        }
+        if (fullTable) {
+            this.symmetries = new int[][] {identity(cells)};
+            this.table = new int[(int) keyCount(compiled)];
+            this.outcomes = precompute();
+            this.slots = null;
+            this.slotShift = 0;
+        } else {
+            this.symmetries = symmetries(compiled);
+            int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+            this.table = null;
+            this.outcomes = null;
+            this.slots = new Outcome[size];
+            this.slotShift = 64 - Integer.numberOfTrailingZeros(size);
+        }
+    }
+
+    /**
+     * True if grids of this config pack into a long key.
+     */
+    public static boolean supports(CompiledWinCombinations compiled) {
+        return keyCount(compiled) > 0;
+    }
+
+    /**
+     * Full lookup table if the config has at most {@link #MAX_TABLE_ENTRIES} keys, otherwise a
+     * bounded cache of about the given capacity (rounded up to a power of two).
+     */
+    public static RewardCache create(CompiledWinCombinations compiled, int capacity) {
+        long keys = keyCount(compiled);
+        if (keys <= 0) {
+            throw new IllegalArgumentException(compiled.rows + "x" + compiled.cols + " grids with "
+                    + compiled.standardCount + " standard symbols do not fit a 64-bit cache key");
+        }
+        if (keys <= MAX_TABLE_ENTRIES) {
+            return new RewardCache(compiled, 0, true);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        return new RewardCache(compiled, capacity, false);
+    }
+
+    /**
+     * Bounded cache even when a full table would fit; mainly for tests and benchmarks.
+     */
+    public static RewardCache bounded(CompiledWinCombinations compiled, int capacity) {
+        if (keyCount(compiled) <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Cannot cache " + compiled.rows + "x" + compiled.cols
+                    + " grids in " + capacity + " entries");
+        }
+        return new RewardCache(compiled, capacity, false);
+    }
+
+    public CompiledWinCombinations combinations() {
+        return compiled;
+    }
+
+    /**
+     * True if every grid was scored up front.
+     */
+    public boolean isFullTable() {
+        return table != null;
+    }
+
+    /**
+     * Cached entries; for a full table, the number of keys.
+     */
+    public int capacity() {
+        return table != null ? table.length : slots.length;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Same result as {@link RewardCalculator#score(CompiledWinCombinations, Grid, int, RoundScore)}.
+     */
+    public RoundScore score(Grid grid, int bet, RoundScore out) {
+        if (grid.rows() != compiled.rows || grid.cols() != compiled.cols) {
+            throw new IllegalArgumentException("Grid is " + grid.rows() + "x" + grid.cols()
+                    + " but the cache was built for " + compiled.rows + "x" + compiled.cols);
+        }
+        if (!GameMetrics.enabled()) {
+            return apply(lookup(grid.cells()), grid.cells(), bet, out);
+        }
+        long start = GameMetrics.startTimer();
+        apply(lookup(grid.cells()), grid.cells(), bet, out);
+        GameMetrics.recordScoring(start);
+        GameMetrics.recordRound(compiled, out);
+        return out;
+    }
+
+    private Outcome lookup(byte[] cells) {
+        if (table != null) {
+            hits.increment();
+            return outcomes[table[(int) key(cells, symmetries[0])]];
+        }
+        long key = canonicalKey(cells);
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> slotShift);
+        Outcome cached = slots[slot];
+        if (cached != null && cached.key == key) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        if (cached != null) {
+            evictions.increment();
+        }
+        // Outcome fields are final, so publishing it through a plain array write is safe
+        Outcome outcome = analyze(cells, key, RewardCalculator.newBoards(compiled));
+        slots[slot] = outcome;
+        return outcome;
+    }
+
+    /**
+     * Turns a cached outcome into the score for this bet; mirrors RewardCalculator.evaluate.
+     */
+    private RoundScore apply(Outcome outcome, byte[] cells, int bet, RoundScore out) {
+        out.clear();
+        double[] factors = outcome.factors;
+        double totalReward = 0.0;
+        for (int i = 0; i < factors.length; i += 2) {
+            totalReward += bet * factors[i] * factors[i + 1];
+        }
+        out.appliedCombos = outcome.appliedCombos;
+        out.rewardBeforeBonus = totalReward;
+        if (totalReward > 0) {
+            // No bitboards on a hit, so the bonus cells are found by checking each cell
+            totalReward = compiled.applyBonuses(cells, 0, null, 0, totalReward, out);
+        }
+        out.finalReward = Math.round(totalReward);
+        return out;
+    }
+
+    private long key(byte[] cells, int[] symmetry) {
+        int standard = compiled.standardCount;
+        long key = 0;
+        for (int i = 0; i < cells.length; i++) {
+            int s = cells[symmetry[i]];
+            key += (s >= 0 && s < standard ? s : standard) * powers[i];
+        }
+        return key;
+    }
+
+    private long canonicalKey(byte[] cells) {
+        long min = key(cells, symmetries[0]);
+        for (int i = 1; i < symmetries.length; i++) {
+            min = Math.min(min, key(cells, symmetries[i]));
+        }
+        return min;
+    }
+
+    /**
+     * Applied combinations and per-symbol factors of a grid, in the order RewardCalculator adds them.
+     */
+    private Outcome analyze(byte[] cells, long key, long[] boards) {
+        int words = compiled.words;
+        Bitboards.fill(cells, compiled.standardCount, compiled.dictionary.bonusEnd(), words, boards);
+        long appliedCombos = 0;
+        double[] factors = null;
+        int used = 0;
+        for (int s = 0; s < compiled.standardCount; s++) {
+            int count = Bitboards.count(boards, s, words);
+            if (count == 0) {
+                continue;
+            }
+            long applied = compiled.resolveCombos(count, RewardCalculator.linearHits(compiled, boards, s, count));
+            if (applied == 0) {
+                continue;
+            }
+            if (factors == null) {
+                factors = new double[2 * compiled.standardCount];
+            }
+            factors[used++] = compiled.symbolMultiplier[s];
+            factors[used++] = compiled.comboMultiplier(count, applied);
+            appliedCombos |= applied;
+        }
+        return factors == null
+                ? new Outcome(key, 0, LOSS.factors)
+                : new Outcome(key, appliedCombos, Arrays.copyOf(factors, used));
+    }
+
+    /**
+     * Scores every key once; identical outcomes share one entry.
+     */
+    private Outcome[] precompute() {
+        int cells = powers.length;
+        int standard = compiled.standardCount;
+        byte[] grid = new byte[cells];
+        long[] boards = RewardCalculator.newBoards(compiled);
+        List<Outcome> distinct = new ArrayList<>();
+        Map<Outcome, Integer> ids = new HashMap<>();
+        for (int key = 0; key < table.length; key++) {
+            for (int i = 0, rest = key; i < cells; i++, rest /= standard + 1) {
+                int digit = rest % (standard + 1);
+                grid[i] = (byte) (digit == standard ? -1 : digit);
+            }
+            Outcome outcome = analyze(grid, -1, boards);
+            Integer id = ids.get(outcome);
+            if (id == null) {
+                id = distinct.size();
+                ids.put(outcome, id);
+                distinct.add(outcome);
+            }
+            table[key] = id;
+        }
+        return distinct.toArray(new Outcome[0]);
+    }
+
+    /**
+     * Number of distinct keys, or -1 if they overflow a long.
+     */
+    private static long keyCount(CompiledWinCombinations compiled) {
+        long keys = 1;
+        try {
+            for (int i = 0; i < compiled.rows * compiled.cols; i++) {
+                keys = Math.multiplyExact(keys, compiled.standardCount + 1);
+            }
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+        return keys;
+    }
+
+    private static int[] identity(int cells) {
+        int[] identity = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            identity[i] = i;
+        }
+        return identity;
+    }
+
+    /**
+     * Mirror and rotation permutations (cell i of the image is cell p[i] of the grid) under
+     * which every linear combination keeps the same set of lines.
+     */
+    static int[][] symmetries(CompiledWinCombinations compiled) {
+        int rows = compiled.rows;
+        int cols = compiled.cols;
+        List<int[]> candidates = new ArrayList<>();
+        candidates.add(identity(rows * cols));
+        candidates.add(transform(rows, cols, rows, cols, (r, c) -> r * cols + (cols - 1 - c)));
+        candidates.add(transform(rows, cols, rows, cols, (r, c) -> (rows - 1 - r) * cols + c));
+        candidates.add(transform(rows, cols, rows, cols, (r, c) -> (rows - 1 - r) * cols + (cols - 1 - c)));
+        if (rows == cols) {
+            candidates.add(transform(rows, cols, cols, rows, (r, c) -> c * cols + r));
+            candidates.add(transform(rows, cols, cols, rows, (r, c) -> (cols - 1 - c) * cols + (rows - 1 - r)));
+            candidates.add(transform(rows, cols, cols, rows, (r, c) -> (cols - 1 - c) * cols + r));
+            candidates.add(transform(rows, cols, cols, rows, (r, c) -> c * cols + (rows - 1 - r)));
+        }
+        List<int[]> valid = new ArrayList<>();
+        for (int[] candidate : candidates) {
+            if (preservesLines(compiled, candidate)) {
+                valid.add(candidate);
+            }
+        }
+        return valid.toArray(new int[0][]);
+    }
+
+    private interface CellMap {
+        int source(int row, int col);
+    }
+
+    private static int[] transform(int rows, int cols, int imageRows, int imageCols, CellMap map) {
+        int[] permutation = new int[rows * cols];
+        for (int r = 0; r < imageRows; r++) {
+            for (int c = 0; c < imageCols; c++) {
+                permutation[r * imageCols + c] = map.source(r, c);
+            }
+        }
+        return permutation;
+    }
+
+    private static boolean preservesLines(CompiledWinCombinations compiled, int[] permutation) {
+        for (int[][] lines : compiled.linearLines) {
+            Set<Set<Integer>> original = new HashSet<>();
+            Set<Set<Integer>> image = new HashSet<>();
+            for (int[] line : lines) {
+                Set<Integer> cells = new HashSet<>();
+                Set<Integer> mapped = new HashSet<>();
+                for (int cell : line) {
+                    cells.add(cell);
+                    mapped.add(permutation[cell]);
+                }
+                original.add(cells);
+                image.add(mapped);
+            }
+            if (!original.equals(image)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bet-independent part of a score: applied combinations and (symbol multiplier, combination
+     * multiplier) pairs of every winning symbol.
+     */
+    private static final class Outcome {
+        final long key;
+        final long appliedCombos;
+        final double[] factors;
+
+        Outcome(long key, long appliedCombos, double[] factors) {
+            this.key = key;
+            this.appliedCombos = appliedCombos;
+            this.factors = factors;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Outcome)) {
+                return false;
+            }
+            Outcome other = (Outcome) o;
+            return appliedCombos == other.appliedCombos && Arrays.equals(factors, other.factors);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(appliedCombos) + Arrays.hashCode(factors);
+        }
+    }
+}
@@ -1,178 +1,252 @@
 package scratchgame.logic;
 
+import scratchgame.metrics.GameMetrics;
+import scratchgame.model.Breakdown;
 import scratchgame.model.CalculationResult;
 import scratchgame.model.Config;
-import scratchgame.model.SymbolConfig;
-import scratchgame.model.WinCombination;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
 
 import java.util.*;
 
 public class RewardCalculator {
 
     /**
-     * Calculates winnings and stores a detailed breakdown in result.detailedBreakdown.
+     * Calculates winnings and records a detailed breakdown in result.breakdown.
+     *
+     * @deprecated compiles the config on every call. Compile it once, with
+     * {@link scratchgame.config.ConfigSnapshot#of} or {@link CompiledWinCombinations#compile}, and use
+     * {@link #calculateReward(CompiledWinCombinations, String[][], int)}.
      */
+    @Deprecated
     public static CalculationResult calculateReward(String[][] matrix, int bet, Config config) {
-        CalculationResult result = new CalculationResult();
-
         if (matrix == null || config == null || config.symbols == null || matrix.length == 0 || matrix[0].length == 0) {
-            result.finalReward = 0;
-            result.appliedBonusSymbol = null;
-            result.appliedCombinations = Collections.emptyMap();
-            result.detailedBreakdown = Collections.singletonList("Invalid configuration or empty matrix provided.");
-            return result;
+            return invalidResult();
         }
+        return calculateReward(CompiledWinCombinations.compile(config, matrix.length, matrix[0].length), matrix, bet);
+    }
 
-        double totalReward = 0.0;
-        List<String> breakdown = new ArrayList<>();
-        Map<String, Integer> symbolCount = new HashMap<>();
-
-        int cols = matrix[0].length;
-
-        // Count occurrences of each standard symbol
-        for (String[] strings : matrix) {
-            for (int c = 0; c < cols; c++) {
-                String sym = strings[c];
-                SymbolConfig symCfg = config.symbols.get(sym);
-                if (symCfg != null && "standard".equals(symCfg.type)) {
-                    symbolCount.put(sym, symbolCount.getOrDefault(sym, 0) + 1);
-                }
-            }
+    /**
+     * Calculates winnings using win combinations compiled for the matrix size.
+     */
+    public static CalculationResult calculateReward(CompiledWinCombinations compiled, String[][] matrix, int bet) {
+        if (matrix == null || compiled == null || matrix.length == 0 || matrix[0].length == 0) {
+            return invalidResult();
         }
+        return calculateReward(compiled, Grid.fromMatrix(matrix, compiled.dictionary), bet);
+    }
 
+    /**
+     * Calculates winnings for an encoded grid; the grid must use the dictionary the combinations were compiled with.
+     * Records applied combinations by name and a breakdown that is formatted only when read.
+     */
+    public static CalculationResult calculateReward(CompiledWinCombinations compiled, Grid grid, int bet) {
+        if (grid == null || compiled == null) {
+            return invalidResult();
+        }
         Map<String, List<String>> appliedCombinations = new LinkedHashMap<>();
+        Breakdown breakdown = new Breakdown(bet);
+        RoundScore score = score(compiled, grid, bet, new RoundScore(), newBoards(compiled), appliedCombinations, breakdown);
 
-        // Check winning combinations for each symbol
-        for (Map.Entry<String, Integer> entry : symbolCount.entrySet()) {
-            String symbol = entry.getKey();
-            int count = entry.getValue();
-            SymbolConfig symCfg = config.symbols.get(symbol);
-
-            double symbolBaseMultiplier = symCfg.reward_multiplier;
-            double finalMultiplierForSymbol = 1.0;
-            List<String> combosForSymbol = new ArrayList<>();
-
-            // Check "same_symbols" combinations
-            Optional<Map.Entry<String, WinCombination>> bestSameSymbolCombo =
-                    config.win_combinations.entrySet().stream()
-                            .filter(e -> "same_symbols".equals(e.getValue().when))
-                            .filter(e -> e.getValue().count != null && count >= e.getValue().count)
-                            .max(Comparator.comparingInt(e -> e.getValue().count));
-
-            if (bestSameSymbolCombo.isPresent()) {
-                WinCombination wc = bestSameSymbolCombo.get().getValue();
-                finalMultiplierForSymbol *= wc.reward_multiplier;
-                combosForSymbol.add(bestSameSymbolCombo.get().getKey());
+        // Create result object
+        CalculationResult result = new CalculationResult();
+        result.finalReward = score.finalReward;
+        result.appliedCombinations = appliedCombinations;
+        result.appliedBonusSymbol = score.appliedBonus == SymbolDictionary.UNKNOWN
+                ? null : compiled.dictionary.name(score.appliedBonus);
+        result.breakdown = breakdown;
+
+        return result;
+    }
+
+    /**
+     * Fast path: computes only the reward, the applied combination ids and the applied bonus
+     * into the given holder. No names, maps or text are produced; the only allocation is a small
+     * bitboard array, which {@link RoundEngine} reuses across rounds.
+     */
+    public static RoundScore score(CompiledWinCombinations compiled, Grid grid, int bet, RoundScore out) {
+        return score(compiled, grid, bet, out, newBoards(compiled), null, null);
+    }
+
+    /**
+     * Fast path with caller-owned bitboards from {@link #newBoards}.
+     */
+    static RoundScore score(CompiledWinCombinations compiled, Grid grid, int bet, RoundScore out, long[] boards) {
+        return score(compiled, grid, bet, out, boards, null, null);
+    }
+
+    /**
+     * Applied combination names per symbol, rebuilt from the bitboards of the last fast-path
+     * score; only needed when a result is shown, so the fast path does not produce them.
+     */
+    static Map<String, List<String>> appliedCombinations(CompiledWinCombinations compiled, long[] boards) {
+        Map<String, List<String>> applied = new LinkedHashMap<>();
+        for (int s = 0; s < compiled.standardCount; s++) {
+            int count = Bitboards.count(boards, s, compiled.words);
+            if (count == 0) {
+                continue;
             }
+            long combos = compiled.resolveCombos(count, linearHits(compiled, boards, s, count));
+            if (combos != 0) {
+                applied.put(compiled.dictionary.name(s), comboNames(compiled, count, combos));
+            }
+        }
+        return applied;
+    }
 
-            // Check "linear_symbols" combinations (rows, columns, diagonals)
-            Set<String> usedGroups = new HashSet<>();
-            bestSameSymbolCombo.ifPresent(e -> usedGroups.add(e.getValue().group));
+    static long[] newBoards(CompiledWinCombinations compiled) {
+        return new long[(compiled.standardCount + 1) * compiled.words];
+    }
 
-            for (Map.Entry<String, WinCombination> wcEntry : config.win_combinations.entrySet()) {
-                WinCombination wc = wcEntry.getValue();
-                if (!"linear_symbols".equals(wc.when)) {
-                    continue;
-                }
-                if (usedGroups.contains(wc.group)) {
-                    continue;
-                }
-                if (checkLinearCombo(matrix, symbol, wc.covered_areas)) {
-                    finalMultiplierForSymbol *= wc.reward_multiplier;
-                    combosForSymbol.add(wcEntry.getKey());
-                    usedGroups.add(wc.group);
-                }
+    /**
+     * Shared scoring; appliedCombinations and breakdown are filled only when non-null.
+     */
+    private static RoundScore score(CompiledWinCombinations compiled, Grid grid, int bet, RoundScore out, long[] boards,
+                                    Map<String, List<String>> appliedCombinations, Breakdown breakdown) {
+        if (grid.rows() != compiled.rows || grid.cols() != compiled.cols) {
+            throw new IllegalArgumentException("Grid is " + grid.rows() + "x" + grid.cols()
+                    + " but win combinations were compiled for " + compiled.rows + "x" + compiled.cols);
+        }
+        if (!GameMetrics.enabled()) {
+            return evaluate(compiled, grid, bet, out, boards, appliedCombinations, breakdown);
+        }
+        long start = GameMetrics.startTimer();
+        evaluate(compiled, grid, bet, out, boards, appliedCombinations, breakdown);
+        GameMetrics.recordScoring(start);
+        GameMetrics.recordRound(compiled, out);
+        return out;
+    }
+
+    private static RoundScore evaluate(CompiledWinCombinations compiled, Grid grid, int bet, RoundScore out, long[] boards,
+                                       Map<String, List<String>> appliedCombinations, Breakdown breakdown) {
+        out.clear();
+
+        double totalReward = 0.0;
+        byte[] cells = grid.cells();
+        SymbolDictionary dictionary = compiled.dictionary;
+        int words = compiled.words;
+
+        // Occupancy bitboard of each standard symbol, then of the bonus symbols, in one pass
+        Bitboards.fill(cells, compiled.standardCount, dictionary.bonusEnd(), words, boards);
+        int bonusBoard = compiled.standardCount * words;
+
+        // Check winning combinations for each symbol
+        for (int s = 0; s < compiled.standardCount; s++) {
+            int count = Bitboards.count(boards, s, words);
+            if (count == 0) {
+                continue;
             }
 
-            if (combosForSymbol.isEmpty()) {
+            // "same_symbols" and "linear_symbols" combinations, one per group
+            long applied = compiled.resolveCombos(count, linearHits(compiled, boards, s, count));
+            if (applied == 0) {
                 continue;
             }
+            double symbolBaseMultiplier = compiled.symbolMultiplier[s];
+            double finalMultiplierForSymbol = compiled.comboMultiplier(count, applied);
 
             // Calculate partial reward
             double partialReward = bet * symbolBaseMultiplier * finalMultiplierForSymbol;
             totalReward += partialReward;
-            appliedCombinations.put(symbol, combosForSymbol);
+            out.appliedCombos |= applied;
 
-            // Store breakdown of calculations
-            breakdown.add(String.format(
-                    "Symbol '%s': bet(%d) x symbol_multiplier(%.2f) x combo_multiplier(%.2f) = %.0f",
-                    symbol, bet, symbolBaseMultiplier, finalMultiplierForSymbol, partialReward
-            ));
+            if (appliedCombinations != null) {
+                appliedCombinations.put(dictionary.name(s), comboNames(compiled, count, applied));
+            }
+            if (breakdown != null) {
+                breakdown.addSymbol(dictionary.name(s), symbolBaseMultiplier, finalMultiplierForSymbol, partialReward);
+            }
+        }
+        out.rewardBeforeBonus = totalReward;
+        if (breakdown != null) {
+            breakdown.setTotalBeforeBonus(totalReward);
         }
-
-        breakdown.add(String.format("Total winnings before bonus: %.0f", totalReward));
 
         // Apply bonus if totalReward > 0
-        String appliedBonusSymbol = null;
         if (totalReward > 0) {
-            bonusLoop:
-            for (String[] strings : matrix) {
-                for (int c = 0; c < cols; c++) {
-                    String sym = strings[c];
-                    SymbolConfig symCfg = config.symbols.get(sym);
-                    if (symCfg != null && "bonus".equals(symCfg.type)) {
-                        appliedBonusSymbol = sym;
-                        switch (symCfg.impact) {
-                            case "multiply_reward":
-                                double oldValue = totalReward;
-                                totalReward *= symCfg.reward_multiplier;
-                                breakdown.add(String.format(
-                                        "Bonus '%s' applied: (%.0f) x %.0f = %.0f",
-                                        sym, oldValue, symCfg.reward_multiplier, totalReward
-                                ));
-                                break;
-                            case "extra_bonus":
-                                oldValue = totalReward;
-                                totalReward += symCfg.extra;
-                                breakdown.add(String.format(
-                                        "Bonus '%s' applied: (%.0f) + %d = %.0f",
-                                        sym, oldValue, symCfg.extra, totalReward
-                                ));
-                                break;
-                            case "miss":
-                                breakdown.add("Bonus 'MISS' (no effect).");
-                                break;
-                            default:
-                                break;
-                        }
-                        break bonusLoop;
-                    }
+            totalReward = compiled.applyBonuses(cells, 0, boards, bonusBoard, totalReward, out);
+            if (breakdown != null && out.appliedBonus != SymbolDictionary.UNKNOWN) {
+                if (compiled.bonusResolution == BonusResolution.FIRST || compiled.bonusResolution == BonusResolution.HIGHEST) {
+                    recordBonus(compiled, breakdown, out.appliedBonus, totalReward);
+                } else {
+                    breakdown.setBonuses(bonusNames(compiled, cells, boards, bonusBoard), totalReward);
                 }
             }
         }
 
-        // Create result object
-        result.finalReward = Math.round(totalReward);
-        result.appliedCombinations = appliedCombinations;
-        result.appliedBonusSymbol = appliedBonusSymbol;
-        result.detailedBreakdown = breakdown;
+        out.finalReward = Math.round(totalReward);
+        return out;
+    }
+
+    private static void recordBonus(CompiledWinCombinations compiled, Breakdown breakdown, int idx, double totalReward) {
+        String sym = compiled.dictionary.name(idx);
+        switch (compiled.bonusImpact[idx]) {
+            case CompiledWinCombinations.IMPACT_MULTIPLY:
+                breakdown.setBonus(sym, Breakdown.BONUS_MULTIPLY, compiled.symbolMultiplier[idx], totalReward);
+                break;
+            case CompiledWinCombinations.IMPACT_EXTRA:
+                breakdown.setBonus(sym, Breakdown.BONUS_EXTRA, compiled.bonusExtra[idx], totalReward);
+                break;
+            case CompiledWinCombinations.IMPACT_MISS:
+                breakdown.setBonus(sym, Breakdown.BONUS_MISS, 0, totalReward);
+                break;
+            default:
+                breakdown.setBonus(sym, Breakdown.BONUS_NONE, 0, totalReward);
+                break;
+        }
+    }
+
+    /**
+     * Names of the bonus symbols of the grid in row-major order.
+     */
+    private static List<String> bonusNames(CompiledWinCombinations compiled, byte[] cells, long[] boards, int bonusBoard) {
+        List<String> names = new ArrayList<>();
+        for (int w = 0; w < compiled.words; w++) {
+            for (long bits = boards[bonusBoard + w]; bits != 0; bits &= bits - 1) {
+                names.add(compiled.dictionary.name(cells[(w << 6) + Long.numberOfTrailingZeros(bits)]));
+            }
+        }
+        return names;
+    }
 
+    private static CalculationResult invalidResult() {
+        CalculationResult result = new CalculationResult();
+        result.finalReward = 0;
+        result.appliedBonusSymbol = null;
+        result.appliedCombinations = Collections.emptyMap();
+        result.breakdown = Breakdown.ofMessage("Invalid configuration or empty matrix provided.");
         return result;
     }
 
     /**
-     * Checks if the given symbol fills at least one complete line from covered_areas.
+     * Bit i is set when the symbol fills a full line of the i-th linear combination.
      */
-    private static boolean checkLinearCombo(String[][] matrix,
-                                            String symbol,
-                                            List<List<String>> coveredAreas) {
-        if (coveredAreas == null) return false;
-
-        for (List<String> line : coveredAreas) {
-            boolean allMatch = true;
-            for (String cell : line) {
-                String[] parts = cell.split(":");
-                int rr = Integer.parseInt(parts[0]);
-                int cc = Integer.parseInt(parts[1]);
-                if (!matrix[rr][cc].equals(symbol)) {
-                    allMatch = false;
-                    break;
-                }
+    static long linearHits(CompiledWinCombinations compiled, long[] boards, int symbol, int count) {
+        long hits = 0;
+        for (int i = 0; i < compiled.linearMasks.length; i++) {
+            if (count >= compiled.linearMinCells[i]
+                    && Bitboards.anyLine(boards, symbol, compiled.words, compiled.linearMasks[i])) {
+                hits |= 1L << i;
             }
-            if (allMatch) {
-                return true;
+        }
+        return hits;
+    }
+
+    /**
+     * Names of the applied combinations in the order they were applied.
+     */
+    private static List<String> comboNames(CompiledWinCombinations compiled, int count, long applied) {
+        List<String> names = new ArrayList<>(Long.bitCount(applied));
+        int sameCombo = compiled.sameComboByCount[Math.min(count, compiled.sameComboByCount.length - 1)];
+        if (sameCombo >= 0 && (applied & (1L << sameCombo)) != 0) {
+            names.add(compiled.comboNames[sameCombo]);
+        }
+        for (int combo : compiled.linearCombos) {
+            if ((applied & (1L << combo)) != 0) {
+                names.add(compiled.comboNames[combo]);
             }
         }
-        return false;
+        return names;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package scratchgame.logic;
+
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SeededRandomSource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Plays rounds into scratch state it owns: one grid, one score holder and the scoring
+ * bitboards. Once created, a round allocates nothing. Not thread-safe; give each thread its
+ * own engine, use {@link #local} to get the calling thread's, or borrow one with
+ * {@link #acquire} where threads are short-lived, such as a virtual thread per request.
+ */
+public final class RoundEngine {
+
+    private static final ThreadLocal<RoundEngine> LOCAL = new ThreadLocal<>();
+    private static final AtomicReferenceArray<RoundEngine> POOL =
+            new AtomicReferenceArray<>(Math.max(16, 4 * Runtime.getRuntime().availableProcessors()));
+
+    private final GenerationPlan plan;
+    private final CompiledWinCombinations combinations;
+    private final Grid grid;
+    private final RoundScore score = new RoundScore();
+    private final long[] boards;
+    private final SeededRandomSource seeded = RandomSource.seeded(0);
+
+    public RoundEngine(GenerationPlan plan, CompiledWinCombinations combinations) {
+        if (!plan.dictionary().equals(combinations.dictionary())) {
+            throw new IllegalArgumentException("Plan and win combinations use different symbol dictionaries");
+        }
+        if (plan.rows() != combinations.rows() || plan.cols() != combinations.cols()) {
+            throw new IllegalArgumentException("Plan and win combinations use different grid sizes");
+        }
+        this.plan = plan;
+        this.combinations = combinations;
+        this.grid = new Grid(plan.rows(), plan.cols());
+        this.boards = RewardCalculator.newBoards(combinations);
+    }
+
+    /**
+     * The calling thread's engine for this plan and combinations; replaced when either changes,
+     * for example after a config reload.
+     */
+    public static RoundEngine local(GenerationPlan plan, CompiledWinCombinations combinations) {
+        RoundEngine engine = LOCAL.get();
+        if (engine == null || engine.plan != plan || engine.combinations != combinations) {
+            engine = new RoundEngine(plan, combinations);
+            LOCAL.set(engine);
+        }
+        return engine;
+    }
+
+    /**
+     * Borrows an idle engine for this plan and combinations, or creates one if none is idle.
+     * Hand it back with {@link #release} once its results have been read.
+     */
+    public static RoundEngine acquire(GenerationPlan plan, CompiledWinCombinations combinations) {
+        int start = (int) Thread.currentThread().getId();
+        for (int i = 0; i < POOL.length(); i++) {
+            int slot = Math.floorMod(start + i, POOL.length());
+            RoundEngine engine = POOL.get(slot);
+            if (engine != null && engine.plan == plan && engine.combinations == combinations
+                    && POOL.compareAndSet(slot, engine, null)) {
+                return engine;
+            }
+        }
+        return new RoundEngine(plan, combinations);
+    }
+
+    /**
+     * Returns an engine from {@link #acquire} to the pool; it takes the place of an engine of
+     * an older config, and is dropped if the pool is full.
+     */
+    public void release() {
+        int start = (int) Thread.currentThread().getId();
+        for (int i = 0; i < POOL.length(); i++) {
+            int slot = Math.floorMod(start + i, POOL.length());
+            RoundEngine engine = POOL.get(slot);
+            if ((engine == null || engine.plan != plan || engine.combinations != combinations)
+                    && POOL.compareAndSet(slot, engine, this)) {
+                return;
+            }
+        }
+    }
+
+    public GenerationPlan plan() {
+        return plan;
+    }
+
+    public CompiledWinCombinations combinations() {
+        return combinations;
+    }
+
+    /**
+     * Generates a grid into {@link #grid()} and scores it. The returned holder is reused by the
+     * next call on this engine.
+     */
+    public RoundScore play(RandomSource rand, int bet) {
+        MatrixGenerator.generateGrid(plan, rand, grid);
+        return RewardCalculator.score(combinations, grid, bet, score, boards);
+    }
+
+    /**
+     * Plays the round a seed determines, as {@link SeededRandomSource} and the audit replay
+     * regenerate it.
+     */
+    public RoundScore play(long seed, int bet) {
+        seeded.reseed(seed);
+        return play(seeded, bet);
+    }
+
+    /**
+     * Scores a grid generated elsewhere with this engine's scratch state.
+     */
+    public RoundScore score(Grid grid, int bet) {
+        return RewardCalculator.score(combinations, grid, bet, score, boards);
+    }
+
+    /**
+     * Grid of the last {@link #play}; overwritten by the next one.
+     */
+    public Grid grid() {
+        return grid;
+    }
+
+    /**
+     * Applied combination names per symbol of the last scored grid; allocates, so read it only
+     * to show a result.
+     */
+    public Map<String, List<String>> appliedCombinations() {
+        return score.appliedCombos == 0
+                ? Collections.<String, List<String>>emptyMap()
+                : RewardCalculator.appliedCombinations(combinations, boards);
+    }
+
+    /**
+     * Name of the bonus symbol applied to the last scored grid, or null.
+     */
+    public String appliedBonusSymbol() {
+        return score.appliedBonus == SymbolDictionary.UNKNOWN ? null : combinations.dictionary().name(score.appliedBonus);
+    }
+}
@@ -0,0 +1,79 @@
+package scratchgame.logic;
+
+/**
+ * Immutable weighted distribution over symbol ordinals, stored as cumulative weights.
+ */
+public final class WeightTable {
+
+    private final int[] symbolIds;
+    private final int[] cumulative;
+    private final int total;
+
+    WeightTable(int[] symbolIds, int[] weights) {
+        if (symbolIds.length == 0 || symbolIds.length != weights.length) {
+            throw new IllegalArgumentException("Weight table needs at least one symbol");
+        }
+        this.symbolIds = symbolIds.clone();
+        this.cumulative = new int[weights.length];
+        long sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Negative weight: " + weights[i]);
+            }
+            sum += weights[i];
+            if (sum > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Total weight overflows int");
+            }
+            cumulative[i] = (int) sum;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("Total weight must be positive");
+        }
+        this.total = (int) sum;
+    }
+
+    public int size() {
+        return symbolIds.length;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public int symbolAt(int index) {
+        return symbolIds[index];
+    }
+
+    public int weightAt(int index) {
+        return index == 0 ? cumulative[0] : cumulative[index] - cumulative[index - 1];
+    }
+
+    /**
+     * Maps a uniform value in [0, total) to a symbol ordinal.
+     * Matches the old "rnd in [1, total], first cumulative >= rnd" walk for the same value.
+     */
+    public int symbolFor(int value) {
+        int[] cum = cumulative;
+        int n = cum.length;
+        if (n <= 8) {
+            for (int i = 0; i < n; i++) {
+                if (value < cum[i]) {
+                    return symbolIds[i];
+                }
+            }
+            return symbolIds[n - 1];
+        }
+        // Lower bound: first cumulative weight strictly greater than value
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cum[mid] > value) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return symbolIds[lo];
+    }
+}
@@ -0,0 +1,171 @@
+package scratchgame.metrics;
+
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide round metrics: lock-free counters for rounds, wins, payouts, applied combinations
+ * and bonus symbols, plus latency histograms for the generation and scoring stages.
+ * <p>
+ * Disabled by default; the instrumented code then pays one volatile read per call. When enabled,
+ * counters are {@link LongAdder}s and latency is timed for a random sample of calls (1 in
+ * {@link #setLatencySampling(int)}, default 16) to keep the clock reads off most rounds.
+ */
+public final class GameMetrics {
+
+    /** Returned by {@link #startTimer()} when the call is not sampled. */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private static volatile boolean enabled;
+    private static volatile int sampleMask = 15;
+
+    private static final LongAdder ROUNDS = new LongAdder();
+    private static final LongAdder WINS = new LongAdder();
+    private static final LongAdder TOTAL_PAID = new LongAdder();
+    private static final ConcurrentHashMap<String, LongAdder> COMBO_WINS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LongAdder> BONUS_HITS = new ConcurrentHashMap<>();
+    private static final LatencyHistogram GENERATION = new LatencyHistogram();
+    private static final LatencyHistogram SCORING = new LatencyHistogram();
+
+    // Counters resolved for the most recently seen compiled config, so a round needs no name lookups
+    private static volatile Binding binding = new Binding(null, new LongAdder[0], new LongAdder[0]);
+
+    private GameMetrics() {
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Times 1 in n calls per stage; n is rounded up to a power of two, 1 times every call.
+     */
+    public static void setLatencySampling(int n) {
+        if (n <= 0 || n > 1 << 30) {
+            throw new IllegalArgumentException("Sampling interval must be in 1..2^30: " + n);
+        }
+        sampleMask = n == 1 ? 0 : Integer.highestOneBit(n - 1) * 2 - 1;
+    }
+
+    public static long startTimer() {
+        return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0 ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    public static void recordGeneration(long start) {
+        if (start != NOT_SAMPLED) {
+            GENERATION.record(System.nanoTime() - start);
+        }
+    }
+
+    public static void recordScoring(long start) {
+        if (start != NOT_SAMPLED) {
+            SCORING.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts one scored round.
+     */
+    public static void recordRound(CompiledWinCombinations combinations, RoundScore score) {
+        ROUNDS.increment();
+        if (score.finalReward > 0) {
+            WINS.increment();
+            TOTAL_PAID.add(score.finalReward);
+        }
+        if (score.appliedCombos == 0 && score.appliedBonus == SymbolDictionary.UNKNOWN) {
+            return;
+        }
+        Binding b = binding;
+        if (b.combinations != combinations) {
+            b = bind(combinations);
+        }
+        for (long mask = score.appliedCombos; mask != 0; mask &= mask - 1) {
+            b.comboWins[Long.numberOfTrailingZeros(mask)].increment();
+        }
+        if (score.appliedBonus != SymbolDictionary.UNKNOWN) {
+            b.bonusHits[score.appliedBonus].increment();
+        }
+    }
+
+    public static MetricsSnapshot snapshot() {
+        MetricsSnapshot s = new MetricsSnapshot();
+        s.timestampMillis = System.currentTimeMillis();
+        s.rounds = ROUNDS.sum();
+        s.wins = WINS.sum();
+        s.totalPaid = TOTAL_PAID.sum();
+        s.comboWins = sums(COMBO_WINS);
+        s.bonusHits = sums(BONUS_HITS);
+        s.generation = GENERATION.snapshot();
+        s.scoring = SCORING.snapshot();
+        return s;
+    }
+
+    /**
+     * Clears all counters and histograms.
+     */
+    public static void reset() {
+        ROUNDS.reset();
+        WINS.reset();
+        TOTAL_PAID.reset();
+        for (LongAdder adder : COMBO_WINS.values()) {
+            adder.reset();
+        }
+        for (LongAdder adder : BONUS_HITS.values()) {
+            adder.reset();
+        }
+        GENERATION.reset();
+        SCORING.reset();
+    }
+
+    private static synchronized Binding bind(CompiledWinCombinations combinations) {
+        Binding b = binding;
+        if (b.combinations == combinations) {
+            return b;
+        }
+        LongAdder[] comboWins = new LongAdder[combinations.comboCount()];
+        for (int i = 0; i < comboWins.length; i++) {
+            comboWins[i] = COMBO_WINS.computeIfAbsent(combinations.comboName(i), k -> new LongAdder());
+        }
+        SymbolDictionary dictionary = combinations.dictionary();
+        LongAdder[] bonusHits = new LongAdder[dictionary.size()];
+        for (int i = 0; i < bonusHits.length; i++) {
+            if (dictionary.isBonus(i)) {
+                bonusHits[i] = BONUS_HITS.computeIfAbsent(dictionary.name(i), k -> new LongAdder());
+            }
+        }
+        b = new Binding(combinations, comboWins, bonusHits);
+        binding = b;
+        return b;
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> adders) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> e : adders.entrySet()) {
+            result.put(e.getKey(), e.getValue().sum());
+        }
+        return result;
+    }
+
+    private static final class Binding {
+        final CompiledWinCombinations combinations;
+        final LongAdder[] comboWins;
+        final LongAdder[] bonusHits;
+
+        Binding(CompiledWinCombinations combinations, LongAdder[] comboWins, LongAdder[] bonusHits) {
+            this.combinations = combinations;
+            this.comboWins = comboWins;
+            this.bonusHits = bonusHits;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package scratchgame.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of {@link GameMetrics}. Latencies are in nanoseconds.
+ */
+public class MetricsSnapshot {
+    public long timestampMillis;
+    public long rounds;
+    public long wins;
+    public long totalPaid;
+    public Map<String, Long> comboWins;
+    public Map<String, Long> bonusHits;
+    public LatencyHistogram.Snapshot generation;
+    public LatencyHistogram.Snapshot scoring;
+
+    /**
+     * Plain-text report, one metric per line.
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "timestamp_ms %d%n", timestampMillis));
+        sb.append(String.format(Locale.ROOT, "rounds %d%n", rounds));
+        sb.append(String.format(Locale.ROOT, "wins %d%n", wins));
+        sb.append(String.format(Locale.ROOT, "total_paid %d%n", totalPaid));
+        for (Map.Entry<String, Long> e : comboWins.entrySet()) {
+            sb.append(String.format(Locale.ROOT, "combo_wins{%s} %d%n", e.getKey(), e.getValue()));
+        }
+        for (Map.Entry<String, Long> e : bonusHits.entrySet()) {
+            sb.append(String.format(Locale.ROOT, "bonus_hits{%s} %d%n", e.getKey(), e.getValue()));
+        }
+        appendLatency(sb, "generation", generation);
+        appendLatency(sb, "scoring", scoring);
+        return sb.toString();
+    }
+
+    private static void appendLatency(StringBuilder sb, String stage, LatencyHistogram.Snapshot h) {
+        sb.append(String.format(Locale.ROOT, "%s_ns{samples} %d%n", stage, h.count()));
+        sb.append(String.format(Locale.ROOT, "%s_ns{mean} %.1f%n", stage, h.mean()));
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            sb.append(String.format(Locale.ROOT, "%s_ns{p%s} %d%n", stage,
+                    p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p), h.percentile(p)));
+        }
+        sb.append(String.format(Locale.ROOT, "%s_ns{max} %d%n", stage, h.max()));
+    }
+}
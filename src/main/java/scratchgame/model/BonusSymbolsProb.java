@@ -6,4 +6,6 @@ import java.util.Map;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BonusSymbolsProb {
     public Map<String, Integer> symbols;
+    // Chance, in percent, that a cell holds a bonus symbol; 15 when not set
+    public Integer chance_percent;
 }
\ No newline at end of file
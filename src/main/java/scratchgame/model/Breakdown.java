@@ -0,0 +1,160 @@
+package scratchgame.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Structured record of how a reward was calculated. Values are stored as they are
+ * produced and only formatted into text when {@link #lines()} is first called.
+ */
+public final class Breakdown {
+
+    public static final int BONUS_NONE = 0;
+    public static final int BONUS_MULTIPLY = 1;
+    public static final int BONUS_EXTRA = 2;
+    public static final int BONUS_MISS = 3;
+    public static final int BONUS_COMBINED = 4;
+
+    private final int bet;
+    private final String message;
+
+    private int size;
+    private String[] symbols = new String[4];
+    private double[] symbolMultipliers = new double[4];
+    private double[] comboMultipliers = new double[4];
+    private double[] partialRewards = new double[4];
+
+    private double totalBeforeBonus;
+    private String bonusSymbol;
+    private int bonusKind = BONUS_NONE;
+    private double bonusValue;
+    private double totalAfterBonus;
+
+    private List<String> rendered;
+
+    public Breakdown(int bet) {
+        this.bet = bet;
+        this.message = null;
+    }
+
+    private Breakdown(String message) {
+        this.bet = 0;
+        this.message = message;
+    }
+
+    /**
+     * A breakdown consisting of a single fixed line.
+     */
+    public static Breakdown ofMessage(String message) {
+        return new Breakdown(message);
+    }
+
+    public void addSymbol(String symbol, double symbolMultiplier, double comboMultiplier, double partialReward) {
+        if (size == symbols.length) {
+            int capacity = size * 2;
+            symbols = Arrays.copyOf(symbols, capacity);
+            symbolMultipliers = Arrays.copyOf(symbolMultipliers, capacity);
+            comboMultipliers = Arrays.copyOf(comboMultipliers, capacity);
+            partialRewards = Arrays.copyOf(partialRewards, capacity);
+        }
+        symbols[size] = symbol;
+        symbolMultipliers[size] = symbolMultiplier;
+        comboMultipliers[size] = comboMultiplier;
+        partialRewards[size] = partialReward;
+        size++;
+    }
+
+    public void setTotalBeforeBonus(double totalBeforeBonus) {
+        this.totalBeforeBonus = totalBeforeBonus;
+    }
+
+    /**
+     * Records the applied bonus; value is the multiplier or the extra amount, depending on the kind.
+     */
+    public void setBonus(String symbol, int kind, double value, double totalAfterBonus) {
+        this.bonusSymbol = symbol;
+        this.bonusKind = kind;
+        this.bonusValue = value;
+        this.totalAfterBonus = totalAfterBonus;
+    }
+
+    /**
+     * Records several bonus symbols applied together, in the order they appear on the grid.
+     */
+    public void setBonuses(List<String> symbols, double totalAfterBonus) {
+        this.bonusSymbol = "'" + String.join("', '", symbols) + "'";
+        this.bonusKind = BONUS_COMBINED;
+        this.totalAfterBonus = totalAfterBonus;
+    }
+
+    /**
+     * Number of winning symbols recorded.
+     */
+    public int symbolCount() {
+        return size;
+    }
+
+    public String symbol(int index) {
+        return symbols[index];
+    }
+
+    public double partialReward(int index) {
+        return partialRewards[index];
+    }
+
+    public double totalBeforeBonus() {
+        return totalBeforeBonus;
+    }
+
+    /**
+     * Human-readable lines, rendered once on first access.
+     */
+    public List<String> lines() {
+        if (rendered == null) {
+            rendered = render();
+        }
+        return rendered;
+    }
+
+    private List<String> render() {
+        if (message != null) {
+            return Collections.singletonList(message);
+        }
+        List<String> lines = new ArrayList<>(size + 2);
+        for (int i = 0; i < size; i++) {
+            lines.add(String.format(
+                    "Symbol '%s': bet(%d) x symbol_multiplier(%.2f) x combo_multiplier(%.2f) = %.0f",
+                    symbols[i], bet, symbolMultipliers[i], comboMultipliers[i], partialRewards[i]
+            ));
+        }
+        lines.add(String.format("Total winnings before bonus: %.0f", totalBeforeBonus));
+        switch (bonusKind) {
+            case BONUS_MULTIPLY:
+                lines.add(String.format(
+                        "Bonus '%s' applied: (%.0f) x %.0f = %.0f",
+                        bonusSymbol, totalBeforeBonus, bonusValue, totalAfterBonus
+                ));
+                break;
+            case BONUS_EXTRA:
+                lines.add(String.format(
+                        "Bonus '%s' applied: (%.0f) + %d = %.0f",
+                        bonusSymbol, totalBeforeBonus, (long) bonusValue, totalAfterBonus
+                ));
+                break;
+            case BONUS_MISS:
+                lines.add("Bonus 'MISS' (no effect).");
+                break;
+            case BONUS_COMBINED:
+                lines.add(String.format(
+                        "Bonuses %s applied: (%.0f) -> %.0f",
+                        bonusSymbol, totalBeforeBonus, totalAfterBonus
+                ));
+                break;
+            default:
+                break;
+        }
+        return Collections.unmodifiableList(lines);
+    }
+}
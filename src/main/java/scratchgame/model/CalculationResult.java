@@ -1,5 +1,6 @@
 package scratchgame.model;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -7,5 +8,12 @@ public class CalculationResult {
     public long finalReward;
     public Map<String, List<String>> appliedCombinations;
     public String appliedBonusSymbol;
-    public List<String> detailedBreakdown;
-}
\ No newline at end of file
+    public Breakdown breakdown;
+
+    /**
+     * Detailed breakdown as text; formatted on first call.
+     */
+    public List<String> getDetailedBreakdown() {
+        return breakdown == null ? Collections.<String>emptyList() : breakdown.lines();
+    }
+}
@@ -11,4 +11,6 @@ public class Config {
     public Map<String, SymbolConfig> symbols;
     public Probabilities probabilities;
     public Map<String, WinCombination> win_combinations;
+    // first (default), all, highest or stacked; see BonusResolution
+    public String bonus_resolution;
 }
\ No newline at end of file
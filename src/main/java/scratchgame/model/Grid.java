@@ -0,0 +1,101 @@
+package scratchgame.model;
+
+import java.util.Arrays;
+
+/**
+ * Compact grid of symbol ordinals (see {@link SymbolDictionary}) stored row-major in a byte array.
+ * Mutable so that generators can refill the same instance round after round.
+ */
+public final class Grid {
+
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+
+    public Grid(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid size must be positive: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new byte[rows * cols];
+    }
+
+    /**
+     * Encodes a String matrix; symbols missing from the dictionary become {@link SymbolDictionary#UNKNOWN}.
+     */
+    public static Grid fromMatrix(String[][] matrix, SymbolDictionary dictionary) {
+        Grid grid = new Grid(matrix.length, matrix[0].length);
+        for (int r = 0; r < grid.rows; r++) {
+            String[] row = matrix[r];
+            if (row.length != grid.cols) {
+                throw new IllegalArgumentException("Matrix rows must have equal length");
+            }
+            for (int c = 0; c < grid.cols; c++) {
+                grid.cells[r * grid.cols + c] = (byte) dictionary.ordinal(row[c]);
+            }
+        }
+        return grid;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public int get(int row, int col) {
+        return cells[row * cols + col];
+    }
+
+    /**
+     * Ordinal at the given row-major index.
+     */
+    public int get(int index) {
+        return cells[index];
+    }
+
+    public void set(int index, int ordinal) {
+        cells[index] = (byte) ordinal;
+    }
+
+    /**
+     * Backing row-major array; exposed for hot loops, do not keep references across rounds.
+     */
+    public byte[] cells() {
+        return cells;
+    }
+
+    /**
+     * Materializes the grid as symbol names for display or output.
+     */
+    public String[][] toMatrix(SymbolDictionary dictionary) {
+        String[][] matrix = new String[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int ordinal = cells[r * cols + c];
+                matrix[r][c] = ordinal < 0 ? null : dictionary.name(ordinal);
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Grid)) return false;
+        Grid grid = (Grid) o;
+        return rows == grid.rows && cols == grid.cols && Arrays.equals(cells, grid.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(cells) + cols;
+    }
+}
@@ -0,0 +1,20 @@
+package scratchgame.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one headless round, serialized as-is by the game service.
+ */
+public class RoundResult {
+    public int bet;
+    public String[][] matrix;
+    public long reward;
+    public Map<String, List<String>> applied_winning_combinations;
+    public String applied_bonus_symbol;
+    // Set only when the round was written to an audit log
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Long round_id;
+}
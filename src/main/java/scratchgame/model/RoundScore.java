@@ -0,0 +1,20 @@
+package scratchgame.model;
+
+/**
+ * Compact, reusable result of the fast scoring path: no names, no text.
+ */
+public final class RoundScore {
+    public long finalReward;
+    // Bit i is set when win combination i was applied to at least one symbol
+    public long appliedCombos;
+    // Ordinal of the applied bonus symbol, or SymbolDictionary.UNKNOWN if none
+    public int appliedBonus = SymbolDictionary.UNKNOWN;
+    public double rewardBeforeBonus;
+
+    public void clear() {
+        finalReward = 0;
+        appliedCombos = 0;
+        appliedBonus = SymbolDictionary.UNKNOWN;
+        rewardBeforeBonus = 0;
+    }
+}
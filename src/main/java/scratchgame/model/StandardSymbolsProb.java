@@ -18,4 +18,6 @@ public class StandardSymbolsProb {
     public int column;
     public int row;
     public Map<String, Integer> symbols;
+    // Bonus chance of this cell in percent; overrides bonus_symbols.chance_percent
+    public Integer bonus_chance_percent;
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package scratchgame.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable mapping between symbol names and the byte ordinals stored in a {@link Grid}.
+ * Standard symbols come first, then bonus symbols, then symbols that only appear in the
+ * probabilities (they never score).
+ */
+public final class SymbolDictionary {
+
+    public static final byte UNKNOWN = -1;
+    public static final int MAX_SYMBOLS = Byte.MAX_VALUE;
+
+    private final String[] names;
+    private final Map<String, Integer> ordinals;
+    private final int standardCount;
+    private final int bonusEnd;
+
+    private SymbolDictionary(String[] names, int standardCount, int bonusEnd) {
+        this.names = names;
+        this.standardCount = standardCount;
+        this.bonusEnd = bonusEnd;
+        this.ordinals = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            ordinals.put(names[i], i);
+        }
+    }
+
+    /**
+     * Derives the dictionary from config.symbols and every symbol named in config.probabilities.
+     */
+    public static SymbolDictionary of(Config config) {
+        Set<String> standard = new LinkedHashSet<>();
+        Set<String> bonus = new LinkedHashSet<>();
+        Set<String> other = new LinkedHashSet<>();
+        if (config.symbols != null) {
+            for (Map.Entry<String, SymbolConfig> e : config.symbols.entrySet()) {
+                String type = e.getValue() == null ? null : e.getValue().type;
+                if ("standard".equals(type)) {
+                    standard.add(e.getKey());
+                } else if ("bonus".equals(type)) {
+                    bonus.add(e.getKey());
+                } else {
+                    other.add(e.getKey());
+                }
+            }
+        }
+        if (config.probabilities != null) {
+            if (config.probabilities.standard_symbols != null) {
+                for (StandardSymbolsProb prob : config.probabilities.standard_symbols) {
+                    if (prob.symbols != null) {
+                        other.addAll(prob.symbols.keySet());
+                    }
+                }
+            }
+            if (config.probabilities.bonus_symbols != null && config.probabilities.bonus_symbols.symbols != null) {
+                other.addAll(config.probabilities.bonus_symbols.symbols.keySet());
+            }
+        }
+        other.removeAll(standard);
+        other.removeAll(bonus);
+
+        int size = standard.size() + bonus.size() + other.size();
+        if (size > MAX_SYMBOLS) {
+            throw new IllegalArgumentException("Too many symbols: " + size + " (max " + MAX_SYMBOLS + ")");
+        }
+        String[] names = new String[size];
+        int i = 0;
+        for (String s : standard) {
+            names[i++] = s;
+        }
+        for (String s : bonus) {
+            names[i++] = s;
+        }
+        for (String s : other) {
+            names[i++] = s;
+        }
+        return new SymbolDictionary(names, standard.size(), standard.size() + bonus.size());
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public int standardCount() {
+        return standardCount;
+    }
+
+    /**
+     * Bonus symbol ordinals are [standardCount(), bonusEnd()).
+     */
+    public int bonusEnd() {
+        return bonusEnd;
+    }
+
+    public String name(int ordinal) {
+        return names[ordinal];
+    }
+
+    /**
+     * Returns the ordinal of the symbol, or {@link #UNKNOWN} if the config does not know it.
+     */
+    public int ordinal(String name) {
+        Integer ordinal = ordinals.get(name);
+        return ordinal == null ? UNKNOWN : ordinal;
+    }
+
+    public boolean isStandard(int ordinal) {
+        return ordinal >= 0 && ordinal < standardCount;
+    }
+
+    public boolean isBonus(int ordinal) {
+        return ordinal >= standardCount && ordinal < bonusEnd;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SymbolDictionary)) return false;
+        SymbolDictionary that = (SymbolDictionary) o;
+        return standardCount == that.standardCount && bonusEnd == that.bonusEnd && Arrays.equals(names, that.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(names) + standardCount;
+    }
+}
@@ -0,0 +1,124 @@
+package scratchgame.model;
+
+/**
+ * Reusable columnar buffer of scored tickets. Ticket i of the batch has its cells at
+ * [i * cellCount, (i + 1) * cellCount) of {@link #cells()} and its results at index i of
+ * the other columns. Refilling the batch overwrites previous contents.
+ */
+public final class TicketBatch {
+
+    private final int rows;
+    private final int cols;
+    private final int cellCount;
+    private final int capacity;
+
+    private final byte[] cells;
+    private final long[] rewards;
+    private final byte[] bonuses;
+    private final long[] comboMasks;
+
+    private long firstTicket;
+    private int size;
+
+    public TicketBatch(int rows, int cols, int capacity) {
+        if (rows <= 0 || cols <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Invalid batch shape: " + rows + "x" + cols + " x " + capacity);
+        }
+        if ((long) rows * cols * capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Batch too large: " + capacity + " tickets of " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cellCount = rows * cols;
+        this.capacity = capacity;
+        this.cells = new byte[cellCount * capacity];
+        this.rewards = new long[capacity];
+        this.bonuses = new byte[capacity];
+        this.comboMasks = new long[capacity];
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int cellCount() {
+        return cellCount;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of valid tickets, starting at index 0.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Run-wide index of ticket 0 of this batch.
+     */
+    public long firstTicket() {
+        return firstTicket;
+    }
+
+    public void reset(long firstTicket, int size) {
+        if (size < 0 || size > capacity) {
+            throw new IllegalArgumentException("Size " + size + " exceeds capacity " + capacity);
+        }
+        this.firstTicket = firstTicket;
+        this.size = size;
+    }
+
+    /**
+     * Row-major symbol ordinals of all tickets, back to back.
+     */
+    public byte[] cells() {
+        return cells;
+    }
+
+    public long[] rewards() {
+        return rewards;
+    }
+
+    /**
+     * Ordinal of the applied bonus symbol per ticket, {@link SymbolDictionary#UNKNOWN} if none.
+     */
+    public byte[] bonuses() {
+        return bonuses;
+    }
+
+    /**
+     * Applied win combination ids per ticket, as bit masks.
+     */
+    public long[] comboMasks() {
+        return comboMasks;
+    }
+
+    public long reward(int index) {
+        return rewards[index];
+    }
+
+    /**
+     * Copies ticket i into the target grid and returns it.
+     */
+    public Grid grid(int index, Grid target) {
+        System.arraycopy(cells, index * cellCount, target.cells(), 0, cellCount);
+        return target;
+    }
+
+    /**
+     * Stores a generated grid and its score as ticket i.
+     */
+    public void set(int index, Grid grid, RoundScore score) {
+        System.arraycopy(grid.cells(), 0, cells, index * cellCount, cellCount);
+        rewards[index] = score.finalReward;
+        bonuses[index] = (byte) score.appliedBonus;
+        comboMasks[index] = score.appliedCombos;
+    }
+}
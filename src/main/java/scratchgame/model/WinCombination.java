@@ -29,4 +29,11 @@ public class WinCombination {
     public Integer count;
     public String group;
     public List<List<String>> covered_areas;
+    // Same-symbol threshold as a percentage of the grid's cells, used when count is absent
+    public Integer count_percent;
+    // Generated lines (see LineFamilies), added to covered_areas
+    public String line_family;
+    public Integer length;
+    public Integer width;
+    public Integer height;
 }
\ No newline at end of file
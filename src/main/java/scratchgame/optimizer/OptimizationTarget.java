@@ -0,0 +1,67 @@
+package scratchgame.optimizer;
+
+/**
+ * What {@link PaytableOptimizer} aims for. RTP and hit rate are fractions (0.95 is 95%);
+ * volatility is the standard deviation of payout / bet.
+ */
+public class OptimizationTarget {
+    public double rtp;
+    public double rtpTolerance = 0.005;
+    // Optional; null leaves the hit rate free
+    public Double hitRate;
+    public double hitRateTolerance = 0.01;
+    public double minVolatility = 0;
+    public double maxVolatility = Double.POSITIVE_INFINITY;
+
+    public OptimizationTarget() {
+    }
+
+    public OptimizationTarget(double rtp) {
+        this.rtp = rtp;
+    }
+
+    /**
+     * True if the estimate meets every goal within its tolerance.
+     */
+    public boolean isMetBy(WeightedSample.Estimate estimate) {
+        return loss(estimate) <= 1.0 && volatilityPenalty(estimate.volatility) == 0;
+    }
+
+    /**
+     * Largest squared error in units of tolerance, plus a penalty outside the volatility bounds;
+     * at most 1 when all goals are met.
+     */
+    double loss(WeightedSample.Estimate estimate) {
+        double rtpError = (estimate.rtp - rtp) / rtpTolerance;
+        double loss = rtpError * rtpError;
+        if (hitRate != null) {
+            double hitError = (estimate.hitRate - hitRate) / hitRateTolerance;
+            loss = Math.max(loss, hitError * hitError);
+        }
+        return loss + volatilityPenalty(estimate.volatility);
+    }
+
+    private double volatilityPenalty(double volatility) {
+        if (volatility > maxVolatility) {
+            double excess = (volatility - maxVolatility) / maxVolatility;
+            return 100 * excess * excess + 1;
+        }
+        if (volatility < minVolatility) {
+            double shortfall = (minVolatility - volatility) / minVolatility;
+            return 100 * shortfall * shortfall + 1;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(String.format("RTP %.2f%% +/- %.2f%%", 100 * rtp, 100 * rtpTolerance));
+        if (hitRate != null) {
+            s.append(String.format(", hit rate %.2f%% +/- %.2f%%", 100 * hitRate, 100 * hitRateTolerance));
+        }
+        if (minVolatility > 0 || maxVolatility < Double.POSITIVE_INFINITY) {
+            s.append(String.format(", volatility %.2f..%.2f", minVolatility, maxVolatility));
+        }
+        return s.toString();
+    }
+}
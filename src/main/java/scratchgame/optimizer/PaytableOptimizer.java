@@ -0,0 +1,213 @@
+package scratchgame.optimizer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import scratchgame.logic.BatchGenerator;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.model.Config;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.model.TicketBatch;
+import scratchgame.random.SeededRandomSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tunes the standard and bonus symbol weights of a config towards an {@link OptimizationTarget}.
+ * <p>
+ * The win combinations are compiled once; only the weight tables change between candidates.
+ * Each generation, an evolution strategy perturbs the best weights found so far in log space
+ * and evaluates the whole population in parallel against one shared {@link WeightedSample}, so
+ * all candidates see the same grids (common random numbers) and each costs a few milliseconds.
+ * When the best candidate drifts far enough from the sampled weights that the reweighted
+ * estimate gets thin, a fresh sample is drawn at the best weights. The search ends when a fresh
+ * sample at the best weights meets the target, or after the given number of generations.
+ */
+public final class PaytableOptimizer {
+
+    // Grid cells generated per sample; about 230k rounds on a 3x3 grid
+    public static final int DEFAULT_SAMPLE_CELLS = 1 << 21;
+    // Resample once the best candidate is supported by less than this fraction of the sample
+    static final double RESAMPLE_EFFECTIVE_SIZE = 0.3;
+    // Candidates supported by less than this are not trusted at all
+    static final double MIN_EFFECTIVE_SIZE = 0.05;
+
+    private static final double INITIAL_STEP = 0.3;
+    private static final double MIN_STEP = 1e-3;
+
+    private final WeightSpace space;
+    private final CompiledWinCombinations combinations;
+    private final int bet;
+    private final int sampleRounds;
+    private final ForkJoinPool pool;
+
+    public PaytableOptimizer(Config config, int rows, int cols, int bet, int sampleRounds, ForkJoinPool pool) {
+        if (bet <= 0) {
+            throw new IllegalArgumentException("Bet must be positive: " + bet);
+        }
+        if (sampleRounds <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive: " + sampleRounds);
+        }
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        // Validates the config and fixes the dictionary every candidate is compiled against
+        GenerationPlan.compile(config, dictionary, rows, cols);
+        this.space = new WeightSpace(config, dictionary, rows, cols);
+        this.combinations = CompiledWinCombinations.compile(config, dictionary, rows, cols);
+        this.bet = bet;
+        this.sampleRounds = sampleRounds;
+        this.pool = pool;
+    }
+
+    /**
+     * Sample size that generates about {@link #DEFAULT_SAMPLE_CELLS} cells.
+     */
+    public static int defaultSampleRounds(int rows, int cols) {
+        return Math.max(8192, DEFAULT_SAMPLE_CELLS / (rows * cols));
+    }
+
+    public Result optimize(OptimizationTarget target, int generations, int population, long seed) {
+        long start = System.nanoTime();
+        Result result = new Result();
+        double[] best = new double[space.dimensions()];
+        WeightedSample sample = sample(space.weights(best), SeededRandomSource.derive(seed, 0));
+        result.samples = 1;
+        WeightedSample.Estimate bestEstimate = sample.estimate(sample.weights());
+        boolean fresh = true;
+        double bestLoss = target.loss(bestEstimate);
+        double step = INITIAL_STEP;
+        Random random = new Random(seed);
+
+        for (int generation = 1; generation <= generations && !target.isMetBy(bestEstimate); generation++) {
+            result.generations = generation;
+            double[][] candidates = new double[population][];
+            for (int i = 0; i < population; i++) {
+                candidates[i] = best.clone();
+                for (int d = 0; d < candidates[i].length; d++) {
+                    candidates[i][d] += step * random.nextGaussian();
+                }
+            }
+            WeightedSample.Estimate[] estimates = evaluate(sample, candidates);
+            result.evaluations += population;
+
+            int winner = -1;
+            for (int i = 0; i < population; i++) {
+                double loss = target.loss(estimates[i]);
+                if (estimates[i].effectiveSampleSize >= MIN_EFFECTIVE_SIZE && loss < bestLoss) {
+                    bestLoss = loss;
+                    winner = i;
+                }
+            }
+            if (winner >= 0) {
+                best = candidates[winner];
+                bestEstimate = estimates[winner];
+                fresh = false;
+                step *= 1.5;
+            } else {
+                step *= 0.7;
+            }
+
+            // Confirm on fresh grids once the estimate is thin or claims success
+            if (bestEstimate.effectiveSampleSize < RESAMPLE_EFFECTIVE_SIZE || target.isMetBy(bestEstimate)) {
+                sample = sample(space.weights(best), SeededRandomSource.derive(seed, generation));
+                result.samples++;
+                bestEstimate = sample.estimate(sample.weights());
+                fresh = true;
+                bestLoss = target.loss(bestEstimate);
+            }
+            if (step < MIN_STEP) {
+                step = INITIAL_STEP;
+            }
+        }
+
+        int[][] weights = space.weights(best);
+        if (!fresh) {
+            sample = sample(weights, SeededRandomSource.derive(seed, generations + 1));
+            result.samples++;
+            bestEstimate = sample.estimate(weights);
+        }
+        result.config = space.toConfig(weights);
+        result.estimate = bestEstimate;
+        result.met = target.isMetBy(bestEstimate);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Generates and scores a sample with the given weights, reusing the compiled combinations.
+     */
+    WeightedSample sample(int[][] weights, long seed) {
+        Config config = space.toConfig(weights);
+        GenerationPlan plan = GenerationPlan.compile(config, space.dictionary(), combinations.rows(), combinations.cols());
+        BatchGenerator generator = new BatchGenerator(plan, combinations, bet);
+        TicketBatch batch = generator.newBatch(sampleRounds);
+        if (pool == null) {
+            generator.fill(batch, 0, sampleRounds, seed);
+        } else {
+            generator.fill(batch, 0, sampleRounds, seed, pool);
+        }
+        return new WeightedSample(space, weights, batch, bet);
+    }
+
+    private WeightedSample.Estimate[] evaluate(WeightedSample sample, double[][] candidates) {
+        WeightedSample.Estimate[] estimates = new WeightedSample.Estimate[candidates.length];
+        EvaluateTask task = new EvaluateTask(sample, candidates, estimates, 0, candidates.length);
+        if (pool == null) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return estimates;
+    }
+
+    /**
+     * Writes the config as pretty-printed JSON, leaving out unset fields.
+     */
+    public static void write(Config config, Path file) throws IOException {
+        new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(file.toFile(), config);
+    }
+
+    private final class EvaluateTask extends RecursiveAction {
+        private final WeightedSample sample;
+        private final double[][] candidates;
+        private final WeightedSample.Estimate[] estimates;
+        private final int from;
+        private final int to;
+
+        EvaluateTask(WeightedSample sample, double[][] candidates, WeightedSample.Estimate[] estimates, int from, int to) {
+            this.sample = sample;
+            this.candidates = candidates;
+            this.estimates = estimates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                estimates[from] = sample.estimate(space.weights(candidates[from]));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new EvaluateTask(sample, candidates, estimates, from, mid),
+                    new EvaluateTask(sample, candidates, estimates, mid, to));
+        }
+    }
+
+    public static class Result {
+        public Config config;
+        // Plain Monte Carlo estimate from a sample drawn at the final weights
+        public WeightedSample.Estimate estimate;
+        public boolean met;
+        public int generations;
+        public long evaluations;
+        public int samples;
+        public long elapsedNanos;
+    }
+}
@@ -0,0 +1,177 @@
+package scratchgame.optimizer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import scratchgame.model.Config;
+import scratchgame.model.StandardSymbolsProb;
+import scratchgame.model.SymbolDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search space of the optimizer: one log-scale factor per standard symbol, applied to that symbol
+ * in every standard probability table so per-cell shapes are kept, and one log-scale weight per
+ * bonus symbol. Table 0..n-1 are the config's standard_symbols entries in order, table n is the
+ * bonus table. Weights are renormalized to {@link #TABLE_TOTAL} and rounded, so a candidate is
+ * always evaluated with the integer weights that would be written out. Zero weights stay zero.
+ */
+final class WeightSpace {
+
+    static final int TABLE_TOTAL = 10_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Config base;
+    private final SymbolDictionary dictionary;
+    private final int rows;
+    private final int cols;
+    private final int standardTables;
+    // Base weights by table and ordinal
+    private final int[][] baseWeights;
+    // Table of each cell, as GenerationPlan resolves it
+    private final int[] cellTable;
+    // Ordinal moved by each dimension
+    private final int[] dimensionSymbol;
+
+    WeightSpace(Config base, SymbolDictionary dictionary, int rows, int cols) {
+        this.base = base;
+        this.dictionary = dictionary;
+        this.rows = rows;
+        this.cols = cols;
+        List<StandardSymbolsProb> standard = base.probabilities.standard_symbols;
+        this.standardTables = standard.size();
+        this.baseWeights = new int[standardTables + 1][];
+        for (int t = 0; t < standardTables; t++) {
+            baseWeights[t] = weights(standard.get(t).symbols);
+        }
+        baseWeights[standardTables] = weights(base.probabilities.bonus_symbols.symbols);
+
+        this.cellTable = new int[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                cellTable[r * cols + c] = tableForCell(standard, r, c);
+            }
+        }
+
+        List<Integer> dimensions = new ArrayList<>();
+        for (int ordinal = 0; ordinal < dictionary.size(); ordinal++) {
+            int[] tables = dictionary.isStandard(ordinal) ? range(0, standardTables) : new int[] {standardTables};
+            for (int t : tables) {
+                if (baseWeights[t][ordinal] > 0) {
+                    dimensions.add(ordinal);
+                    break;
+                }
+            }
+        }
+        this.dimensionSymbol = new int[dimensions.size()];
+        for (int i = 0; i < dimensionSymbol.length; i++) {
+            dimensionSymbol[i] = dimensions.get(i);
+        }
+    }
+
+    int dimensions() {
+        return dimensionSymbol.length;
+    }
+
+    int tableCount() {
+        return standardTables + 1;
+    }
+
+    int bonusTable() {
+        return standardTables;
+    }
+
+    int[] cellTables() {
+        return cellTable;
+    }
+
+    SymbolDictionary dictionary() {
+        return dictionary;
+    }
+
+    String dimensionName(int dimension) {
+        return dictionary.name(dimensionSymbol[dimension]);
+    }
+
+    /**
+     * Integer weights by table and ordinal for a point of the space; the origin reproduces the
+     * base proportions.
+     */
+    int[][] weights(double[] point) {
+        double[] factor = new double[dictionary.size()];
+        Arrays.fill(factor, 1.0);
+        for (int i = 0; i < dimensionSymbol.length; i++) {
+            factor[dimensionSymbol[i]] = Math.exp(point[i]);
+        }
+        int[][] weights = new int[baseWeights.length][];
+        for (int t = 0; t < baseWeights.length; t++) {
+            double total = 0;
+            for (int ordinal = 0; ordinal < factor.length; ordinal++) {
+                total += baseWeights[t][ordinal] * factor[ordinal];
+            }
+            weights[t] = new int[factor.length];
+            for (int ordinal = 0; ordinal < factor.length; ordinal++) {
+                if (baseWeights[t][ordinal] > 0) {
+                    double scaled = TABLE_TOTAL * baseWeights[t][ordinal] * factor[ordinal] / total;
+                    weights[t][ordinal] = (int) Math.max(1, Math.round(scaled));
+                }
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Deep copy of the base config with the given weights.
+     */
+    Config toConfig(int[][] weights) {
+        Config config = MAPPER.convertValue(base, Config.class);
+        config.rows = rows;
+        config.columns = cols;
+        List<StandardSymbolsProb> standard = config.probabilities.standard_symbols;
+        for (int t = 0; t < standardTables; t++) {
+            standard.get(t).symbols = toMap(standard.get(t).symbols, weights[t]);
+        }
+        config.probabilities.bonus_symbols.symbols = toMap(config.probabilities.bonus_symbols.symbols, weights[standardTables]);
+        return config;
+    }
+
+    private Map<String, Integer> toMap(Map<String, Integer> original, int[] weights) {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (String symbol : original.keySet()) {
+            map.put(symbol, weights[dictionary.ordinal(symbol)]);
+        }
+        return map;
+    }
+
+    private int[] weights(Map<String, Integer> symbols) {
+        int[] weights = new int[dictionary.size()];
+        for (Map.Entry<String, Integer> e : symbols.entrySet()) {
+            int ordinal = dictionary.ordinal(e.getKey());
+            if (ordinal == SymbolDictionary.UNKNOWN || e.getValue() == null) {
+                throw new IllegalArgumentException("Cannot optimize weight of '" + e.getKey() + "'");
+            }
+            weights[ordinal] = e.getValue();
+        }
+        return weights;
+    }
+
+    private static int tableForCell(List<StandardSymbolsProb> standard, int row, int col) {
+        for (int t = 0; t < standard.size(); t++) {
+            if (standard.get(t).row == row && standard.get(t).column == col) {
+                return t;
+            }
+        }
+        return 0;
+    }
+
+    private static int[] range(int from, int to) {
+        int[] range = new int[to - from];
+        for (int i = 0; i < range.length; i++) {
+            range[i] = from + i;
+        }
+        return range;
+    }
+}
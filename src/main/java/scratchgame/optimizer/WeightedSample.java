@@ -0,0 +1,125 @@
+package scratchgame.optimizer;
+
+import scratchgame.model.TicketBatch;
+
+/**
+ * Grids generated and scored once under one set of weights, reused to estimate RTP, hit rate
+ * and volatility under other weights by likelihood-ratio reweighting: each grid counts with
+ * P'(grid) / P(grid), the product over its cells of how much more or less likely the new
+ * weights make that cell's symbol. Evaluating a candidate therefore costs one table lookup
+ * per cell and no generation or scoring. The further a candidate moves from the sampled
+ * weights, the fewer grids carry the weight; {@link Estimate#effectiveSampleSize} tracks that.
+ * Immutable once built, so candidates can be evaluated from many threads.
+ */
+public final class WeightedSample {
+
+    private final WeightSpace space;
+    private final int[][] weights;
+    private final int bet;
+    private final int rounds;
+    private final int cellCount;
+    private final byte[] cells;
+    private final long[] rewards;
+
+    WeightedSample(WeightSpace space, int[][] weights, TicketBatch batch, int bet) {
+        this.space = space;
+        this.weights = weights;
+        this.bet = bet;
+        this.rounds = batch.size();
+        this.cellCount = batch.cellCount();
+        this.cells = batch.cells();
+        this.rewards = batch.rewards();
+    }
+
+    /**
+     * Weights the sample was generated with.
+     */
+    int[][] weights() {
+        return weights;
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    /**
+     * Estimates the payout statistics under the candidate weights.
+     */
+    Estimate estimate(int[][] candidate) {
+        int dictionarySize = space.dictionary().size();
+        int standardCount = space.dictionary().standardCount();
+        double[] logRatio = new double[space.tableCount() * dictionarySize];
+        for (int t = 0; t < space.tableCount(); t++) {
+            double baseTotal = total(weights[t]);
+            double candidateTotal = total(candidate[t]);
+            for (int ordinal = 0; ordinal < dictionarySize; ordinal++) {
+                if (weights[t][ordinal] > 0) {
+                    logRatio[t * dictionarySize + ordinal] = Math.log(candidate[t][ordinal] / candidateTotal)
+                            - Math.log(weights[t][ordinal] / baseTotal);
+                }
+            }
+        }
+        int[] standardOffset = new int[cellCount];
+        for (int c = 0; c < cellCount; c++) {
+            standardOffset[c] = space.cellTables()[c] * dictionarySize;
+        }
+        int bonusOffset = space.bonusTable() * dictionarySize;
+
+        double sumWeights = 0;
+        double sumSquaredWeights = 0;
+        double sumPayout = 0;
+        double sumSquaredPayout = 0;
+        double sumHits = 0;
+        for (int i = 0, base = 0; i < rounds; i++, base += cellCount) {
+            double log = 0;
+            for (int c = 0; c < cellCount; c++) {
+                int ordinal = cells[base + c];
+                log += logRatio[(ordinal < standardCount ? standardOffset[c] : bonusOffset) + ordinal];
+            }
+            double w = Math.exp(log);
+            sumWeights += w;
+            sumSquaredWeights += w * w;
+            long reward = rewards[i];
+            if (reward > 0) {
+                double payout = (double) reward / bet;
+                sumPayout += w * payout;
+                sumSquaredPayout += w * payout * payout;
+                sumHits += w;
+            }
+        }
+
+        Estimate estimate = new Estimate();
+        estimate.rtp = sumPayout / sumWeights;
+        estimate.hitRate = sumHits / sumWeights;
+        estimate.volatility = Math.sqrt(Math.max(0, sumSquaredPayout / sumWeights - estimate.rtp * estimate.rtp));
+        estimate.effectiveSampleSize = sumWeights * sumWeights / sumSquaredWeights / rounds;
+        estimate.rtpConfidence95 = 1.96 * estimate.volatility / Math.sqrt(estimate.effectiveSampleSize * rounds);
+        return estimate;
+    }
+
+    private static double total(int[] weights) {
+        double total = 0;
+        for (int w : weights) {
+            total += w;
+        }
+        return total;
+    }
+
+    /**
+     * Payout statistics for one set of weights, as fractions of the bet.
+     */
+    public static class Estimate {
+        public double rtp;
+        public double hitRate;
+        // Standard deviation of payout / bet
+        public double volatility;
+        // Fraction of the sample that effectively supports the estimate, 1 at the sampled weights
+        public double effectiveSampleSize;
+        public double rtpConfidence95;
+
+        public String format() {
+            return String.format("RTP %.3f%% +/- %.3f%%, hit rate %.2f%%, volatility %.3f",
+                    100 * rtp, 100 * rtpConfidence95, 100 * hitRate, volatility);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package scratchgame.pipeline;
+
+import scratchgame.audit.AuditLog;
+import scratchgame.model.Grid;
+import scratchgame.model.TicketBatch;
+import scratchgame.random.SeededRandomSource;
+
+/**
+ * Records every ticket of a pipeline run in an {@link AuditLog}. Each record carries the ticket's
+ * own derived seed, so {@code --replay} regenerates it like any audited round.
+ */
+public final class AuditSink implements TicketSink {
+
+    private final AuditLog log;
+    private final String configHash;
+    private final int bet;
+    private final long seed;
+    private Grid grid;
+
+    /**
+     * @param seed seed of the pipeline run
+     */
+    public AuditSink(AuditLog log, String configHash, int bet, long seed) {
+        this.log = log;
+        this.configHash = configHash;
+        this.bet = bet;
+        this.seed = seed;
+    }
+
+    @Override
+    public void accept(TicketBatch batch) {
+        if (grid == null) {
+            grid = new Grid(batch.rows(), batch.cols());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            long ticketSeed = SeededRandomSource.derive(seed, batch.firstTicket() + i);
+            log.append(ticketSeed, configHash, bet, batch.grid(i, grid), batch.reward(i));
+        }
+    }
+}
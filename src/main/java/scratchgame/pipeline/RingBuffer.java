@@ -0,0 +1,147 @@
+package scratchgame.pipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free multi-producer, multi-consumer queue over a power-of-two array.
+ * <p>
+ * Every slot carries a sequence number that tells producers and consumers whose turn it is, so
+ * a slot is claimed with one CAS on the tail or head and published with an ordered write of
+ * its sequence; nothing allocates after construction. {@link #put} waits while the buffer is
+ * full and {@link #take} while it is empty, spinning briefly before parking, which is how a
+ * slow stage pushes back on the stages feeding it.
+ */
+final class RingBuffer<T> {
+
+    private static final int SPINS = 64;
+    private static final int YIELDS = 64;
+    private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile boolean closed;
+
+    RingBuffer(int minCapacity) {
+        if (minCapacity <= 0 || minCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + minCapacity);
+        }
+        int capacity = Integer.highestOneBit(minCapacity);
+        if (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        this.items = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return items.length;
+    }
+
+    /**
+     * Adds the item unless the buffer is full.
+     */
+    boolean offer(T item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest item, or returns null if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T item = (T) items[index];
+                    items[index] = null;
+                    sequences.lazySet(index, position + mask + 1);
+                    return item;
+                }
+                position = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Adds the item, waiting while the buffer is full. Returns false, dropping the item, if the
+     * buffer is closed.
+     */
+    boolean put(T item) {
+        for (int idle = 0; !closed; idle++) {
+            if (offer(item)) {
+                return true;
+            }
+            idle(idle);
+        }
+        return false;
+    }
+
+    /**
+     * Removes the oldest item, waiting while the buffer is empty. Returns null once the buffer is
+     * closed and drained.
+     */
+    T take() {
+        for (int idle = 0; ; idle++) {
+            T item = poll();
+            if (item != null) {
+                return item;
+            }
+            if (closed) {
+                // An item offered just before the close is still taken
+                return poll();
+            }
+            idle(idle);
+        }
+    }
+
+    /**
+     * Wakes every waiting put and take; items already in the buffer can still be taken.
+     */
+    void close() {
+        closed = true;
+    }
+
+    private static void idle(int idle) {
+        if (idle < SPINS) {
+            return;
+        }
+        if (idle < SPINS + YIELDS) {
+            Thread.yield();
+            return;
+        }
+        LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(idle - SPINS - YIELDS, 9)));
+    }
+}
@@ -0,0 +1,74 @@
+package scratchgame.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of one pipeline stage, summed over its threads and over every run of the pipeline.
+ * Busy time is spent on the stage's own work; wait time is spent waiting for input, or for a
+ * free batch when a later stage holds them all (backpressure).
+ */
+public final class StageStats {
+
+    private final String name;
+    private final int threads;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong tickets = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    StageStats(String name, int threads) {
+        this.name = name;
+        this.threads = threads;
+    }
+
+    void record(int batchTickets, long busy, long wait) {
+        batches.incrementAndGet();
+        tickets.addAndGet(batchTickets);
+        busyNanos.addAndGet(busy);
+        waitNanos.addAndGet(wait);
+    }
+
+    void addWait(long wait) {
+        waitNanos.addAndGet(wait);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    public long batches() {
+        return batches.get();
+    }
+
+    public long tickets() {
+        return tickets.get();
+    }
+
+    public long busyNanos() {
+        return busyNanos.get();
+    }
+
+    public long waitNanos() {
+        return waitNanos.get();
+    }
+
+    /**
+     * Tickets per second the stage handles with all its threads busy: what it could sustain
+     * if it never waited. The stage with the lowest capacity is the bottleneck.
+     */
+    public double capacity() {
+        long busy = busyNanos.get();
+        return busy == 0 ? 0 : tickets.get() * 1e9 * threads / busy;
+    }
+
+    /**
+     * Share of the stage's thread time spent busy over a run of the given length.
+     */
+    public double utilization(long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : (double) busyNanos.get() / ((double) elapsedNanos * threads);
+    }
+}
@@ -0,0 +1,343 @@
+package scratchgame.pipeline;
+
+import scratchgame.logic.BatchEvaluator;
+import scratchgame.logic.BatchGenerator;
+import scratchgame.model.TicketBatch;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Generates, scores and consumes a range of tickets in three overlapping stages:
+ * generator threads fill the grids of a batch, scorer threads score it with a
+ * {@link BatchEvaluator}, and the calling thread hands it to a {@link TicketSink}.
+ * <p>
+ * The stages are connected by {@link RingBuffer}s and share a fixed set of reusable batches
+ * (the depth). A generator needs a free batch to start, and batches only become free again
+ * once the sink has consumed them, so a slow sink stalls generation instead of growing memory.
+ * Batches may finish out of order when a stage has several threads; the sink stage restores
+ * ticket order, so the output depends only on the seed, as with {@link BatchGenerator#fill}.
+ * <p>
+ * {@link StageStats} for each stage accumulate over all runs; {@link #report()} shows which
+ * stage limits throughput. Runs of one pipeline do not overlap.
+ */
+public final class TicketPipeline {
+
+    public static final int DEFAULT_BATCH_SIZE = 8192;
+
+    private final BatchGenerator generator;
+    private final int generators;
+    private final int scorers;
+    private final int batchSize;
+    private final TicketBatch[] batches;
+    private final StageStats generateStats;
+    private final StageStats scoreStats;
+    private final StageStats sinkStats;
+    private long elapsedNanos;
+
+    public TicketPipeline(BatchGenerator generator, int generators, int scorers) {
+        this(generator, generators, scorers, DEFAULT_BATCH_SIZE, defaultDepth(generators, scorers));
+    }
+
+    /**
+     * @param depth number of batches in flight across all stages
+     */
+    public TicketPipeline(BatchGenerator generator, int generators, int scorers, int batchSize, int depth) {
+        if (generators <= 0 || scorers <= 0) {
+            throw new IllegalArgumentException("Every stage needs at least one thread: "
+                    + generators + " generator(s), " + scorers + " scorer(s)");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (depth < 2) {
+            throw new IllegalArgumentException("Pipeline depth must be at least 2: " + depth);
+        }
+        this.generator = generator;
+        this.generators = generators;
+        this.scorers = scorers;
+        this.batchSize = batchSize;
+        this.batches = new TicketBatch[depth];
+        for (int i = 0; i < depth; i++) {
+            batches[i] = generator.newBatch(batchSize);
+        }
+        this.generateStats = new StageStats("generate", generators);
+        this.scoreStats = new StageStats("score", scorers);
+        this.sinkStats = new StageStats("sink", 1);
+    }
+
+    /**
+     * Enough batches for every thread to hold one and one more to be queued behind each.
+     */
+    public static int defaultDepth(int generators, int scorers) {
+        return 2 * (generators + scorers + 1);
+    }
+
+    /**
+     * Parses "generators:scorers", for example "2:1".
+     */
+    public static int[] parseParallelism(String value) {
+        String[] parts = value.split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected <generators>:<scorers>, got '" + value + "'");
+        }
+        return new int[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
+    }
+
+    /**
+     * Passes tickets [first, end) of the run seeded by seed to the sink in ticket order, and
+     * returns once the sink has consumed the last one. A failure in any stage stops the others
+     * and is rethrown here.
+     */
+    public synchronized void run(long first, long end, long seed, TicketSink sink) throws IOException {
+        if (first < 0 || end < first) {
+            throw new IllegalArgumentException("Invalid ticket range [" + first + ", " + end + ")");
+        }
+        long start = System.nanoTime();
+        Run run = new Run(first, end, seed);
+        Thread[] threads = new Thread[generators + scorers];
+        for (int i = 0; i < generators; i++) {
+            threads[i] = new Thread(run::generate, "pipeline-generate-" + i);
+        }
+        for (int i = 0; i < scorers; i++) {
+            threads[generators + i] = new Thread(run::score, "pipeline-score-" + i);
+        }
+        int started = 0;
+        try {
+            for (Thread thread : threads) {
+                thread.setDaemon(true);
+                thread.start();
+                started++;
+            }
+            run.consume(sink);
+        } catch (Throwable t) {
+            run.fail(t);
+        } finally {
+            run.close();
+            joinAll(threads, started);
+            elapsedNanos += System.nanoTime() - start;
+        }
+        run.rethrow();
+    }
+
+    public BatchGenerator generator() {
+        return generator;
+    }
+
+    public List<StageStats> stages() {
+        return Arrays.asList(generateStats, scoreStats, sinkStats);
+    }
+
+    /**
+     * Wall time of all runs so far.
+     */
+    public synchronized long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * The stage with the lowest capacity, the one to give more threads or make faster.
+     */
+    public StageStats bottleneck() {
+        StageStats slowest = null;
+        for (StageStats stage : stages()) {
+            if (stage.tickets() > 0 && (slowest == null || stage.capacity() < slowest.capacity())) {
+                slowest = stage;
+            }
+        }
+        return slowest;
+    }
+
+    /**
+     * Per-stage throughput of all runs so far as a plain-text table.
+     */
+    public String report() {
+        long elapsed = elapsedNanos();
+        StringBuilder sb = new StringBuilder();
+        line(sb, "%-10s %7s %14s %16s %7s %7s", "Stage", "Threads", "Tickets", "Capacity/s", "Busy", "Waiting");
+        for (StageStats stage : stages()) {
+            double waiting = elapsed == 0 ? 0 : (double) stage.waitNanos() / ((double) elapsed * stage.threads());
+            line(sb, "%-10s %7d %,14d %,16.0f %6.1f%% %6.1f%%", stage.name(), stage.threads(), stage.tickets(),
+                    stage.capacity(), stage.utilization(elapsed) * 100, waiting * 100);
+        }
+        StageStats bottleneck = bottleneck();
+        if (bottleneck != null) {
+            line(sb, "Throughput: %,.0f tickets/s over %.2f s, bottleneck: %s",
+                    elapsed == 0 ? 0 : sinkStats.tickets() * 1e9 / elapsed, elapsed / 1e9, bottleneck.name());
+        }
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String format, Object... args) {
+        sb.append(String.format(Locale.ROOT, format, args)).append('\n');
+    }
+
+    private static void joinAll(Thread[] threads, int started) {
+        boolean interrupted = false;
+        for (int i = 0; i < started; i++) {
+            while (threads[i].isAlive()) {
+                try {
+                    threads[i].join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * State of one run: the rings, the next batch to claim and the first failure.
+     */
+    private final class Run {
+        private final long first;
+        private final long end;
+        private final long seed;
+        private final long batchCount;
+        private final RingBuffer<TicketBatch> free;
+        private final RingBuffer<TicketBatch> generated;
+        private final RingBuffer<TicketBatch> scored;
+        private final AtomicLong nextBatch = new AtomicLong();
+        private final AtomicInteger activeGenerators = new AtomicInteger(generators);
+        private final AtomicInteger activeScorers = new AtomicInteger(scorers);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Run(long first, long end, long seed) {
+            this.first = first;
+            this.end = end;
+            this.seed = seed;
+            this.batchCount = (end - first + batchSize - 1) / batchSize;
+            // Each ring can hold every batch, so put never waits; backpressure comes from the free ring
+            this.free = new RingBuffer<>(batches.length);
+            this.generated = new RingBuffer<>(batches.length);
+            this.scored = new RingBuffer<>(batches.length);
+            for (TicketBatch batch : batches) {
+                free.offer(batch);
+            }
+        }
+
+        void generate() {
+            try {
+                while (failure.get() == null && nextBatch.get() < batchCount) {
+                    long waitStart = System.nanoTime();
+                    TicketBatch batch = free.take();
+                    long start = System.nanoTime();
+                    if (batch == null) {
+                        generateStats.addWait(start - waitStart);
+                        break;
+                    }
+                    long index = nextBatch.getAndIncrement();
+                    if (index >= batchCount) {
+                        free.offer(batch);
+                        generateStats.addWait(start - waitStart);
+                        break;
+                    }
+                    long ticket = first + index * batchSize;
+                    int count = (int) Math.min(batchSize, end - ticket);
+                    generator.generate(batch, ticket, count, seed);
+                    generated.put(batch);
+                    generateStats.record(count, System.nanoTime() - start, start - waitStart);
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                if (activeGenerators.decrementAndGet() == 0) {
+                    generated.close();
+                }
+            }
+        }
+
+        void score() {
+            try {
+                BatchEvaluator evaluator = new BatchEvaluator(generator.combinations());
+                while (true) {
+                    long waitStart = System.nanoTime();
+                    TicketBatch batch = generated.take();
+                    long start = System.nanoTime();
+                    if (batch == null) {
+                        scoreStats.addWait(start - waitStart);
+                        break;
+                    }
+                    generator.score(batch, evaluator);
+                    scored.put(batch);
+                    scoreStats.record(batch.size(), System.nanoTime() - start, start - waitStart);
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                if (activeScorers.decrementAndGet() == 0) {
+                    scored.close();
+                }
+            }
+        }
+
+        /**
+         * Sink stage, on the calling thread. In-flight batches always have indexes within
+         * [expected, expected + depth), so each one has its own reorder slot.
+         */
+        void consume(TicketSink sink) throws IOException {
+            TicketBatch[] pending = new TicketBatch[batches.length];
+            long expected = 0;
+            while (expected < batchCount && failure.get() == null) {
+                long waitStart = System.nanoTime();
+                TicketBatch batch = scored.take();
+                long waited = System.nanoTime() - waitStart;
+                if (batch == null) {
+                    sinkStats.addWait(waited);
+                    break;
+                }
+                pending[slot((batch.firstTicket() - first) / batchSize)] = batch;
+                TicketBatch ready;
+                while (expected < batchCount && (ready = pending[slot(expected)]) != null) {
+                    pending[slot(expected)] = null;
+                    long start = System.nanoTime();
+                    sink.accept(ready);
+                    free.put(ready);
+                    sinkStats.record(ready.size(), System.nanoTime() - start, waited);
+                    waited = 0;
+                    expected++;
+                }
+                sinkStats.addWait(waited);
+            }
+        }
+
+        private int slot(long index) {
+            return (int) (index % batches.length);
+        }
+
+        void fail(Throwable t) {
+            failure.compareAndSet(null, t);
+            close();
+        }
+
+        void close() {
+            free.close();
+            generated.close();
+            scored.close();
+        }
+
+        void rethrow() throws IOException {
+            Throwable t = failure.get();
+            if (t == null) {
+                return;
+            }
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw new IllegalStateException("Ticket pipeline failed", t);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package scratchgame.pipeline;
+
+import scratchgame.model.TicketBatch;
+
+import java.io.IOException;
+
+/**
+ * Last stage of a {@link TicketPipeline}. Receives scored batches on one thread, in ticket order;
+ * the batch is reused once the call returns.
+ */
+public interface TicketSink {
+
+    void accept(TicketBatch batch) throws IOException;
+}
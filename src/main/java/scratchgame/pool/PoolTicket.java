@@ -0,0 +1,15 @@
+package scratchgame.pool;
+
+import scratchgame.model.Grid;
+
+/**
+ * One ticket issued from a {@link TicketPool}.
+ */
+public class PoolTicket {
+    // Position in the issuance sequence, starting at 0
+    public int serial;
+    public long payout;
+    // Candidate index the grid was generated from; regenerate it with the pool's seed to audit
+    public long sourceTicket;
+    public Grid grid;
+}
@@ -0,0 +1,142 @@
+package scratchgame.pool;
+
+import scratchgame.simulation.ExactResult;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exact prize structure of a ticket pool: how many tickets pay each amount. Losing tickets
+ * are the bucket with payout 0. Buckets are kept in ascending payout order.
+ */
+public final class PrizeTable {
+
+    private final long[] payouts;
+    private final int[] counts;
+    private final int total;
+
+    private PrizeTable(long[] payouts, int[] counts, int total) {
+        this.payouts = payouts;
+        this.counts = counts;
+        this.total = total;
+    }
+
+    /**
+     * Builds a table from payout -> ticket count; zero counts are dropped.
+     */
+    public static PrizeTable of(Map<Long, ? extends Number> ticketsByPayout) {
+        TreeMap<Long, Long> sorted = new TreeMap<>();
+        for (Map.Entry<Long, ? extends Number> e : ticketsByPayout.entrySet()) {
+            long count = e.getValue().longValue();
+            if (e.getKey() < 0 || count < 0) {
+                throw new IllegalArgumentException("Invalid prize table entry " + e.getKey() + ":" + count);
+            }
+            if (count > 0) {
+                sorted.put(e.getKey(), count);
+            }
+        }
+        long total = 0;
+        long[] payouts = new long[sorted.size()];
+        int[] counts = new int[sorted.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> e : sorted.entrySet()) {
+            payouts[i] = e.getKey();
+            counts[i] = (int) Math.min(e.getValue(), Integer.MAX_VALUE);
+            total += e.getValue();
+            i++;
+        }
+        if (total == 0 || total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Prize table must hold 1.." + Integer.MAX_VALUE + " tickets, got " + total);
+        }
+        return new PrizeTable(payouts, counts, (int) total);
+    }
+
+    /**
+     * Parses {@code payout:count} pairs separated by commas, e.g. {@code 0:9000,100:800,1000:200}.
+     */
+    public static PrizeTable parse(String spec) {
+        Map<Long, Long> entries = new TreeMap<>();
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected payout:count, got '" + pair + "'");
+            }
+            try {
+                entries.merge(Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim()), Long::sum);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected payout:count, got '" + pair + "'");
+            }
+        }
+        return of(entries);
+    }
+
+    /**
+     * Scales an exact payout distribution to a pool of the given size. Counts are rounded with
+     * the largest remainder method, so they sum to exactly poolSize; payouts too rare for the
+     * pool size may get no tickets.
+     */
+    public static PrizeTable fromDistribution(ExactResult exact, int poolSize) {
+        Map<Long, Double> distribution = exact.distribution();
+        long[] payouts = new long[distribution.size()];
+        long[] counts = new long[payouts.length];
+        double[] remainders = new double[payouts.length];
+        long assigned = 0;
+        int i = 0;
+        for (Map.Entry<Long, Double> e : distribution.entrySet()) {
+            double expected = e.getValue() * poolSize;
+            payouts[i] = e.getKey();
+            counts[i] = (long) Math.floor(expected);
+            remainders[i] = expected - counts[i];
+            assigned += counts[i];
+            i++;
+        }
+        Integer[] byRemainder = new Integer[payouts.length];
+        for (int j = 0; j < byRemainder.length; j++) {
+            byRemainder[j] = j;
+        }
+        Arrays.sort(byRemainder, (a, b) -> Double.compare(remainders[b], remainders[a]));
+        for (int j = 0; assigned < poolSize && j < byRemainder.length; j++, assigned++) {
+            counts[byRemainder[j]]++;
+        }
+        Map<Long, Long> table = new TreeMap<>();
+        for (int j = 0; j < payouts.length; j++) {
+            table.put(payouts[j], counts[j]);
+        }
+        return of(table);
+    }
+
+    public int bucketCount() {
+        return payouts.length;
+    }
+
+    public long payout(int bucket) {
+        return payouts[bucket];
+    }
+
+    public int count(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Bucket of the payout, or a negative value if the table has no such payout.
+     */
+    public int bucketOf(long payout) {
+        return Arrays.binarySearch(payouts, payout);
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Return to player of the whole pool for the given bet per ticket.
+     */
+    public double rtp(int bet) {
+        double paid = 0;
+        for (int i = 0; i < payouts.length; i++) {
+            paid += (double) payouts[i] * counts[i];
+        }
+        return paid / ((double) total * bet);
+    }
+}
@@ -0,0 +1,91 @@
+package scratchgame.pool;
+
+import scratchgame.model.Grid;
+import scratchgame.model.SymbolDictionary;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-generated tickets with an exact prize structure, issued in a fixed shuffled order.
+ * <p>
+ * Grids are stored in one byte array grouped by payout bucket; the issuance sequence is a
+ * permutation of the slots. Issuing a ticket is an atomic increment plus an array read, safe
+ * from any number of threads, with no generation or scoring on the request path.
+ */
+public final class TicketPool {
+
+    private final int rows;
+    private final int cols;
+    private final int cellCount;
+    private final SymbolDictionary dictionary;
+    private final PrizeTable prizes;
+    private final long seed;
+
+    private final byte[] cells;
+    private final long[] sourceTickets;
+    private final int[] slotBucket;
+    private final int[] order;
+    private final AtomicInteger next = new AtomicInteger();
+
+    TicketPool(int rows, int cols, SymbolDictionary dictionary, PrizeTable prizes, long seed,
+               byte[] cells, long[] sourceTickets, int[] slotBucket, int[] order) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cellCount = rows * cols;
+        this.dictionary = dictionary;
+        this.prizes = prizes;
+        this.seed = seed;
+        this.cells = cells;
+        this.sourceTickets = sourceTickets;
+        this.slotBucket = slotBucket;
+        this.order = order;
+    }
+
+    /**
+     * Issues the next ticket of the sequence, or returns null once the pool is exhausted.
+     */
+    public PoolTicket issue() {
+        if (next.get() >= order.length) {
+            return null;
+        }
+        int serial = next.getAndIncrement();
+        if (serial >= order.length) {
+            return null;
+        }
+        int slot = order[serial];
+        Grid grid = new Grid(rows, cols);
+        System.arraycopy(cells, slot * cellCount, grid.cells(), 0, cellCount);
+
+        PoolTicket ticket = new PoolTicket();
+        ticket.serial = serial;
+        ticket.payout = prizes.payout(slotBucket[slot]);
+        ticket.sourceTicket = sourceTickets[slot];
+        ticket.grid = grid;
+        return ticket;
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    public int issued() {
+        return Math.min(next.get(), order.length);
+    }
+
+    public int remaining() {
+        return order.length - issued();
+    }
+
+    public PrizeTable prizes() {
+        return prizes;
+    }
+
+    /** Seed the candidates and the issuance shuffle were derived from. */
+    public long seed() {
+        return seed;
+    }
+
+    public SymbolDictionary dictionary() {
+        return dictionary;
+    }
+}
@@ -0,0 +1,125 @@
+package scratchgame.pool;
+
+import scratchgame.logic.BatchGenerator;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.model.TicketBatch;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SeededRandomSource;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds a {@link TicketPool} that matches a {@link PrizeTable} exactly.
+ * <p>
+ * Candidate tickets are generated and scored in batches, each candidate seeded by (seed, index)
+ * as in {@link BatchGenerator}. A candidate is kept when its payout bucket still needs tickets
+ * and is discarded otherwise. Generation stops when every bucket is full. The kept tickets are
+ * then shuffled into the issuance order with a generator derived from the same seed, so a pool
+ * is reproducible from its seed and prize table.
+ */
+public final class TicketPoolBuilder {
+
+    private static final int BATCH_SIZE = 1 << 14;
+    // Index of the shuffle stream; candidate streams use indexes from 0 upwards
+    private static final long SHUFFLE_STREAM = -1L;
+
+    private final GenerationPlan plan;
+    private final CompiledWinCombinations combinations;
+    private final BatchGenerator generator;
+
+    public TicketPoolBuilder(GenerationPlan plan, CompiledWinCombinations combinations, int bet) {
+        this.plan = plan;
+        this.combinations = combinations;
+        this.generator = new BatchGenerator(plan, combinations, bet);
+    }
+
+    /**
+     * Generates candidates until the pool matches the prize table.
+     *
+     * @param maxCandidates upper bound on generated candidates
+     * @param pool          pool used to generate batches in parallel, or null for the calling thread
+     * @throws IllegalStateException if some bucket is still short after maxCandidates candidates
+     */
+    public TicketPool build(PrizeTable prizes, long seed, long maxCandidates, ForkJoinPool pool) {
+        int cellCount = plan.rows() * plan.cols();
+        int size = prizes.total();
+        if ((long) size * cellCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Pool of " + size + " tickets is too large for a "
+                    + plan.rows() + "x" + plan.cols() + " grid");
+        }
+        byte[] cells = new byte[size * cellCount];
+        long[] sourceTickets = new long[size];
+        int[] slotBucket = new int[size];
+
+        // Bucket b owns slots [start[b], start[b] + count(b)); filled[b] of them are used
+        int buckets = prizes.bucketCount();
+        int[] start = new int[buckets];
+        int[] filled = new int[buckets];
+        for (int b = 1; b < buckets; b++) {
+            start[b] = start[b - 1] + prizes.count(b - 1);
+        }
+
+        TicketBatch batch = generator.newBatch(BATCH_SIZE);
+        int missing = size;
+        long candidate = 0;
+        while (missing > 0) {
+            if (candidate >= maxCandidates) {
+                throw new IllegalStateException("Prize table not reached after " + candidate + " candidates: "
+                        + shortfall(prizes, filled));
+            }
+            int count = (int) Math.min(BATCH_SIZE, maxCandidates - candidate);
+            if (pool == null) {
+                generator.fill(batch, candidate, count, seed);
+            } else {
+                generator.fill(batch, candidate, count, seed, pool);
+            }
+            byte[] batchCells = batch.cells();
+            long[] rewards = batch.rewards();
+            for (int i = 0; i < count && missing > 0; i++) {
+                int b = prizes.bucketOf(rewards[i]);
+                if (b < 0 || filled[b] == prizes.count(b)) {
+                    continue;
+                }
+                int slot = start[b] + filled[b]++;
+                System.arraycopy(batchCells, i * cellCount, cells, slot * cellCount, cellCount);
+                sourceTickets[slot] = candidate + i;
+                slotBucket[slot] = b;
+                missing--;
+            }
+            candidate += count;
+        }
+
+        return new TicketPool(plan.rows(), plan.cols(), combinations.dictionary(), prizes, seed,
+                cells, sourceTickets, slotBucket, shuffledOrder(size, seed));
+    }
+
+    /**
+     * Fisher-Yates permutation of [0, size).
+     */
+    static int[] shuffledOrder(int size, long seed) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        SeededRandomSource rand = RandomSource.seeded(SeededRandomSource.derive(seed, SHUFFLE_STREAM));
+        for (int i = size - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    private static String shortfall(PrizeTable prizes, int[] filled) {
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < prizes.bucketCount(); b++) {
+            if (filled[b] < prizes.count(b)) {
+                sb.append(sb.length() == 0 ? "" : ", ").append("payout ").append(prizes.payout(b))
+                        .append(" has ").append(filled[b]).append('/').append(prizes.count(b));
+            }
+        }
+        return sb.toString();
+    }
+}
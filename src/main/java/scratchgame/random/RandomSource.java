@@ -0,0 +1,36 @@
+package scratchgame.random;
+
+/**
+ * Source of uniform random values used by generation.
+ * Implementations are not required to be thread-safe unless stated otherwise.
+ */
+public interface RandomSource {
+
+    /**
+     * Returns a uniform value in [0, bound). The bound must be positive.
+     */
+    int nextInt(int bound);
+
+    long nextLong();
+
+    /**
+     * Shared, thread-safe source backed by {@link java.util.concurrent.ThreadLocalRandom}.
+     */
+    static RandomSource threadLocal() {
+        return ThreadLocalRandomSource.INSTANCE;
+    }
+
+    /**
+     * Fast seeded stream that can be split for parallel workers.
+     */
+    static SplittableRandomSource splittable(long seed) {
+        return new SplittableRandomSource(seed);
+    }
+
+    /**
+     * Deterministic stream whose output depends only on the seed, for replaying rounds.
+     */
+    static SeededRandomSource seeded(long seed) {
+        return new SeededRandomSource(seed);
+    }
+}
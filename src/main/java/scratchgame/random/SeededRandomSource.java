@@ -0,0 +1,65 @@
+package scratchgame.random;
+
+/**
+ * SplitMix64 stream. The sequence is fully defined here, so a seed replays the same
+ * rounds on any JVM version.
+ */
+public final class SeededRandomSource implements RandomSource {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long seed;
+    private long state;
+
+    SeededRandomSource(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * Derives an independent seed for the index-th sub-stream (chunk, ticket, ...) of a run.
+     */
+    public static long derive(long seed, long index) {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Restarts the stream from a new seed without allocating.
+     */
+    public void reseed(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        int r = (int) (nextLong() >>> 33);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        // Reject values from the incomplete last range to stay unbiased
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+            // retry
+        }
+        return r;
+    }
+}
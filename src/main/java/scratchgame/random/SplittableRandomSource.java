@@ -0,0 +1,33 @@
+package scratchgame.random;
+
+import java.util.SplittableRandom;
+
+/**
+ * Wraps a {@link SplittableRandom}. Use {@link #split()} to hand each worker thread its own stream.
+ */
+public final class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    public SplittableRandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+}
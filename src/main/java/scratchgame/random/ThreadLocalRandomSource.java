@@ -0,0 +1,24 @@
+package scratchgame.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delegates to the calling thread's {@link ThreadLocalRandom}: no allocation and no shared state.
+ */
+final class ThreadLocalRandomSource implements RandomSource {
+
+    static final ThreadLocalRandomSource INSTANCE = new ThreadLocalRandomSource();
+
+    private ThreadLocalRandomSource() {
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
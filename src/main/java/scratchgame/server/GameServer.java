@@ -0,0 +1,168 @@
+package scratchgame.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import scratchgame.GameSession;
+import scratchgame.audit.AuditLog;
+import scratchgame.audit.AuditLogUnavailableException;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.model.RoundResult;
+import scratchgame.random.RandomSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Headless game service on the JDK HTTP server.
+ * <p>
+ * {@code GET|POST /play?bet=N} plays one round and returns a {@link RoundResult} as JSON;
+ * {@code GET /health} returns {@code ok}. Each request takes the current compiled
+ * {@link ConfigSnapshot} once and plays its whole round on it, so a config reload never affects
+ * a round in flight. Handlers run on virtual threads when the runtime has them (Java 21+)
+ * and on a bounded pool otherwise.
+ * <p>
+ * Small JSON responses wait on Nagle/delayed-ACK unless the JVM runs with
+ * {@code -Dsun.net.httpserver.nodelay=true}; the server mode of ScratchGame sets it at startup.
+ */
+public final class GameServer {
+
+    public static final int DEFAULT_BET = 100;
+    private static final int MAX_QUEUED_REQUESTS = 10_000;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Supplier<ConfigSnapshot> config;
+    private final AuditLog audit;
+    private final ObjectWriter writer;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public GameServer(Supplier<ConfigSnapshot> config, int port, int threads) throws IOException {
+        this(config, port, threads, null);
+    }
+
+    /**
+     * Server that records every round in the audit log, if one is given.
+     */
+    public GameServer(Supplier<ConfigSnapshot> config, int port, int threads, AuditLog audit) throws IOException {
+        this.config = config;
+        this.audit = audit;
+        this.writer = MAPPER.writerFor(RoundResult.class);
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = newExecutor(threads);
+        server.setExecutor(executor);
+        server.createContext("/play", this::handlePlay);
+        server.createContext("/health", exchange -> respond(exchange, 200, "text/plain", "ok".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /** Bound port; useful when started on port 0. */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** True when requests run on virtual threads. */
+    public boolean virtualThreads() {
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+
+    private void handlePlay(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            while (body.read() >= 0) {
+                // drain the request so the connection can be reused
+            }
+        }
+        String method = exchange.getRequestMethod();
+        if (!"GET".equals(method) && !"POST".equals(method)) {
+            respondError(exchange, 405, "Method not allowed");
+            return;
+        }
+        int bet;
+        try {
+            bet = parseBet(exchange.getRequestURI().getRawQuery());
+        } catch (IllegalArgumentException e) {
+            respondError(exchange, 400, e.getMessage());
+            return;
+        }
+        RoundResult round;
+        try {
+            round = GameSession.play(config.get(), bet, RandomSource.threadLocal(), audit);
+        } catch (AuditLogUnavailableException e) {
+            // A round that cannot be recorded is not played
+            respondError(exchange, 503, "Audit log unavailable");
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("Round failed: " + e);
+            respondError(exchange, 500, "Internal server error");
+            return;
+        }
+        respond(exchange, 200, "application/json", writer.writeValueAsBytes(round));
+    }
+
+    static int parseBet(String query) {
+        if (query == null) {
+            return DEFAULT_BET;
+        }
+        for (String param : query.split("&")) {
+            if (param.startsWith("bet=")) {
+                int bet;
+                try {
+                    bet = Integer.parseInt(param.substring(4));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bet must be an integer");
+                }
+                if (bet <= 0) {
+                    throw new IllegalArgumentException("Bet must be positive");
+                }
+                return bet;
+            }
+        }
+        return DEFAULT_BET;
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = MAPPER.writeValueAsBytes(Collections.singletonMap("error", message));
+        respond(exchange, status, "application/json", body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Virtual-thread-per-task executor when available; the build targets Java 8, so it is looked up
+     * reflectively. Otherwise a fixed pool with a bounded queue that pushes back onto the accepting
+     * thread when full.
+     */
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAX_QUEUED_REQUESTS), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package scratchgame.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal closed-loop load generator for the game service.
+ * <p>
+ * Usage: {@code LoadTest <url> [connections] [seconds]}, e.g.
+ * {@code LoadTest http://localhost:8080/play?bet=100 32 10}. Each connection thread issues requests
+ * back to back over a keep-alive connection and the achieved rounds per second are printed.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoadTest <url> [connections] [seconds]");
+            return;
+        }
+        URL url = new URL(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            Thread thread = new Thread(() -> {
+                byte[] buffer = new byte[8192];
+                try {
+                    while (System.nanoTime() < deadline) {
+                        if (request(url, buffer)) {
+                            ok.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        System.out.printf("%d requests OK, %d failed, %.0f rounds/s%n", ok.get(), failed.get(), ok.get() / (double) seconds);
+    }
+
+    private static boolean request(URL url, byte[] buffer) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                while (in != null && in.read(buffer) >= 0) {
+                    // read fully so the connection returns to the keep-alive pool
+                }
+            }
+            return status == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
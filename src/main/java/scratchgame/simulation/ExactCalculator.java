@@ -0,0 +1,542 @@
+package scratchgame.simulation;
+
+import scratchgame.logic.BonusResolution;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.WeightTable;
+import scratchgame.model.SymbolDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Computes the exact payout distribution of a config by dynamic programming over the cells,
+ * instead of sampling. Cells are added in row-major order and rounds that can no longer be told
+ * apart by {@link scratchgame.logic.RewardCalculator} are merged into one state:
+ * <ul>
+ *     <li>symbol counts are capped where the best "same_symbols" combination stops changing,</li>
+ *     <li>a line only remembers which symbol can still fill it, and is dropped once complete,</li>
+ *     <li>with the default first-bonus resolution, bonus symbols after the first one and symbols
+ *     that never score share one outcome; other resolutions keep only what decides the bonus: the
+ *     best multiplier, best extra and whether a neutral bonus was seen for HIGHEST, and the
+ *     accumulated factor and addend for ALL and STACKED,</li>
+ *     <li>zero-weight outcomes are never expanded.</li>
+ * </ul>
+ * Each state is packed into a few {@code long} words, every field only as wide as its range, and
+ * kept in a {@link StateTable}. Final states are scored with the same combination and bonus rules
+ * as RewardCalculator.
+ */
+public final class ExactCalculator {
+
+    // Table slots per state with the current and next cell's tables live, one of them growing,
+    // plus headroom for the rest of the heap
+    private static final int SLOTS_PER_STATE = 8;
+
+    private static final byte UNSEEN = -2;
+    private static final byte DEAD = -1;
+    private static final byte NO_BONUS = -1;
+
+    private final GenerationPlan plan;
+    private final CompiledWinCombinations combinations;
+    private final long maxStates;
+
+    private final int standardCount;
+    private final int cap;
+    private final int lineCount;
+    private final int[] lineCombo;
+    private final int[] lineLastCell;
+    private final int[][] linesAtCell;
+    private final long emptyLineHits;
+    private final BonusResolution resolution;
+
+    // State layout: [counts: standardCount][lines: lineCount][bonus: bonusLength][line hits: 8 * standardCount]
+    // Bonus: FIRST the first bonus; HIGHEST best multiplier, best extra, neutral seen;
+    // ALL and STACKED factor and addend as raw double bits
+    private final int linesOffset;
+    private final int bonusOffset;
+    private final int hitsOffset;
+    private final int stateLength;
+
+    // Packed key: each state byte i is stored biased to be non-negative, fieldBits[i] wide, at
+    // fieldShift[i] of word fieldWord[i]; bytes with a single possible value take no bits
+    private final int[] fieldBias;
+    private final int[] fieldBits;
+    private final int[] fieldWord;
+    private final int[] fieldShift;
+    private final int keyWords;
+
+    /**
+     * Uses the largest state count whose tables fit in the maximum heap size.
+     */
+    public ExactCalculator(GenerationPlan plan, CompiledWinCombinations combinations) {
+        this(plan, combinations, 0);
+    }
+
+    /**
+     * @param maxStates most states kept after any cell, or 0 to derive the limit from the maximum heap size
+     */
+    public ExactCalculator(GenerationPlan plan, CompiledWinCombinations combinations, long maxStates) {
+        if (!plan.dictionary().equals(combinations.dictionary())) {
+            throw new IllegalArgumentException("Plan and win combinations use different symbol dictionaries");
+        }
+        this.plan = plan;
+        this.combinations = combinations;
+        this.standardCount = combinations.standardCount();
+        this.resolution = combinations.bonusResolution();
+
+        int cells = plan.rows() * plan.cols();
+        int stable = cells;
+        while (stable > 1 && combinations.sameComboForCount(stable - 1) == combinations.sameComboForCount(cells)) {
+            stable--;
+        }
+        this.cap = Math.max(stable, 1);
+        if (cap > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Same-symbol thresholds too large for exact evaluation: " + cap);
+        }
+
+        List<Integer> combos = new ArrayList<>();
+        List<int[]> lines = new ArrayList<>();
+        long empty = 0;
+        for (int i = 0; i < combinations.linearCount(); i++) {
+            for (int[] line : combinations.linearLines(i)) {
+                if (line.length == 0) {
+                    empty |= 1L << i;
+                } else {
+                    combos.add(i);
+                    lines.add(line);
+                }
+            }
+        }
+        this.emptyLineHits = empty;
+        this.lineCount = lines.size();
+        this.lineCombo = new int[lineCount];
+        this.lineLastCell = new int[lineCount];
+        List<List<Integer>> atCell = new ArrayList<>(cells);
+        for (int c = 0; c < cells; c++) {
+            atCell.add(new ArrayList<Integer>());
+        }
+        for (int l = 0; l < lineCount; l++) {
+            lineCombo[l] = combos.get(l);
+            int last = 0;
+            for (int cell : lines.get(l)) {
+                last = Math.max(last, cell);
+                if (!atCell.get(cell).contains(l)) {
+                    atCell.get(cell).add(l);
+                }
+            }
+            lineLastCell[l] = last;
+        }
+        this.linesAtCell = new int[cells][];
+        for (int c = 0; c < cells; c++) {
+            List<Integer> list = atCell.get(c);
+            linesAtCell[c] = new int[list.size()];
+            for (int j = 0; j < list.size(); j++) {
+                linesAtCell[c][j] = list.get(j);
+            }
+        }
+
+        this.linesOffset = standardCount;
+        this.bonusOffset = linesOffset + lineCount;
+        this.hitsOffset = bonusOffset + bonusLength(resolution);
+        this.stateLength = hitsOffset + 8 * standardCount;
+
+        this.fieldBias = new int[stateLength];
+        this.fieldBits = new int[stateLength];
+        for (int s = 0; s < standardCount; s++) {
+            fieldBits[s] = width(cap);
+        }
+        for (int l = 0; l < lineCount; l++) {
+            fieldBias[linesOffset + l] = -UNSEEN;
+            fieldBits[linesOffset + l] = width(standardCount - 1 - UNSEEN);
+        }
+        int symbols = plan.dictionary().size();
+        switch (resolution) {
+            case FIRST:
+                fieldBias[bonusOffset] = -NO_BONUS;
+                fieldBits[bonusOffset] = width(symbols - 1 - NO_BONUS);
+                break;
+            case HIGHEST:
+                for (int i = 0; i < 2; i++) {
+                    fieldBias[bonusOffset + i] = -NO_BONUS;
+                    fieldBits[bonusOffset + i] = width(symbols - 1 - NO_BONUS);
+                }
+                fieldBits[bonusOffset + 2] = 1;
+                break;
+            default:
+                Arrays.fill(fieldBits, bonusOffset, hitsOffset, 8);
+                break;
+        }
+        int linear = combinations.linearCount();
+        for (int s = 0; s < standardCount; s++) {
+            for (int b = 0; b < 8; b++) {
+                fieldBits[hitsOffset + s * 8 + b] = Math.max(0, Math.min(8, linear - 8 * b));
+            }
+        }
+        this.fieldWord = new int[stateLength];
+        this.fieldShift = new int[stateLength];
+        int word = 0;
+        int shift = 0;
+        for (int i = 0; i < stateLength; i++) {
+            if (shift + fieldBits[i] > 63) {
+                word++;
+                shift = 0;
+            }
+            fieldWord[i] = word;
+            fieldShift[i] = shift;
+            shift += fieldBits[i];
+        }
+        this.keyWords = word + 1;
+        this.maxStates = maxStates > 0 ? maxStates
+                : Runtime.getRuntime().maxMemory() / ((long) SLOTS_PER_STATE * StateTable.slotBytes(keyWords));
+    }
+
+    /**
+     * Most states kept after any cell before {@link #calculate} gives up.
+     */
+    public long maxStates() {
+        return maxStates;
+    }
+
+    /**
+     * Computes the exact payout distribution of one round with the given bet.
+     */
+    public ExactResult calculate(int bet) {
+        if (bet <= 0) {
+            throw new IllegalArgumentException("Bet must be positive: " + bet);
+        }
+        long start = System.nanoTime();
+        byte[] initial = new byte[stateLength];
+        Arrays.fill(initial, linesOffset, bonusOffset, UNSEEN);
+        initialBonus(initial);
+
+        long[] key = new long[keyWords];
+        encode(initial, key);
+        StateTable states = new StateTable(keyWords, 1);
+        states.add(key, 1.0);
+        long peakStates = 1;
+
+        boolean firstOnly = resolution == BonusResolution.FIRST;
+        int cells = plan.rows() * plan.cols();
+        for (int cell = 0; cell < cells; cell++) {
+            Outcomes outcomes = outcomesFor(cell);
+            StateTable next = new StateTable(keyWords, states.size());
+            byte[] state = new byte[stateLength];
+            byte[] scratch = new byte[stateLength];
+            for (int slot = 0; slot < states.capacity(); slot++) {
+                if (!states.occupied(slot)) {
+                    continue;
+                }
+                states.key(slot, key);
+                decode(key, state);
+                double p = states.probability(slot);
+                for (int i = 0; i < outcomes.size; i++) {
+                    int ordinal = outcomes.ordinals[i];
+                    boolean bonus = outcomes.bonus[i];
+                    // With FIRST only the first bonus symbol is applied; later ones behave like a non-scoring symbol
+                    boolean folded = firstOnly && state[bonusOffset] != NO_BONUS;
+                    if (bonus && folded) {
+                        continue;
+                    }
+                    double q = folded ? outcomes.afterBonus[i] : outcomes.probabilities[i];
+                    if (q <= 0) {
+                        continue;
+                    }
+                    System.arraycopy(state, 0, scratch, 0, stateLength);
+                    advance(scratch, cell, ordinal, bonus);
+                    encode(scratch, key);
+                    // Checked while the table fills, so an oversized config fails here rather than running out of heap
+                    if (next.add(key, p * q) && next.size() > maxStates) {
+                        throw new IllegalStateException("Exact evaluation exceeded " + maxStates
+                                + " states at cell " + cell + "; use Monte Carlo simulation or a larger heap");
+                    }
+                }
+            }
+            states = next;
+            peakStates = Math.max(peakStates, states.size());
+        }
+
+        TreeMap<Long, Double> distribution = new TreeMap<>();
+        byte[] state = new byte[stateLength];
+        for (int slot = 0; slot < states.capacity(); slot++) {
+            if (!states.occupied(slot)) {
+                continue;
+            }
+            states.key(slot, key);
+            decode(key, state);
+            long payout = payout(state, bet);
+            Double prev = distribution.get(payout);
+            distribution.put(payout, (prev == null ? 0 : prev) + states.probability(slot));
+        }
+        return new ExactResult(bet, distribution, peakStates, System.nanoTime() - start);
+    }
+
+    private void advance(byte[] state, int cell, int ordinal, boolean bonus) {
+        boolean standard = ordinal >= 0 && ordinal < standardCount;
+        if (standard) {
+            if (state[ordinal] < cap) {
+                state[ordinal]++;
+            }
+        } else if (bonus) {
+            addBonus(state, ordinal);
+        }
+        for (int l : linesAtCell[cell]) {
+            int at = linesOffset + l;
+            byte v = state[at];
+            if (v == UNSEEN) {
+                v = standard ? (byte) ordinal : DEAD;
+            } else if (v >= 0 && v != ordinal) {
+                v = DEAD;
+            }
+            if (v >= 0 && cell == lineLastCell[l]) {
+                setHit(state, v, lineCombo[l]);
+                v = DEAD;
+            }
+            state[at] = v;
+        }
+    }
+
+    private void encode(byte[] state, long[] key) {
+        Arrays.fill(key, 0L);
+        for (int i = 0; i < stateLength; i++) {
+            int bits = fieldBits[i];
+            if (bits > 0) {
+                key[fieldWord[i]] |= ((long) ((state[i] + fieldBias[i]) & ((1 << bits) - 1))) << fieldShift[i];
+            }
+        }
+    }
+
+    private void decode(long[] key, byte[] state) {
+        for (int i = 0; i < stateLength; i++) {
+            int bits = fieldBits[i];
+            long value = bits == 0 ? 0 : (key[fieldWord[i]] >>> fieldShift[i]) & ((1 << bits) - 1);
+            state[i] = (byte) (value - fieldBias[i]);
+        }
+    }
+
+    /**
+     * Bits needed to store values 0..max.
+     */
+    private static int width(int max) {
+        return 32 - Integer.numberOfLeadingZeros(max);
+    }
+
+    private static int bonusLength(BonusResolution resolution) {
+        switch (resolution) {
+            case FIRST:
+                return 1;
+            case HIGHEST:
+                return 3;
+            default:
+                return 16;
+        }
+    }
+
+    private void initialBonus(byte[] state) {
+        switch (resolution) {
+            case FIRST:
+                state[bonusOffset] = NO_BONUS;
+                break;
+            case HIGHEST:
+                state[bonusOffset] = NO_BONUS;
+                state[bonusOffset + 1] = NO_BONUS;
+                state[bonusOffset + 2] = 0;
+                break;
+            default:
+                putDouble(state, bonusOffset, 1.0);
+                putDouble(state, bonusOffset + 8, 0.0);
+                break;
+        }
+    }
+
+    /**
+     * Folds a bonus symbol into the state with the same operations as CompiledWinCombinations.applyBonuses.
+     */
+    private void addBonus(byte[] state, int ordinal) {
+        double factor = combinations.bonusFactor(ordinal);
+        double addend = combinations.bonusAddend(ordinal);
+        switch (resolution) {
+            case FIRST:
+                state[bonusOffset] = (byte) ordinal;
+                break;
+            case HIGHEST:
+                // Rewards grow with the multiplier and the extra, so the best of each kind is enough
+                if (factor != 1.0) {
+                    int best = state[bonusOffset];
+                    if (best == NO_BONUS || factor > combinations.bonusFactor(best)) {
+                        state[bonusOffset] = (byte) ordinal;
+                    }
+                } else if (addend != 0.0) {
+                    int best = state[bonusOffset + 1];
+                    if (best == NO_BONUS || addend > combinations.bonusAddend(best)) {
+                        state[bonusOffset + 1] = (byte) ordinal;
+                    }
+                } else {
+                    state[bonusOffset + 2] = 1;
+                }
+                break;
+            default:
+                double total = getDouble(state, bonusOffset + 8);
+                if (resolution == BonusResolution.ALL) {
+                    total *= factor;
+                }
+                putDouble(state, bonusOffset, getDouble(state, bonusOffset) * factor);
+                putDouble(state, bonusOffset + 8, total + addend);
+                break;
+        }
+    }
+
+    private double applyBonus(byte[] state, double totalReward) {
+        switch (resolution) {
+            case FIRST: {
+                int bonus = state[bonusOffset];
+                return bonus == NO_BONUS ? totalReward : combinations.applyBonus(bonus, totalReward);
+            }
+            case HIGHEST: {
+                boolean any = false;
+                double best = 0;
+                for (int i = 0; i < 2; i++) {
+                    int bonus = state[bonusOffset + i];
+                    if (bonus != NO_BONUS) {
+                        double reward = combinations.applyBonus(bonus, totalReward);
+                        best = any ? Math.max(best, reward) : reward;
+                        any = true;
+                    }
+                }
+                if (state[bonusOffset + 2] != 0) {
+                    best = any ? Math.max(best, totalReward) : totalReward;
+                    any = true;
+                }
+                return any ? best : totalReward;
+            }
+            default:
+                return totalReward * getDouble(state, bonusOffset) + getDouble(state, bonusOffset + 8);
+        }
+    }
+
+    private static void putDouble(byte[] state, int at, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            state[at + i] = (byte) (bits >>> (8 * i));
+        }
+    }
+
+    private static double getDouble(byte[] state, int at) {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (state[at + i] & 0xFFL) << (8 * i);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private void setHit(byte[] state, int symbol, int linearIndex) {
+        int at = hitsOffset + symbol * 8 + (linearIndex >>> 3);
+        state[at] |= (byte) (1 << (linearIndex & 7));
+    }
+
+    private long hits(byte[] state, int symbol) {
+        long hits = 0;
+        int at = hitsOffset + symbol * 8;
+        for (int i = 0; i < 8; i++) {
+            hits |= (state[at + i] & 0xFFL) << (8 * i);
+        }
+        return hits;
+    }
+
+    /**
+     * Scores a final state exactly like RewardCalculator scores any grid it stands for.
+     */
+    private long payout(byte[] state, int bet) {
+        double totalReward = 0.0;
+        for (int s = 0; s < standardCount; s++) {
+            int count = state[s];
+            if (count == 0) {
+                continue;
+            }
+            long applied = combinations.resolveCombos(count, hits(state, s) | emptyLineHits);
+            if (applied == 0) {
+                continue;
+            }
+            totalReward += bet * combinations.symbolMultiplier(s) * combinations.comboMultiplier(count, applied);
+        }
+        if (totalReward > 0) {
+            totalReward = applyBonus(state, totalReward);
+        }
+        return Math.round(totalReward);
+    }
+
+    /**
+     * Distribution of one cell over symbol ordinals, with bonus symbols marked.
+     * With FIRST, once a bonus was seen, all later bonus outcomes fold into the first non-bonus slot.
+     * With ALL and STACKED, bonus symbols without effect never change the state and are not bonus outcomes.
+     */
+    private Outcomes outcomesFor(int cell) {
+        SymbolDictionary dictionary = plan.dictionary();
+        double bonusChance = plan.bonusChancePercent(cell) / 100.0;
+        double[] byOrdinal = new double[dictionary.size()];
+        addTable(byOrdinal, plan.cellTable(cell), 1.0 - bonusChance);
+        addTable(byOrdinal, plan.bonusTable(), bonusChance);
+
+        Outcomes o = new Outcomes(byOrdinal.length + 1);
+        double bonusMass = 0;
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            if (byOrdinal[ordinal] > 0 && dictionary.isBonus(ordinal)) {
+                bonusMass += byOrdinal[ordinal];
+            }
+        }
+        boolean foldNeutral = resolution == BonusResolution.ALL || resolution == BonusResolution.STACKED;
+        double otherMass = 0;
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            double p = byOrdinal[ordinal];
+            if (p <= 0) {
+                continue;
+            }
+            boolean neutral = combinations.bonusFactor(ordinal) == 1.0 && combinations.bonusAddend(ordinal) == 0.0;
+            if (dictionary.isBonus(ordinal) && !(foldNeutral && neutral)) {
+                o.add(ordinal, true, p, 0);
+            } else if (dictionary.isStandard(ordinal)) {
+                o.add(ordinal, false, p, p);
+            } else {
+                otherMass += p;
+            }
+        }
+        if (otherMass > 0 || bonusMass > 0) {
+            o.add(SymbolDictionary.UNKNOWN, false, otherMass, otherMass + bonusMass);
+        }
+        return o;
+    }
+
+    private static void addTable(double[] byOrdinal, WeightTable table, double weight) {
+        if (weight <= 0) {
+            return;
+        }
+        for (int i = 0; i < table.size(); i++) {
+            byOrdinal[table.symbolAt(i)] += weight * table.weightAt(i) / table.total();
+        }
+    }
+
+    private static final class Outcomes {
+        final int[] ordinals;
+        final boolean[] bonus;
+        // Probability before any bonus was seen, and after (bonus outcomes folded into the non-scoring one)
+        final double[] probabilities;
+        final double[] afterBonus;
+        int size;
+
+        Outcomes(int capacity) {
+            ordinals = new int[capacity];
+            bonus = new boolean[capacity];
+            probabilities = new double[capacity];
+            afterBonus = new double[capacity];
+        }
+
+        void add(int ordinal, boolean isBonus, double p, double pAfterBonus) {
+            ordinals[size] = ordinal;
+            bonus[size] = isBonus;
+            probabilities[size] = p;
+            afterBonus[size] = pAfterBonus;
+            size++;
+        }
+    }
+}
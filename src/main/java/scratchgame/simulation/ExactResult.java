@@ -0,0 +1,98 @@
+package scratchgame.simulation;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Exact payout distribution of one round, as computed by {@link ExactCalculator}.
+ */
+public final class ExactResult {
+
+    private final int bet;
+    private final NavigableMap<Long, Double> distribution;
+    private final long peakStates;
+    private final long elapsedNanos;
+
+    ExactResult(int bet, TreeMap<Long, Double> distribution, long peakStates, long elapsedNanos) {
+        this.bet = bet;
+        this.distribution = distribution;
+        this.peakStates = peakStates;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int bet() {
+        return bet;
+    }
+
+    /**
+     * Payout -> probability, in ascending payout order.
+     */
+    public NavigableMap<Long, Double> distribution() {
+        return Collections.unmodifiableNavigableMap(distribution);
+    }
+
+    public double probability(long payout) {
+        Double p = distribution.get(payout);
+        return p == null ? 0 : p;
+    }
+
+    public double expectedPayout() {
+        double sum = 0;
+        for (Map.Entry<Long, Double> e : distribution.entrySet()) {
+            sum += e.getKey() * e.getValue();
+        }
+        return sum;
+    }
+
+    public double rtp() {
+        return expectedPayout() / bet;
+    }
+
+    public double hitProbability() {
+        double sum = 0;
+        for (Map.Entry<Long, Double> e : distribution.tailMap(0L, false).entrySet()) {
+            sum += e.getValue();
+        }
+        return sum;
+    }
+
+    /**
+     * Variance of the per-round return (payout / bet).
+     */
+    public double variance() {
+        double mean = rtp();
+        double sum = 0;
+        for (Map.Entry<Long, Double> e : distribution.entrySet()) {
+            double d = (double) e.getKey() / bet - mean;
+            sum += e.getValue() * d * d;
+        }
+        return sum;
+    }
+
+    public long maxWin() {
+        return distribution.isEmpty() ? 0 : distribution.lastKey();
+    }
+
+    public long peakStates() {
+        return peakStates;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Bet:               %d%n", bet));
+        sb.append(String.format(Locale.ROOT, "RTP (exact):       %.6f%%%n", rtp() * 100));
+        sb.append(String.format(Locale.ROOT, "Hit probability:   %.6f%%%n", hitProbability() * 100));
+        sb.append(String.format(Locale.ROOT, "Std deviation:     %.4f x bet%n", Math.sqrt(variance())));
+        sb.append(String.format(Locale.ROOT, "Max win:           %,d (p = %.3e)%n", maxWin(), probability(maxWin())));
+        sb.append(String.format(Locale.ROOT, "Distinct payouts:  %,d%n", distribution.size()));
+        sb.append(String.format(Locale.ROOT, "Peak states:       %,d (%.2f s)%n", peakStates, elapsedNanos / 1e9));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package scratchgame.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Exact payout -> round count histogram, as an open-addressing long map without boxing.
+ * Payouts are few and discrete, so sums and variances derived from it are exact and
+ * merging is order-independent. Not thread-safe.
+ */
+public final class PayoutHistogram {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    public PayoutHistogram() {
+        keys = new long[64];
+        counts = new long[64];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void add(long payout) {
+        add(payout, 1);
+    }
+
+    public void add(long payout, long count) {
+        if (payout == EMPTY) {
+            throw new IllegalArgumentException("Unsupported payout " + payout);
+        }
+        int mask = keys.length - 1;
+        int i = mix(payout) & mask;
+        while (true) {
+            long k = keys[i];
+            if (k == payout) {
+                counts[i] += count;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[i] = payout;
+                counts[i] = count;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    public long count(long payout) {
+        int mask = keys.length - 1;
+        int i = mix(payout) & mask;
+        while (true) {
+            long k = keys[i];
+            if (k == payout) {
+                return counts[i];
+            }
+            if (k == EMPTY) {
+                return 0;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    public void merge(PayoutHistogram other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Number of distinct payouts.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Distinct payouts in ascending order.
+     */
+    public long[] payouts() {
+        long[] result = new long[size];
+        int j = 0;
+        for (long k : keys) {
+            if (k != EMPTY) {
+                result[j++] = k;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                add(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
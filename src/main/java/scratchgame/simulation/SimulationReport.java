@@ -0,0 +1,57 @@
+package scratchgame.simulation;
+
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.model.SymbolDictionary;
+
+import java.util.Locale;
+
+/**
+ * Renders {@link SimulationStats} as a plain-text certification report.
+ */
+public final class SimulationReport {
+
+    private SimulationReport() {
+    }
+
+    public static String format(SimulationStats stats, int bet, CompiledWinCombinations combinations,
+                                long elapsedNanos, int threads) {
+        StringBuilder sb = new StringBuilder();
+        double seconds = elapsedNanos / 1e9;
+        double roundsPerSecond = seconds > 0 ? stats.rounds() / seconds : 0;
+
+        line(sb, "Rounds:            %,d (bet %d)", stats.rounds(), bet);
+        line(sb, "RTP:               %.4f%% +/- %.4f%% (95%% CI)",
+                stats.rtp(bet) * 100, stats.rtpConfidence95(bet) * 100);
+        line(sb, "Hit rate:          %.4f%% +/- %.4f%% (95%% CI)",
+                stats.hitRate() * 100, stats.hitRateConfidence95() * 100);
+        line(sb, "Std deviation:     %.4f x bet", Math.sqrt(stats.variance(bet)));
+        line(sb, "Max win:           %,d", stats.maxWin());
+        line(sb, "Distinct payouts:  %,d", stats.histogram().size());
+        line(sb, "Throughput:        %,.0f rounds/s (%,.0f per thread, %d threads, %.2f s)",
+                roundsPerSecond, roundsPerSecond / threads, threads, seconds);
+
+        sb.append("\nWin combinations (share of rounds):\n");
+        for (int id = 0; id < combinations.comboCount(); id++) {
+            appendFrequency(sb, combinations.comboName(id), stats.comboHits(id), stats.rounds());
+        }
+
+        sb.append("\nBonus symbols applied (share of rounds):\n");
+        SymbolDictionary dictionary = combinations.dictionary();
+        for (int ordinal = 0; ordinal < dictionary.size(); ordinal++) {
+            if (dictionary.isBonus(ordinal)) {
+                appendFrequency(sb, dictionary.name(ordinal), stats.bonusHits(ordinal), stats.rounds());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendFrequency(StringBuilder sb, String name, long hits, long rounds) {
+        double p = rounds == 0 ? 0 : (double) hits / rounds;
+        double ci = rounds == 0 ? 0 : 1.959964 * Math.sqrt(p * (1 - p) / rounds);
+        line(sb, "  %-40s %,15d  %.6f%% +/- %.6f%%", name, hits, p * 100, ci * 100);
+    }
+
+    private static void line(StringBuilder sb, String format, Object... args) {
+        sb.append(String.format(Locale.ROOT, format, args)).append('\n');
+    }
+}
@@ -0,0 +1,293 @@
+package scratchgame.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Statistics of one shard of a simulation run, with the run parameters needed to merge it.
+ * <p>
+ * Shard i of n simulates a contiguous range of the run's chunks; a chunk's rounds depend only
+ * on the seed and the chunk index, so shards can run in separate processes and their merged
+ * statistics equal a single-process run with the same seed. The variance is derived from the
+ * exact payout histogram, so the file stores the histogram instead of a sum of squares.
+ * <p>
+ * File layout (big-endian): {@code magic (4), version (4)}, the run parameters, rounds, hits,
+ * total paid, max win, combination and bonus counters, the histogram as (payout, count) pairs,
+ * then {@code crc32 (8)} of everything before it.
+ */
+public final class SimulationShard {
+
+    public static final String EXTENSION = ".stats";
+    private static final int MAGIC = 0x4C535353; // "LSSS"
+    private static final int VERSION = 1;
+
+    public String configHash;
+    public int bet;
+    public long seed;
+    // Rounds of the whole run, not of this shard
+    public long rounds;
+    public int shard;
+    public int shards;
+    public long firstChunk;
+    public long endChunk;
+    public int threads;
+    public long elapsedNanos;
+    public SimulationStats stats;
+
+    /**
+     * Parses "i/n", shard i of n counted from 0.
+     */
+    public static int[] parse(String value) {
+        String[] parts = value.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected <shard>/<shards>, got '" + value + "'");
+        }
+        int shard = Integer.parseInt(parts[0].trim());
+        int shards = Integer.parseInt(parts[1].trim());
+        if (shards <= 0 || shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("Shard must be in [0, " + shards + "): '" + value + "'");
+        }
+        return new int[]{shard, shards};
+    }
+
+    /**
+     * Runs shard i of n of the simulation on the given number of threads.
+     */
+    public static SimulationShard run(Simulator simulator, String configHash, long rounds, long seed,
+                                      int shard, int shards, int threads) {
+        SimulationShard result = new SimulationShard();
+        result.configHash = configHash;
+        result.bet = simulator.bet();
+        result.seed = seed;
+        result.rounds = rounds;
+        result.shard = shard;
+        result.shards = shards;
+        long chunks = Simulator.chunkCount(rounds);
+        result.firstChunk = chunks * shard / shards;
+        result.endChunk = chunks * (shard + 1) / shards;
+        result.threads = threads;
+        long start = System.nanoTime();
+        result.stats = simulator.run(rounds, seed, result.firstChunk, result.endChunk, threads);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    public static String fileName(int shard, int shards) {
+        return String.format("shard-%04d-of-%04d%s", shard, shards, EXTENSION);
+    }
+
+    /**
+     * Writes the shard to a temporary file and renames it into place, so a file that exists is complete.
+     */
+    public void write(Path file) throws IOException {
+        Path part = file.resolveSibling(file.getFileName() + ".part");
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(part))) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(configHash);
+            out.writeInt(bet);
+            out.writeLong(seed);
+            out.writeLong(rounds);
+            out.writeInt(shard);
+            out.writeInt(shards);
+            out.writeLong(firstChunk);
+            out.writeLong(endChunk);
+            out.writeInt(threads);
+            out.writeLong(elapsedNanos);
+
+            out.writeLong(stats.rounds);
+            out.writeLong(stats.hits);
+            out.writeLong(stats.totalPaid);
+            out.writeLong(stats.maxWin);
+            writeCounters(out, stats.comboHits);
+            writeCounters(out, stats.bonusHits);
+            long[] payouts = stats.histogram.payouts();
+            out.writeInt(payouts.length);
+            for (long payout : payouts) {
+                out.writeLong(payout);
+                out.writeLong(stats.histogram.count(payout));
+            }
+            out.flush();
+            new DataOutputStream(raw).writeLong(crc.getValue());
+        }
+        Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static SimulationShard read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a simulation shard file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported version " + version);
+            }
+            SimulationShard shard = new SimulationShard();
+            shard.configHash = in.readUTF();
+            shard.bet = in.readInt();
+            shard.seed = in.readLong();
+            shard.rounds = in.readLong();
+            shard.shard = in.readInt();
+            shard.shards = in.readInt();
+            shard.firstChunk = in.readLong();
+            shard.endChunk = in.readLong();
+            shard.threads = in.readInt();
+            shard.elapsedNanos = in.readLong();
+
+            long rounds = in.readLong();
+            long hits = in.readLong();
+            long totalPaid = in.readLong();
+            long maxWin = in.readLong();
+            long[] comboHits = readCounters(in);
+            long[] bonusHits = readCounters(in);
+            SimulationStats stats = new SimulationStats(comboHits.length, bonusHits.length);
+            stats.rounds = rounds;
+            stats.hits = hits;
+            stats.totalPaid = totalPaid;
+            stats.maxWin = maxWin;
+            System.arraycopy(comboHits, 0, stats.comboHits, 0, comboHits.length);
+            System.arraycopy(bonusHits, 0, stats.bonusHits, 0, bonusHits.length);
+            int distinct = in.readInt();
+            for (int i = 0; i < distinct; i++) {
+                stats.histogram.add(in.readLong(), in.readLong());
+            }
+            shard.stats = stats;
+
+            long expected = crc.getValue();
+            if (new DataInputStream(raw).readLong() != expected || raw.read() != -1) {
+                throw new IOException(file + " is corrupt: checksum mismatch");
+            }
+            return shard;
+        }
+    }
+
+    /**
+     * Reads every shard file of a directory.
+     */
+    public static List<SimulationShard> readAll(Path directory) throws IOException {
+        List<SimulationShard> shards = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                shards.add(read(file));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Reads the files of shards 0 to n-1 of an n-way run, ignoring any other shard files of the
+     * directory, such as those left by an earlier run with a different shard count.
+     */
+    public static List<SimulationShard> readAll(Path directory, int shards) throws IOException {
+        List<SimulationShard> result = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            result.add(read(directory.resolve(fileName(shard, shards))));
+        }
+        return result;
+    }
+
+    /**
+     * Combines shards of one run into the statistics of the whole run. The shards must come from
+     * the same config, bet, seed and round count, and their chunk ranges must cover the run
+     * exactly once. Elapsed time is the slowest shard's; threads are summed.
+     */
+    public static SimulationShard merge(List<SimulationShard> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("No shards to merge");
+        }
+        List<SimulationShard> sorted = new ArrayList<>(shards);
+        // Empty shards (more shards than chunks) sort before the shard starting at the same chunk
+        sorted.sort(Comparator.<SimulationShard>comparingLong(s -> s.firstChunk).thenComparingLong(s -> s.endChunk));
+        SimulationShard first = sorted.get(0);
+        SimulationShard merged = new SimulationShard();
+        merged.configHash = first.configHash;
+        merged.bet = first.bet;
+        merged.seed = first.seed;
+        merged.rounds = first.rounds;
+        merged.shard = 0;
+        merged.shards = 1;
+        merged.stats = new SimulationStats(first.stats.comboHits.length, first.stats.bonusHits.length);
+
+        long next = 0;
+        for (SimulationShard shard : sorted) {
+            if (!shard.configHash.equals(first.configHash) || shard.bet != first.bet || shard.seed != first.seed
+                    || shard.rounds != first.rounds) {
+                throw new IllegalArgumentException("Shard " + shard.describe() + " belongs to a different run than "
+                        + first.describe());
+            }
+            if (shard.stats.comboHits.length != first.stats.comboHits.length
+                    || shard.stats.bonusHits.length != first.stats.bonusHits.length) {
+                throw new IllegalArgumentException("Shard " + shard.describe() + " counts different combinations or symbols");
+            }
+            if (shard.firstChunk < next) {
+                throw new IllegalArgumentException("Shard " + shard.describe() + " overlaps chunks already merged");
+            }
+            if (shard.firstChunk > next) {
+                throw new IllegalArgumentException("Chunks [" + next + ", " + shard.firstChunk + ") are missing");
+            }
+            merged.stats.merge(shard.stats);
+            merged.threads += shard.threads;
+            merged.elapsedNanos = Math.max(merged.elapsedNanos, shard.elapsedNanos);
+            next = shard.endChunk;
+        }
+        long chunks = Simulator.chunkCount(first.rounds);
+        if (next != chunks) {
+            throw new IllegalArgumentException("Chunks [" + next + ", " + chunks + ") are missing");
+        }
+        merged.endChunk = chunks;
+        if (merged.stats.rounds != merged.rounds) {
+            throw new IllegalArgumentException("Shards hold " + merged.stats.rounds + " rounds, expected " + merged.rounds);
+        }
+        return merged;
+    }
+
+    /**
+     * Whether this shard covers the given run, so a rerun can skip it.
+     */
+    public boolean matches(String configHash, int bet, long seed, long rounds, int shard, int shards) {
+        return this.configHash.equals(configHash) && this.bet == bet && this.seed == seed && this.rounds == rounds
+                && this.shard == shard && this.shards == shards;
+    }
+
+    private String describe() {
+        return shard + "/" + shards + " (chunks [" + firstChunk + ", " + endChunk + "), seed " + seed + ")";
+    }
+
+    private static void writeCounters(DataOutputStream out, long[] counters) throws IOException {
+        out.writeInt(counters.length);
+        for (long counter : counters) {
+            out.writeLong(counter);
+        }
+    }
+
+    private static long[] readCounters(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > 1 << 16) {
+            throw new IOException("Invalid counter count " + length);
+        }
+        long[] counters = new long[length];
+        for (int i = 0; i < length; i++) {
+            counters[i] = in.readLong();
+        }
+        return counters;
+    }
+}
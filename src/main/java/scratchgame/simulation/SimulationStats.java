@@ -0,0 +1,126 @@
+package scratchgame.simulation;
+
+/**
+ * Mergeable statistics of a batch of simulated rounds. Each worker fills its own instance
+ * and results are combined with {@link #merge(SimulationStats)}, so no locking is needed.
+ */
+public final class SimulationStats {
+
+    // Two-sided 95% normal quantile
+    private static final double Z_95 = 1.959964;
+
+    long rounds;
+    long hits;
+    long totalPaid;
+    long maxWin;
+    final PayoutHistogram histogram = new PayoutHistogram();
+    // Rounds in which each win combination was applied to at least one symbol
+    final long[] comboHits;
+    // Rounds in which each bonus symbol was applied, indexed by symbol ordinal
+    final long[] bonusHits;
+
+    public SimulationStats(int comboCount, int symbolCount) {
+        this.comboHits = new long[comboCount];
+        this.bonusHits = new long[symbolCount];
+    }
+
+    /**
+     * Records the payout of one round.
+     */
+    void recordPayout(long payout) {
+        rounds++;
+        totalPaid += payout;
+        if (payout > 0) {
+            hits++;
+        }
+        if (payout > maxWin) {
+            maxWin = payout;
+        }
+        histogram.add(payout);
+    }
+
+    public SimulationStats merge(SimulationStats other) {
+        rounds += other.rounds;
+        hits += other.hits;
+        totalPaid += other.totalPaid;
+        maxWin = Math.max(maxWin, other.maxWin);
+        histogram.merge(other.histogram);
+        for (int i = 0; i < comboHits.length; i++) {
+            comboHits[i] += other.comboHits[i];
+        }
+        for (int i = 0; i < bonusHits.length; i++) {
+            bonusHits[i] += other.bonusHits[i];
+        }
+        return this;
+    }
+
+    public long rounds() {
+        return rounds;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long totalPaid() {
+        return totalPaid;
+    }
+
+    public long maxWin() {
+        return maxWin;
+    }
+
+    public PayoutHistogram histogram() {
+        return histogram;
+    }
+
+    public long comboHits(int comboId) {
+        return comboHits[comboId];
+    }
+
+    public long bonusHits(int ordinal) {
+        return bonusHits[ordinal];
+    }
+
+    /**
+     * Return to player: total paid divided by total staked.
+     */
+    public double rtp(int bet) {
+        return rounds == 0 ? 0 : (double) totalPaid / ((double) rounds * bet);
+    }
+
+    public double hitRate() {
+        return rounds == 0 ? 0 : (double) hits / rounds;
+    }
+
+    /**
+     * Population variance of the per-round return (payout / bet).
+     */
+    public double variance(int bet) {
+        if (rounds == 0) {
+            return 0;
+        }
+        double mean = rtp(bet);
+        double sum = 0;
+        for (long payout : histogram.payouts()) {
+            double d = (double) payout / bet - mean;
+            sum += histogram.count(payout) * d * d;
+        }
+        return sum / rounds;
+    }
+
+    /**
+     * Half-width of the 95% confidence interval of the RTP.
+     */
+    public double rtpConfidence95(int bet) {
+        return rounds == 0 ? 0 : Z_95 * Math.sqrt(variance(bet) / rounds);
+    }
+
+    /**
+     * Half-width of the 95% confidence interval of the hit rate.
+     */
+    public double hitRateConfidence95() {
+        double p = hitRate();
+        return rounds == 0 ? 0 : Z_95 * Math.sqrt(p * (1 - p) / rounds);
+    }
+}
@@ -0,0 +1,172 @@
+package scratchgame.simulation;
+
+import scratchgame.logic.BatchEvaluator;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCache;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
+import scratchgame.model.SymbolDictionary;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SeededRandomSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo runner for {@link MatrixGenerator} + {@link RewardCalculator}; grids are scored in
+ * blocks by {@link BatchEvaluator}, which gives the same scores.
+ * Rounds are split into fixed-size chunks, each with its own seeded stream, so the
+ * result for a seed does not depend on the number of threads.
+ */
+public final class Simulator {
+
+    static final int CHUNK_ROUNDS = 1 << 16;
+
+    private final GenerationPlan plan;
+    private final CompiledWinCombinations combinations;
+    private final int bet;
+    private final RewardCache cache;
+
+    public Simulator(GenerationPlan plan, CompiledWinCombinations combinations, int bet) {
+        this(plan, combinations, bet, null);
+    }
+
+    /**
+     * Simulator that scores through the reward cache, if one is given. Results are identical.
+     */
+    public Simulator(GenerationPlan plan, CompiledWinCombinations combinations, int bet, RewardCache cache) {
+        if (!plan.dictionary().equals(combinations.dictionary())) {
+            throw new IllegalArgumentException("Plan and win combinations use different symbol dictionaries");
+        }
+        if (bet <= 0) {
+            throw new IllegalArgumentException("Bet must be positive: " + bet);
+        }
+        if (cache != null && cache.combinations() != combinations) {
+            throw new IllegalArgumentException("Reward cache was built for other win combinations");
+        }
+        this.plan = plan;
+        this.combinations = combinations;
+        this.bet = bet;
+        this.cache = cache;
+    }
+
+    public int bet() {
+        return bet;
+    }
+
+    /**
+     * Simulates the given number of rounds on a fork/join pool with the given parallelism.
+     */
+    public SimulationStats run(long rounds, long seed, int parallelism) {
+        return run(rounds, seed, 0, chunkCount(rounds), parallelism);
+    }
+
+    /**
+     * Simulates chunks [firstChunk, endChunk) of a run of the given number of rounds. The
+     * merged results of disjoint chunk ranges that cover the run equal the whole run's.
+     */
+    public SimulationStats run(long rounds, long seed, long firstChunk, long endChunk, int parallelism) {
+        if (firstChunk < 0 || endChunk < firstChunk || endChunk > chunkCount(rounds)) {
+            throw new IllegalArgumentException("Invalid chunk range [" + firstChunk + ", " + endChunk
+                    + ") of " + chunkCount(rounds) + " chunks");
+        }
+        if (firstChunk == endChunk) {
+            return newStats();
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new ChunkTask(firstChunk, endChunk, rounds, seed));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Number of chunks a run of the given number of rounds is split into.
+     */
+    public static long chunkCount(long rounds) {
+        return rounds <= 0 ? 0 : (rounds + CHUNK_ROUNDS - 1) / CHUNK_ROUNDS;
+    }
+
+    /**
+     * Simulates one chunk of rounds; chunk k always covers rounds [k * CHUNK_ROUNDS, ...) of the run.
+     */
+    SimulationStats runChunk(long chunk, long totalRounds, long seed) {
+        long first = chunk * CHUNK_ROUNDS;
+        long count = Math.min(CHUNK_ROUNDS, totalRounds - first);
+        SimulationStats stats = newStats();
+        SeededRandomSource rand = RandomSource.seeded(SeededRandomSource.derive(seed, chunk));
+        Grid grid = new Grid(plan.rows(), plan.cols());
+
+        if (cache != null) {
+            RoundScore score = new RoundScore();
+            for (long i = 0; i < count; i++) {
+                MatrixGenerator.generateGrid(plan, rand, grid);
+                cache.score(grid, bet, score);
+                record(stats, score.finalReward, score.appliedCombos, score.appliedBonus);
+            }
+            return stats;
+        }
+
+        // Generate a block of grids, then score the block at once
+        BatchEvaluator evaluator = new BatchEvaluator(combinations);
+        int cells = grid.size();
+        byte[] block = new byte[BatchEvaluator.LANES * cells];
+        for (long done = 0; done < count; ) {
+            int lanes = (int) Math.min(BatchEvaluator.LANES, count - done);
+            for (int j = 0; j < lanes; j++) {
+                MatrixGenerator.generateGrid(plan, rand, grid);
+                System.arraycopy(grid.cells(), 0, block, j * cells, cells);
+            }
+            evaluator.evaluate(block, 0, lanes, bet);
+            for (int j = 0; j < lanes; j++) {
+                record(stats, evaluator.reward(j), evaluator.appliedCombos(j), evaluator.appliedBonus(j));
+            }
+            done += lanes;
+        }
+        return stats;
+    }
+
+    private static void record(SimulationStats stats, long reward, long appliedCombos, int appliedBonus) {
+        stats.recordPayout(reward);
+        for (long combos = appliedCombos; combos != 0; combos &= combos - 1) {
+            stats.comboHits[Long.numberOfTrailingZeros(combos)]++;
+        }
+        if (appliedBonus != SymbolDictionary.UNKNOWN) {
+            stats.bonusHits[appliedBonus]++;
+        }
+    }
+
+    SimulationStats newStats() {
+        return new SimulationStats(combinations.comboCount(), plan.dictionary().size());
+    }
+
+    private final class ChunkTask extends RecursiveTask<SimulationStats> {
+        private final long from;
+        private final long to;
+        private final long totalRounds;
+        private final long seed;
+
+        ChunkTask(long from, long to, long totalRounds, long seed) {
+            this.from = from;
+            this.to = to;
+            this.totalRounds = totalRounds;
+            this.seed = seed;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from == 1) {
+                return runChunk(from, totalRounds, seed);
+            }
+            long mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(from, mid, totalRounds, seed);
+            left.fork();
+            SimulationStats right = new ChunkTask(mid, to, totalRounds, seed).compute();
+            return left.join().merge(right);
+        }
+    }
+}
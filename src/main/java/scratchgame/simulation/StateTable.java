@@ -0,0 +1,121 @@
+package scratchgame.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Packed DP state -> probability table for {@link ExactCalculator}, as an open-addressing map over
+ * fixed-width {@code long[]} keys without boxing. Every key word uses at most 63 bits, so an empty
+ * slot is marked by a first word of -1. Not thread-safe.
+ */
+final class StateTable {
+
+    private static final long EMPTY = -1L;
+
+    /**
+     * Bytes per slot: the key words and the probability.
+     */
+    static int slotBytes(int words) {
+        return 8 * (words + 1);
+    }
+
+    private final int words;
+    private long[] keys;
+    private double[] probabilities;
+    private int size;
+
+    StateTable(int words, int expected) {
+        this.words = words;
+        int capacity = 16;
+        while (capacity * 3L < expected * 4L) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity * words];
+        probabilities = new double[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Adds p to the probability of the key and returns true if the key was not in the table yet.
+     */
+    boolean add(long[] key, double p) {
+        int mask = probabilities.length - 1;
+        int slot = mix(key, 0, words) & mask;
+        while (true) {
+            int at = slot * words;
+            if (keys[at] == EMPTY) {
+                System.arraycopy(key, 0, keys, at, words);
+                probabilities[slot] = p;
+                if (++size * 4 > probabilities.length * 3) {
+                    grow();
+                }
+                return true;
+            }
+            if (matches(key, at)) {
+                probabilities[slot] += p;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Number of slots; iterate them with {@link #occupied}, {@link #key} and {@link #probability}.
+     */
+    int capacity() {
+        return probabilities.length;
+    }
+
+    boolean occupied(int slot) {
+        return keys[slot * words] != EMPTY;
+    }
+
+    void key(int slot, long[] target) {
+        System.arraycopy(keys, slot * words, target, 0, words);
+    }
+
+    double probability(int slot) {
+        return probabilities[slot];
+    }
+
+    private boolean matches(long[] key, int at) {
+        for (int w = 0; w < words; w++) {
+            if (keys[at + w] != key[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldProbabilities = probabilities;
+        keys = new long[oldKeys.length * 2];
+        probabilities = new double[oldProbabilities.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = probabilities.length - 1;
+        for (int old = 0; old < oldProbabilities.length; old++) {
+            int from = old * words;
+            if (oldKeys[from] == EMPTY) {
+                continue;
+            }
+            int slot = mix(oldKeys, from, words) & mask;
+            while (keys[slot * words] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            System.arraycopy(oldKeys, from, keys, slot * words, words);
+            probabilities[slot] = oldProbabilities[old];
+        }
+    }
+
+    private static int mix(long[] key, int from, int words) {
+        long h = 0;
+        for (int w = 0; w < words; w++) {
+            h = (h ^ key[from + w]) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,19 +1,33 @@
 package scratchgame;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.logic.RoundEngine;
+import scratchgame.model.CalculationResult;
 import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundResult;
 import scratchgame.model.StandardSymbolsProb;
 import scratchgame.model.SymbolConfig;
 import scratchgame.model.WinCombination;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SeededRandomSource;
 
 import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
 
+// Also covers the deprecated Config overload of playRound, which is kept for existing callers
+@SuppressWarnings("deprecation")
 public class GameSessionTest {
 
     private Config config;
@@ -93,4 +107,82 @@ public class GameSessionTest {
         Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
         GameSession.playRound(scanner, config);
     }
+
+    @Test
+    public void testValidBetOnSnapshot() {
+        String input = "200\n";
+        Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        GameSession.playRound(scanner, ConfigSnapshot.of(config));
+    }
+
+    @Test
+    public void testMultipleInputsOnSnapshot() {
+        String input = "300\nn\n"; // Bet 300 and then decline new game
+        Scanner scanner = new Scanner(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        GameSession.playRound(scanner, ConfigSnapshot.of(config));
+    }
+
+    @Test
+    public void testReadableComboNames() {
+        Assert.assertEquals("horizontal line", GameSession.readableComboName("same_symbols_horizontally"));
+        Assert.assertEquals("3 identical symbols", GameSession.readableComboName("same_symbol_3_times"));
+        Assert.assertEquals("42 identical symbols", GameSession.readableComboName("same_symbol_42_times"));
+        Assert.assertEquals("five in a row", GameSession.readableComboName("five_in_a_row"));
+    }
+
+    /**
+     * Test: Headless rounds report the same grid, reward, combinations and bonus as the detailed calculation.
+     */
+    @Test
+    public void testPlayMatchesDetailedCalculation() {
+        ConfigSnapshot snapshot = ConfigSnapshot.of(config);
+        SeededRandomSource playRand = RandomSource.seeded(3);
+        SeededRandomSource plainRand = RandomSource.seeded(3);
+        int wins = 0;
+        for (int i = 0; i < 2000; i++) {
+            RoundResult round = GameSession.play(snapshot, 100, playRand);
+            Grid grid = MatrixGenerator.generateGrid(snapshot.plan(), plainRand);
+            CalculationResult expected = RewardCalculator.calculateReward(snapshot.combinations(), grid, 100);
+
+            Assert.assertArrayEquals(grid.toMatrix(snapshot.dictionary()), round.matrix);
+            Assert.assertEquals(expected.finalReward, round.reward);
+            Assert.assertEquals(expected.appliedCombinations, round.applied_winning_combinations);
+            Assert.assertEquals(expected.appliedBonusSymbol, round.applied_bonus_symbol);
+            wins += round.reward > 0 ? 1 : 0;
+        }
+        Assert.assertTrue(wins > 0);
+    }
+
+    /**
+     * Test: After warm-up, the engine a headless round borrows allocates far less than one object
+     * per round. The exact 0 B/op figure is RoundBenchmark's under the JMH GC profiler.
+     */
+    @Test
+    public void testEngineDoesNotAllocatePerRound() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+        ConfigSnapshot snapshot = ConfigSnapshot.of(config);
+        SeededRandomSource rand = RandomSource.seeded(17);
+        int rounds = 20_000;
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += GameSession.play(snapshot, 100, rand).reward;
+        }
+
+        long before = allocations.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < rounds; i++) {
+            RoundEngine engine = RoundEngine.acquire(snapshot.plan(), snapshot.combinations());
+            sink += engine.play(rand, 100).finalReward;
+            engine.release();
+        }
+        long engineBytes = allocations.getThreadAllocatedBytes(thread) - before;
+
+        Assert.assertTrue(sink > 0);
+        // One object per round would be at least 16 bytes each; the bound leaves room for JIT and measurement noise
+        Assert.assertTrue("Engine allocated " + engineBytes + " bytes in " + rounds + " rounds", engineBytes < rounds);
+    }
 }
@@ -0,0 +1,182 @@
+package scratchgame.audit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.GameSession;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.model.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AuditLogTest {
+
+    private Path log;
+    private ConfigSnapshot snapshot;
+
+    @Before
+    public void setup() throws IOException {
+        log = Files.createTempFile("audit", ".log");
+
+        Config config = new Config();
+        config.rows = 3;
+        config.columns = 3;
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1);
+
+        config.win_combinations = Map.of(
+                "same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+        snapshot = ConfigSnapshot.of(config);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(log);
+    }
+
+    /**
+     * Every logged round regenerates to the same grid and reward, and a reopened log
+     * continues the round ids.
+     */
+    @Test
+    public void testRoundsReplayAfterReopen() throws IOException {
+        List<RoundResult> rounds = new ArrayList<>();
+        try (AuditLog audit = new AuditLog(log)) {
+            for (int i = 0; i < 500; i++) {
+                rounds.add(GameSession.play(snapshot, 100, audit));
+            }
+            audit.sync();
+        }
+        Assert.assertEquals(Long.valueOf(0), rounds.get(0).round_id);
+        Assert.assertEquals(Long.valueOf(499), rounds.get(499).round_id);
+
+        try (AuditLog audit = new AuditLog(log)) {
+            Assert.assertEquals(Long.valueOf(500), GameSession.play(snapshot, 100, audit).round_id);
+        }
+
+        AuditReplay.Report report = new AuditReplay(List.of(snapshot)).verifyAll(log);
+        Assert.assertEquals(501, report.records);
+        Assert.assertEquals(501, report.verified);
+        Assert.assertTrue(report.mismatches.isEmpty());
+
+        AuditRecord record = AuditReplay.find(log, 123);
+        Assert.assertEquals(rounds.get(123).reward, record.reward);
+        Assert.assertArrayEquals(rounds.get(123).matrix, record.grid.toMatrix(snapshot.dictionary()));
+    }
+
+    /**
+     * A logged reward that the regenerated grid does not score is reported.
+     */
+    @Test
+    public void testTamperedRewardIsDetected() throws IOException {
+        Grid grid = AuditReplay.regenerate(snapshot, 7L);
+        try (AuditLog audit = new AuditLog(log)) {
+            audit.append(7L, snapshot.hash(), 100, grid, 1_000_000);
+        }
+        AuditReplay.Report report = new AuditReplay(List.of(snapshot)).verifyAll(log);
+        Assert.assertEquals(1, report.records);
+        Assert.assertEquals(0, report.verified);
+        Assert.assertEquals(1, report.mismatches.size());
+    }
+
+    /**
+     * A record cut short by a crash is dropped on reopen and its round id is reused.
+     */
+    @Test
+    public void testTornTailIsTruncated() throws IOException {
+        try (AuditLog audit = new AuditLog(log)) {
+            for (int i = 0; i < 3; i++) {
+                GameSession.play(snapshot, 100, audit);
+            }
+        }
+        long complete = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(complete - 5);
+        }
+
+        try (AuditLog audit = new AuditLog(log)) {
+            Assert.assertEquals(Long.valueOf(2), GameSession.play(snapshot, 100, audit).round_id);
+        }
+        Assert.assertEquals(complete, Files.size(log));
+        Assert.assertEquals(3, new AuditReplay(List.of(snapshot)).verifyAll(log).verified);
+    }
+
+    /**
+     * Once the channel fails, sync and close report it and no further round is accepted.
+     */
+    @Test
+    public void testFailedWriteRefusesRounds() throws IOException {
+        FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE);
+        AuditLog audit = new AuditLog(log, channel);
+        GameSession.play(snapshot, 100, audit);
+        audit.sync();
+
+        channel.close();
+        try {
+            // The writer fails on the first write after the channel closed
+            GameSession.play(snapshot, 100, audit);
+            audit.sync();
+            Assert.fail("Expected the sync to fail");
+        } catch (IOException | IllegalStateException e) {
+            // expected
+        }
+        try {
+            GameSession.play(snapshot, 100, audit);
+            Assert.fail("Expected the append to fail");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+        try {
+            audit.close();
+            Assert.fail("Expected the close to report the failure");
+        } catch (IOException e) {
+            // expected
+        }
+        Assert.assertEquals(1, new AuditReplay(List.of(snapshot)).verifyAll(log).verified);
+    }
+
+    /**
+     * Rounds appended concurrently with close are either written or refused, never lost.
+     */
+    @Test
+    public void testAppendsRacingCloseAreWrittenOrRefused() throws Exception {
+        AuditLog audit = new AuditLog(log);
+        AtomicLong accepted = new AtomicLong();
+        List<Thread> players = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread player = new Thread(() -> {
+                try {
+                    while (true) {
+                        GameSession.play(snapshot, 100, audit);
+                        accepted.incrementAndGet();
+                    }
+                } catch (IllegalStateException e) {
+                    // closed
+                }
+            });
+            player.start();
+            players.add(player);
+        }
+        Thread.sleep(50);
+        audit.close();
+        for (Thread player : players) {
+            player.join();
+        }
+        Assert.assertTrue(accepted.get() > 0);
+        Assert.assertEquals(accepted.get(), new AuditReplay(List.of(snapshot)).verifyAll(log).verified);
+    }
+}
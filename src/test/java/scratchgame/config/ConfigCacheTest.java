@@ -0,0 +1,119 @@
+package scratchgame.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.model.Config;
+import scratchgame.simulation.Simulator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class ConfigCacheTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Path directory;
+    private Path file;
+    private ConfigCache cache;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("config-cache");
+        file = directory.resolve("config.json");
+        Files.copy(Paths.get("src/main/resources/config.json"), file);
+        cache = new ConfigCache(directory.resolve("cache"));
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Test: Every config field survives the binary form, for both bundled configs.
+     */
+    @Test
+    public void testCodecRoundTrip() throws IOException {
+        for (String name : new String[]{"config.json", "config-10x10.json"}) {
+            Config config = MAPPER.readValue(Paths.get("src/main/resources", name).toFile(), Config.class);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ConfigCodec.write(new DataOutputStream(bytes), config);
+            Config decoded = ConfigCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            Assert.assertEquals(name, MAPPER.writeValueAsString(config), MAPPER.writeValueAsString(decoded));
+        }
+    }
+
+    /**
+     * Test: The second load is served from the cache and compiles to the same snapshot.
+     */
+    @Test
+    public void testSecondLoadHitsCache() throws IOException {
+        ConfigSnapshot parsed = ConfigSnapshot.load(file);
+        ConfigSnapshot first = cache.load(file);
+        ConfigSnapshot second = cache.load(file);
+
+        Assert.assertEquals(1, cache.misses());
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertTrue(Files.exists(cache.entry(parsed.hash())));
+        for (ConfigSnapshot snapshot : new ConfigSnapshot[]{first, second}) {
+            Assert.assertEquals(parsed.hash(), snapshot.hash());
+            Assert.assertEquals(parsed.dictionary(), snapshot.dictionary());
+            Assert.assertEquals(simulatedPaid(parsed), simulatedPaid(snapshot));
+        }
+    }
+
+    /**
+     * Test: A changed file misses, and a damaged entry is reparsed and rewritten.
+     */
+    @Test
+    public void testChangedFileAndDamagedEntryMiss() throws IOException {
+        String hash = cache.load(file).hash();
+        Path entry = cache.entry(hash);
+        byte[] bytes = Files.readAllBytes(entry);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(entry, bytes);
+
+        Assert.assertEquals(hash, cache.load(file).hash());
+        Assert.assertEquals(2, cache.misses());
+        Assert.assertEquals(hash, cache.load(file).hash());
+        Assert.assertEquals(1, cache.hits());
+
+        Files.write(file, (new String(Files.readAllBytes(file), "UTF-8") + "\n").getBytes("UTF-8"));
+        Assert.assertNotEquals(hash, cache.load(file).hash());
+        Assert.assertEquals(3, cache.misses());
+    }
+
+    /**
+     * Test: A snapshot hands out copies of its config, the same whether parsed or served from the cache.
+     */
+    @Test
+    public void testSnapshotConfigIsACopy() throws IOException {
+        String expected = MAPPER.writeValueAsString(MAPPER.readValue(file.toFile(), Config.class));
+        cache.load(file);
+        ConfigSnapshot cached = cache.load(file);
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertEquals(expected, MAPPER.writeValueAsString(cached.config()));
+
+        Config copy = cached.config();
+        copy.symbols.clear();
+        Assert.assertEquals(expected, MAPPER.writeValueAsString(cached.config()));
+        Assert.assertNotSame(cached.config(), cached.config());
+    }
+
+    private static long simulatedPaid(ConfigSnapshot snapshot) {
+        return new Simulator(snapshot.plan(), snapshot.combinations(), 100).run(20_000, 1, 1).totalPaid();
+    }
+}
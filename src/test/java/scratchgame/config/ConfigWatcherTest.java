@@ -0,0 +1,90 @@
+package scratchgame.config;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ConfigWatcherTest {
+
+    private static final String CONFIG = "{\"rows\":3,\"columns\":3,"
+            + "\"symbols\":{\"A\":{\"reward_multiplier\":%d,\"type\":\"standard\"},"
+            + "\"10x\":{\"reward_multiplier\":10,\"type\":\"bonus\",\"impact\":\"multiply_reward\"}},"
+            + "\"probabilities\":{\"standard_symbols\":[{\"column\":0,\"row\":0,\"symbols\":{\"A\":1}}],"
+            + "\"bonus_symbols\":{\"symbols\":{\"10x\":1}}},"
+            + "\"win_combinations\":{\"same_symbol_3_times\":{\"reward_multiplier\":1,\"when\":\"same_symbols\","
+            + "\"count\":3,\"group\":\"same_symbols\"}}}";
+
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("config-watch");
+        file = directory.resolve("config.json");
+        write(5);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testSnapshotIsCompiled() throws IOException {
+        ConfigSnapshot snapshot = ConfigSnapshot.load(file);
+        Assert.assertEquals(3, snapshot.rows());
+        Assert.assertEquals(64, snapshot.hash().length());
+        Assert.assertEquals(5.0, snapshot.combinations().symbolMultiplier(snapshot.dictionary().ordinal("A")), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConfigIsRejectedAtLoad() throws IOException {
+        Files.write(file, CONFIG.replace("{\"A\":1}", "{\"A\":0}").replace("%d", "5").getBytes(StandardCharsets.UTF_8));
+        ConfigSnapshot.load(file);
+    }
+
+    @Test
+    public void testReloadSwapsOnlyOnValidChange() throws IOException {
+        try (ConfigWatcher watcher = new ConfigWatcher(file)) {
+            ConfigSnapshot first = watcher.get();
+            Assert.assertFalse("Unchanged content keeps the snapshot", watcher.reload());
+            Assert.assertSame(first, watcher.get());
+
+            write(7);
+            Assert.assertTrue(watcher.reload());
+            ConfigSnapshot second = watcher.get();
+            Assert.assertNotEquals(first.hash(), second.hash());
+            Assert.assertEquals(5.0, first.combinations().symbolMultiplier(0), 0.0);
+            Assert.assertEquals(7.0, second.combinations().symbolMultiplier(0), 0.0);
+
+            Files.write(file, "{ not json".getBytes(StandardCharsets.UTF_8));
+            Assert.assertFalse(watcher.reload());
+            Assert.assertSame(second, watcher.get());
+        }
+    }
+
+    @Test
+    public void testWatcherPicksUpFileChange() throws Exception {
+        try (ConfigWatcher watcher = new ConfigWatcher(file)) {
+            watcher.start();
+            String initial = watcher.get().hash();
+            write(9);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (watcher.get().hash().equals(initial) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Assert.assertEquals(9.0, watcher.get().combinations().symbolMultiplier(0), 0.0);
+        }
+    }
+
+    private void write(int multiplier) throws IOException {
+        Files.write(file, String.format(CONFIG, multiplier).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,182 @@
+package scratchgame.export;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.logic.BatchGenerator;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.model.*;
+import scratchgame.pipeline.TicketPipeline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class TicketExportTest {
+
+    private Path directory;
+    private GenerationPlan plan;
+    private BatchGenerator generator;
+    private CompiledWinCombinations combinations;
+    private String hash;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("ticket-export");
+
+        Config config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1);
+
+        config.win_combinations = Map.of(
+                "same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        combinations = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+        plan = GenerationPlan.compile(config, dictionary, 3, 3);
+        generator = new BatchGenerator(plan, combinations, 100);
+        hash = ConfigSnapshot.of(config).hash();
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Binary chunks hold exactly the tickets the batch generator produces for the seed.
+     */
+    @Test
+    public void testBinaryExportMatchesGenerator() throws IOException {
+        TicketExport export = new TicketExport(generator, combinations, hash, ExportFormat.BINARY, directory, 400, 128, null);
+        Assert.assertEquals(3, export.run(1000, 42L));
+
+        TicketBatch expected = generator.fill(generator.newBatch(1000), 0, 1000, 42L);
+        long next = 0;
+        for (int chunk = 0; chunk < 3; chunk++) {
+            try (BinaryTicketReader reader = new BinaryTicketReader(export.chunkFile(chunk))) {
+                Assert.assertEquals(3, reader.rows);
+                Assert.assertEquals(chunk * 400L, reader.firstTicket);
+                Assert.assertEquals(100, reader.bet);
+                Assert.assertEquals(hash, reader.configHash);
+                while (reader.next()) {
+                    int i = (int) next;
+                    Assert.assertEquals(next, reader.ticket);
+                    Assert.assertEquals(expected.rewards()[i], reader.reward);
+                    Assert.assertEquals(expected.comboMasks()[i], reader.comboMask);
+                    Assert.assertEquals(expected.bonuses()[i], reader.bonus);
+                    Assert.assertArrayEquals(Arrays.copyOfRange(expected.cells(), i * 9, i * 9 + 9), reader.cells);
+                    next++;
+                }
+            }
+        }
+        Assert.assertEquals(1000, next);
+    }
+
+    /**
+     * A binary chunk is mapped once for all its tickets; a writer closed early keeps only the records written.
+     */
+    @Test
+    public void testBinaryFileSizedToWrittenTickets() throws IOException {
+        int recordSize = BinaryTicketWriter.recordSize(3, 3);
+        Path file = directory.resolve("short.bin");
+        try (BinaryTicketWriter writer = new BinaryTicketWriter(file, 3, 3, 5L, 0, 1000, 100, hash)) {
+            writer.write(generator.fill(generator.newBatch(300), 0, 300, 5L));
+        }
+        Assert.assertEquals(BinaryTicketWriter.HEADER_SIZE + 300L * recordSize, Files.size(file));
+        try (BinaryTicketReader reader = new BinaryTicketReader(file)) {
+            int read = 0;
+            while (reader.next()) {
+                Assert.assertEquals(read++, reader.ticket);
+            }
+            Assert.assertEquals(300, read);
+        }
+    }
+
+    /**
+     * A resumed export only rewrites missing chunks and reproduces them byte for byte.
+     */
+    @Test
+    public void testResumeRewritesOnlyMissingChunks() throws IOException {
+        TicketExport export = new TicketExport(generator, combinations, hash, ExportFormat.CSV, directory, 300, 100, null);
+        Assert.assertEquals(4, export.run(1000, 7L));
+        byte[] original = Files.readAllBytes(export.chunkFile(2));
+
+        Files.delete(export.chunkFile(2));
+        Files.write(directory.resolve("tickets-000002.csv.part"), new byte[]{1, 2, 3});
+        Assert.assertEquals(1, export.run(1000, 7L));
+        Assert.assertArrayEquals(original, Files.readAllBytes(export.chunkFile(2)));
+        Assert.assertFalse(Files.exists(directory.resolve("tickets-000002.csv.part")));
+        Assert.assertEquals(0, export.run(1000, 7L));
+    }
+
+    /**
+     * An export through the pipeline writes the same files as the serial export.
+     */
+    @Test
+    public void testPipelineExportMatchesSerialExport() throws IOException {
+        TicketExport serial = new TicketExport(generator, combinations, hash, ExportFormat.BINARY, directory.resolve("serial"),
+                300, 128, null);
+        serial.run(1000, 11L);
+        TicketPipeline pipeline = new TicketPipeline(generator, 2, 2, 64, 6);
+        TicketExport staged = new TicketExport(pipeline, hash, ExportFormat.BINARY, directory.resolve("pipeline"), 300);
+        Assert.assertEquals(4, staged.run(1000, 11L));
+        for (int chunk = 0; chunk < 4; chunk++) {
+            Assert.assertArrayEquals(Files.readAllBytes(serial.chunkFile(chunk)), Files.readAllBytes(staged.chunkFile(chunk)));
+        }
+        Assert.assertEquals(1000, pipeline.stages().get(2).tickets());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testResumeWithDifferentSeedIsRefused() throws IOException {
+        TicketExport export = new TicketExport(generator, combinations, hash, ExportFormat.JSONL, directory, 500, 100, null);
+        export.run(100, 1L);
+        export.run(100, 2L);
+    }
+
+    /**
+     * Resuming with another bet or another config is refused instead of mixing differently scored chunks.
+     */
+    @Test
+    public void testResumeWithDifferentBetOrConfigIsRefused() throws IOException {
+        new TicketExport(generator, combinations, hash, ExportFormat.CSV, directory, 500, 100, null).run(100, 1L);
+
+        BatchGenerator otherBet = new BatchGenerator(plan, combinations, 100_000);
+        assertRefused(new TicketExport(otherBet, combinations, hash, ExportFormat.CSV, directory, 500, 100, null), "bet");
+        String otherHash = new StringBuilder(hash).reverse().toString();
+        assertRefused(new TicketExport(generator, combinations, otherHash, ExportFormat.CSV, directory, 500, 100, null),
+                "configHash");
+    }
+
+    private static void assertRefused(TicketExport export, String parameter) throws IOException {
+        try {
+            export.run(100, 1L);
+            Assert.fail("Expected the resume to be refused: " + parameter);
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(parameter));
+        }
+    }
+
+    @Test
+    public void testJsonlLinesMatchTickets() throws IOException {
+        TicketExport export = new TicketExport(generator, combinations, hash, ExportFormat.JSONL, directory, 500, 64, null);
+        export.run(200, 3L);
+        List<String> lines = Files.readAllLines(export.chunkFile(0));
+        Assert.assertEquals(200, lines.size());
+        Assert.assertTrue(lines.get(5).startsWith("{\"ticket\":5,\"matrix\":[["));
+    }
+}
@@ -0,0 +1,105 @@
+package scratchgame.logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+import scratchgame.model.*;
+import scratchgame.random.RandomSource;
+
+import java.util.*;
+
+public class BatchEvaluatorTest {
+
+    private static Config config(int rows, int cols) {
+        Config config = new Config();
+        config.rows = rows;
+        config.columns = cols;
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 3));
+        config.symbols.put("C", new SymbolConfig("standard", 1.5));
+        config.symbols.put("10x", new SymbolConfig("bonus", 10, "multiply_reward"));
+        config.symbols.put("+500", new SymbolConfig("bonus", 0, "extra_bonus", 500));
+        config.symbols.put("MISS", new SymbolConfig("bonus", 0, "miss"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2, "C", 3)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("10x", 1, "+500", 1, "MISS", 2);
+
+        config.win_combinations = new LinkedHashMap<>();
+        config.win_combinations.put("same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+        config.win_combinations.put("same_symbol_5_times", new WinCombination("same_symbols", 5, 2, "same_symbols"));
+        config.win_combinations.put("same_symbol_8_times", new WinCombination("same_symbols", 8, 10, "same_symbols"));
+        WinCombination rows3 = new WinCombination("linear_symbols", null, 2, "horizontal");
+        rows3.line_family = "rows";
+        rows3.length = 3;
+        config.win_combinations.put("three_in_a_row", rows3);
+        WinCombination diagonals = new WinCombination("linear_symbols", null, 4, "diagonal");
+        diagonals.line_family = "diagonals_left_to_right";
+        diagonals.length = 3;
+        config.win_combinations.put("three_on_a_diagonal", diagonals);
+        return config;
+    }
+
+    /**
+     * Test: Batch scores equal RewardCalculator for every grid, on one-word and multi-word grid sizes.
+     */
+    @Test
+    public void testMatchesRewardCalculator() {
+        for (int size : new int[] {3, 5, 10}) {
+            assertMatches(config(size, size), size);
+        }
+    }
+
+    /**
+     * Test: Batch scores equal RewardCalculator under every bonus resolution.
+     */
+    @Test
+    public void testMatchesRewardCalculatorForEveryBonusResolution() {
+        for (BonusResolution resolution : BonusResolution.values()) {
+            for (int size : new int[] {3, 10}) {
+                Config config = config(size, size);
+                config.bonus_resolution = resolution.name();
+                config.probabilities.bonus_symbols.chance_percent = 30;
+                assertMatches(config, size);
+            }
+        }
+    }
+
+    private static void assertMatches(Config config, int size) {
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        GenerationPlan plan = GenerationPlan.compile(config, dictionary, size, size);
+        CompiledWinCombinations compiled = CompiledWinCombinations.compile(config, dictionary, size, size);
+        BatchEvaluator evaluator = new BatchEvaluator(compiled);
+
+        int cells = size * size;
+        byte[] block = new byte[BatchEvaluator.LANES * cells];
+        Grid grid = new Grid(size, size);
+        RoundScore expected = new RoundScore();
+        RoundScore actual = new RoundScore();
+        RandomSource rand = RandomSource.seeded(size);
+        int wins = 0;
+        for (int batch = 0; batch < 40; batch++) {
+            // Partial batches too
+            int count = batch % 5 == 4 ? 17 : BatchEvaluator.LANES;
+            for (int j = 0; j < count; j++) {
+                MatrixGenerator.generateGrid(plan, rand, grid);
+                System.arraycopy(grid.cells(), 0, block, j * cells, cells);
+            }
+            int bet = 1 + batch * 7;
+            evaluator.evaluate(block, 0, count, bet);
+            Assert.assertEquals(count, evaluator.size());
+            for (int j = 0; j < count; j++) {
+                System.arraycopy(block, j * cells, grid.cells(), 0, cells);
+                RewardCalculator.score(compiled, grid, bet, expected);
+                evaluator.score(j, actual);
+                Assert.assertEquals(expected.finalReward, actual.finalReward);
+                Assert.assertEquals(expected.appliedCombos, actual.appliedCombos);
+                Assert.assertEquals(expected.appliedBonus, actual.appliedBonus);
+                Assert.assertEquals(expected.rewardBeforeBonus, actual.rewardBeforeBonus, 0.0);
+                wins += expected.finalReward > 0 ? 1 : 0;
+            }
+        }
+        Assert.assertTrue(wins > 0);
+    }
+}
@@ -0,0 +1,81 @@
+package scratchgame.logic;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.model.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchGeneratorTest {
+
+    private BatchGenerator generator;
+    private CompiledWinCombinations combinations;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+        config.symbols.put("MISS", new SymbolConfig("bonus", 0, "miss"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1, "MISS", 2);
+
+        config.win_combinations = Map.of(
+                "same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"),
+                "same_symbols_horizontally", new WinCombination("linear_symbols", null, 2, "horizontal",
+                        List.of(List.of("0:0", "0:1", "0:2"))));
+
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        combinations = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+        generator = new BatchGenerator(GenerationPlan.compile(config, dictionary, 3, 3), combinations, 100);
+    }
+
+    /**
+     * Test: Splitting across threads gives exactly the same tickets.
+     */
+    @Test
+    public void testParallelFillMatchesSequential() {
+        int count = 3 * BatchGenerator.MIN_SPLIT + 17;
+        TicketBatch sequential = generator.fill(generator.newBatch(count), 0, count, 5);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TicketBatch parallel = generator.fill(generator.newBatch(count), 0, count, 5, pool);
+            Assert.assertArrayEquals(sequential.cells(), parallel.cells());
+            Assert.assertArrayEquals(sequential.rewards(), parallel.rewards());
+            Assert.assertArrayEquals(sequential.comboMasks(), parallel.comboMasks());
+            Assert.assertArrayEquals(sequential.bonuses(), parallel.bonuses());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test: A ticket only depends on its run index, and its columns match RewardCalculator.
+     */
+    @Test
+    public void testTicketsDependOnlyOnIndex() {
+        TicketBatch whole = generator.fill(generator.newBatch(300), 0, 300, 11);
+        TicketBatch slice = generator.fill(generator.newBatch(100), 150, 100, 11);
+
+        Grid a = new Grid(3, 3);
+        Grid b = new Grid(3, 3);
+        for (int i = 0; i < slice.size(); i++) {
+            Assert.assertEquals(whole.grid(150 + i, a), slice.grid(i, b));
+            Assert.assertEquals(whole.reward(150 + i), slice.reward(i));
+
+            Grid regenerated = generator.regenerate(150 + i, 11, new Grid(3, 3));
+            Assert.assertEquals(regenerated, b);
+            RoundScore score = RewardCalculator.score(combinations, regenerated, 100, new RoundScore());
+            Assert.assertEquals(score.finalReward, slice.reward(i));
+            Assert.assertEquals(score.appliedCombos, slice.comboMasks()[i]);
+            Assert.assertEquals(score.appliedBonus, slice.bonuses()[i]);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package scratchgame.logic;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.StandardSymbolsProb;
+import scratchgame.random.RandomSource;
+
+import java.util.*;
+
+public class GenerationPlanTest {
+
+    private Config config;
+
+    @Before
+    public void setup() {
+        config = new Config();
+
+        Map<String, Integer> cornerWeights = new LinkedHashMap<>();
+        cornerWeights.put("A", 1);
+        cornerWeights.put("B", 0);
+        cornerWeights.put("C", 3);
+
+        Map<String, Integer> defaultWeights = new LinkedHashMap<>();
+        defaultWeights.put("D", 2);
+
+        List<StandardSymbolsProb> standardProb = new ArrayList<>();
+        standardProb.add(new StandardSymbolsProb(0, 1, defaultWeights));
+        standardProb.add(new StandardSymbolsProb(0, 0, cornerWeights));
+
+        config.probabilities = new scratchgame.model.Probabilities();
+        config.probabilities.standard_symbols = standardProb;
+
+        Map<String, Integer> bonusWeights = new LinkedHashMap<>();
+        bonusWeights.put("5x", 10);
+        bonusWeights.put("MISS", 90);
+
+        config.probabilities.bonus_symbols = new scratchgame.model.BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = bonusWeights;
+    }
+
+    /**
+     * Test: Cumulative lookup skips zero weights and matches the weight boundaries.
+     */
+    @Test
+    public void testWeightedLookup() {
+        GenerationPlan plan = GenerationPlan.compile(config, 2, 2);
+        WeightTable corner = plan.cellTable(0);
+
+        Assert.assertEquals(4, corner.total());
+        Assert.assertEquals("A", plan.dictionary().name(corner.symbolFor(0)));
+        Assert.assertEquals("C", plan.dictionary().name(corner.symbolFor(1)));
+        Assert.assertEquals("C", plan.dictionary().name(corner.symbolFor(3)));
+        Assert.assertEquals(0, corner.weightAt(1));
+    }
+
+    /**
+     * Test: Cells without an entry fall back to the first probability entry and share its table.
+     */
+    @Test
+    public void testMissingCellsUseFirstEntry() {
+        GenerationPlan plan = GenerationPlan.compile(config, 2, 2);
+
+        Assert.assertSame(plan.cellTable(1), plan.cellTable(2));
+        Assert.assertSame(plan.cellTable(1), plan.cellTable(3));
+        Assert.assertEquals("D", plan.dictionary().name(plan.cellTable(3).symbolFor(1)));
+    }
+
+    /**
+     * Test: Bonus table is compiled with the shared symbol ordinals.
+     */
+    @Test
+    public void testBonusTable() {
+        GenerationPlan plan = GenerationPlan.compile(config, 1, 1);
+        WeightTable bonus = plan.bonusTable();
+
+        Assert.assertEquals(100, bonus.total());
+        Assert.assertEquals("5x", plan.dictionary().name(bonus.symbolFor(9)));
+        Assert.assertEquals("MISS", plan.dictionary().name(bonus.symbolFor(10)));
+    }
+
+    /**
+     * Test: A cell's own entry can override the global bonus chance; other cells use the global one.
+     */
+    @Test
+    public void testBonusChance() {
+        Assert.assertEquals(GenerationPlan.DEFAULT_BONUS_CHANCE_PERCENT, GenerationPlan.compile(config, 2, 2).bonusChancePercent(0));
+
+        config.probabilities.bonus_symbols.chance_percent = 100;
+        config.probabilities.standard_symbols.get(1).bonus_chance_percent = 0;
+        GenerationPlan plan = GenerationPlan.compile(config, 2, 2);
+        Assert.assertEquals(0, plan.bonusChancePercent(0));
+        Assert.assertEquals(100, plan.bonusChancePercent(1));
+        Assert.assertEquals(100, plan.bonusChancePercent(3));
+
+        Grid grid = MatrixGenerator.generateGrid(plan, RandomSource.seeded(1));
+        Assert.assertTrue(Set.of("A", "C").contains(plan.dictionary().name(grid.get(0))));
+        for (int i = 1; i < 4; i++) {
+            Assert.assertTrue(Set.of("5x", "MISS").contains(plan.dictionary().name(grid.get(i))));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBonusChanceOutOfRangeRejected() {
+        config.probabilities.bonus_symbols.chance_percent = 101;
+        GenerationPlan.compile(config, 1, 1);
+    }
+
+    /**
+     * Test: A table without positive weights is rejected when the plan is compiled.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroTotalWeightRejected() {
+        config.probabilities.bonus_symbols.symbols = Collections.singletonMap("MISS", 0);
+        GenerationPlan.compile(config, 1, 1);
+    }
+}
@@ -0,0 +1,92 @@
+package scratchgame.logic;
+
+import org.junit.Assert;
+import org.junit.Test;
+import scratchgame.model.CalculationResult;
+import scratchgame.model.Config;
+import scratchgame.model.SymbolConfig;
+import scratchgame.model.WinCombination;
+
+import java.util.*;
+
+public class LineFamiliesTest {
+
+    @Test
+    public void testFullLinesMatchHandWrittenAreas() {
+        Assert.assertArrayEquals(new int[][]{{0, 1, 2}, {3, 4, 5}, {6, 7, 8}},
+                LineFamilies.generate(LineFamilies.ROWS, null, null, null, 3, 3));
+        Assert.assertArrayEquals(new int[][]{{0, 3, 6}, {1, 4, 7}, {2, 5, 8}},
+                LineFamilies.generate(LineFamilies.COLUMNS, null, null, null, 3, 3));
+        Assert.assertArrayEquals(new int[][]{{0, 4, 8}},
+                LineFamilies.generate(LineFamilies.DIAGONALS_LEFT_TO_RIGHT, null, null, null, 3, 3));
+        Assert.assertArrayEquals(new int[][]{{2, 4, 6}},
+                LineFamilies.generate(LineFamilies.DIAGONALS_RIGHT_TO_LEFT, null, null, null, 3, 3));
+    }
+
+    @Test
+    public void testWindowsSlideOverLargeGrid() {
+        // 10x10 with 5-cell windows: 6 placements per row and column, 36 per diagonal direction
+        Assert.assertEquals(60, LineFamilies.generate(LineFamilies.ROWS, 5, null, null, 10, 10).length);
+        Assert.assertEquals(60, LineFamilies.generate(LineFamilies.COLUMNS, 5, null, null, 10, 10).length);
+        Assert.assertEquals(36, LineFamilies.generate(LineFamilies.DIAGONALS_LEFT_TO_RIGHT, 5, null, null, 10, 10).length);
+        int[][] rtl = LineFamilies.generate(LineFamilies.DIAGONALS_RIGHT_TO_LEFT, 5, null, null, 10, 10);
+        Assert.assertEquals(36, rtl.length);
+        Assert.assertArrayEquals(new int[]{4, 13, 22, 31, 40}, rtl[0]);
+
+        int[][] squares = LineFamilies.generate(LineFamilies.RECTANGLES, null, 2, 2, 3, 4);
+        Assert.assertEquals(6, squares.length);
+        Assert.assertArrayEquals(new int[]{0, 1, 4, 5}, squares[0]);
+        Assert.assertArrayEquals(new int[]{6, 7, 10, 11}, squares[5]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWindowLongerThanGridRejected() {
+        LineFamilies.generate(LineFamilies.ROWS, 11, null, null, 10, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFamilyRejected() {
+        Config config = new Config();
+        config.symbols = Map.of("A", new SymbolConfig("standard", 1));
+        WinCombination spiral = new WinCombination("linear_symbols", null, 2, "linear");
+        spiral.line_family = "spirals";
+        config.win_combinations = Map.of("spiral", spiral);
+        CompiledWinCombinations.compile(config, 5, 5);
+    }
+
+    /**
+     * Generated families and percentage thresholds scored on a 10x10 grid.
+     */
+    @Test
+    public void testGeneratedLinesAndScaledThreshold() {
+        Config config = new Config();
+        config.symbols = Map.of(
+                "A", new SymbolConfig("standard", 2),
+                "B", new SymbolConfig("standard", 1));
+        WinCombination rows = new WinCombination("linear_symbols", null, 3, "horizontally_linear_symbols");
+        rows.line_family = LineFamilies.ROWS;
+        rows.length = 5;
+        WinCombination majority = new WinCombination("same_symbols", null, 1, "same_symbols");
+        majority.count_percent = 50;
+        config.win_combinations = Map.of("five_in_a_row", rows, "half_the_grid", majority);
+
+        CompiledWinCombinations compiled = CompiledWinCombinations.compile(config, 10, 10);
+        Assert.assertEquals(compiled.comboId("half_the_grid"), compiled.sameComboForCount(50));
+        Assert.assertEquals(-1, compiled.sameComboForCount(49));
+
+        // A on a checkerboard except for five in a row at the end of the last row
+        String[][] matrix = new String[10][10];
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 10; c++) {
+                matrix[r][c] = (r + c) % 2 == 0 ? "A" : "B";
+            }
+        }
+        for (int c = 5; c < 10; c++) {
+            matrix[9][c] = "A";
+        }
+        CalculationResult result = RewardCalculator.calculateReward(compiled, matrix, 10);
+        Assert.assertEquals(List.of("half_the_grid", "five_in_a_row"), result.appliedCombinations.get("A"));
+        Assert.assertNull(result.appliedCombinations.get("B"));
+        Assert.assertEquals(10 * 2 * 3, result.finalReward);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Before;
 import org.junit.Test;
 import scratchgame.model.Config;
 import scratchgame.model.StandardSymbolsProb;
+import scratchgame.random.RandomSource;
 
 import java.util.*;
 
@@ -89,4 +90,15 @@ public class MatrixGeneratorTest {
         }
         Assert.assertTrue("Matrix should contain at least one bonus symbol", found);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test: The same seed replays the same matrix.
+     */
+    @Test
+    public void testSeededGenerationIsReproducible() {
+        GenerationPlan plan = GenerationPlan.compile(config, config.rows, config.columns);
+        String[][] first = MatrixGenerator.generateMatrix(plan, RandomSource.seeded(2024));
+        String[][] second = MatrixGenerator.generateMatrix(plan, RandomSource.seeded(2024));
+        Assert.assertArrayEquals(first, second);
+    }
+}
@@ -0,0 +1,130 @@
+package scratchgame.logic;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.model.*;
+
+import java.util.*;
+
+public class RewardCacheTest {
+
+    private Config config;
+    private SymbolDictionary dictionary;
+
+    @Before
+    public void setup() {
+        config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 3));
+        config.symbols.put("C", new SymbolConfig("standard", 2.5));
+        config.symbols.put("10x", new SymbolConfig("bonus", 10, "multiply_reward"));
+        config.symbols.put("+500", new SymbolConfig("bonus", 0, "extra_bonus", 500));
+        config.symbols.put("MISS", new SymbolConfig("bonus", 0, "miss"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2, "C", 3)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("10x", 1, "+500", 1, "MISS", 1);
+
+        config.win_combinations = new LinkedHashMap<>();
+        config.win_combinations.put("same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+        config.win_combinations.put("same_symbol_5_times", new WinCombination("same_symbols", 5, 2, "same_symbols"));
+        config.win_combinations.put("same_symbols_horizontally", new WinCombination("linear_symbols", null, 2, "horizontal",
+                List.of(List.of("0:0", "0:1", "0:2"), List.of("1:0", "1:1", "1:2"), List.of("2:0", "2:1", "2:2"))));
+        config.win_combinations.put("same_symbols_vertically", new WinCombination("linear_symbols", null, 2, "vertical",
+                List.of(List.of("0:0", "1:0", "2:0"), List.of("0:1", "1:1", "2:1"), List.of("0:2", "1:2", "2:2"))));
+        dictionary = SymbolDictionary.of(config);
+    }
+
+    /**
+     * Test: The full lookup table scores every grid exactly like RewardCalculator, for any bet.
+     */
+    @Test
+    public void testFullTableMatchesCalculator() {
+        CompiledWinCombinations compiled = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+        RewardCache cache = RewardCache.create(compiled, 1024);
+        Assert.assertTrue(cache.isFullTable());
+        Assert.assertEquals(262144, cache.capacity());
+
+        assertMatches(compiled, cache, 20_000);
+        Assert.assertEquals(20_000, cache.hits());
+        Assert.assertEquals(0, cache.misses());
+    }
+
+    /**
+     * Test: A small bounded cache evicts, counts hits and misses, and still matches RewardCalculator.
+     */
+    @Test
+    public void testBoundedCacheMatchesCalculator() {
+        CompiledWinCombinations compiled = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+        RewardCache cache = RewardCache.bounded(compiled, 256);
+        Assert.assertFalse(cache.isFullTable());
+
+        assertMatches(compiled, cache, 20_000);
+        Assert.assertEquals(20_000, cache.hits() + cache.misses());
+        Assert.assertTrue(cache.misses() > 0);
+        Assert.assertTrue(cache.evictions() > 0);
+
+        // Repeating one grid and its mirror image hits after the first miss
+        cache.resetStats();
+        Grid grid = Grid.fromMatrix(new String[][] {{"A", "A", "B"}, {"C", "B", "C"}, {"B", "C", "A"}}, dictionary);
+        Grid mirror = Grid.fromMatrix(new String[][] {{"B", "A", "A"}, {"C", "B", "C"}, {"A", "C", "B"}}, dictionary);
+        cache.score(grid, 100, new RoundScore());
+        cache.score(mirror, 100, new RoundScore());
+        cache.score(grid, 100, new RoundScore());
+        Assert.assertEquals(1, cache.misses());
+        Assert.assertEquals(2, cache.hits());
+    }
+
+    /**
+     * Test: Bonus symbols of the actual grid are applied on lookup under every bonus resolution.
+     */
+    @Test
+    public void testBonusResolutionsMatchCalculator() {
+        for (BonusResolution resolution : BonusResolution.values()) {
+            config.bonus_resolution = resolution.name();
+            CompiledWinCombinations compiled = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+            assertMatches(compiled, RewardCache.create(compiled, 1024), 5_000);
+        }
+    }
+
+    /**
+     * Test: Only symmetries that keep every combination's lines are used for canonical keys.
+     */
+    @Test
+    public void testSymmetriesFollowCombinationLines() {
+        CompiledWinCombinations compiled = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+        // Horizontal and vertical lines are kept by the mirrors and the 180 degree rotation only
+        Assert.assertEquals(4, RewardCache.symmetries(compiled).length);
+
+        config.win_combinations.remove("same_symbols_vertically");
+        config.win_combinations.put("same_symbols_diagonally_left_to_right", new WinCombination("linear_symbols", null, 5,
+                "ltr_diagonal", List.of(List.of("0:0", "1:1", "2:2"))));
+        compiled = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+        // Horizontal lines plus one diagonal: only the 180 degree rotation besides the identity
+        Assert.assertEquals(2, RewardCache.symmetries(compiled).length);
+    }
+
+    private void assertMatches(CompiledWinCombinations compiled, RewardCache cache, int grids) {
+        Random random = new Random(7);
+        Grid grid = new Grid(3, 3);
+        RoundScore expected = new RoundScore();
+        RoundScore actual = new RoundScore();
+        int[] bets = {1, 7, 100, 333};
+        for (int n = 0; n < grids; n++) {
+            for (int i = 0; i < grid.size(); i++) {
+                // Mostly standard symbols so that wins are common
+                grid.set(i, random.nextInt(10) == 0 ? 3 + random.nextInt(3) : random.nextInt(3));
+            }
+            int bet = bets[n % bets.length];
+            RewardCalculator.score(compiled, grid, bet, expected);
+            cache.score(grid, bet, actual);
+            Assert.assertEquals(expected.finalReward, actual.finalReward);
+            Assert.assertEquals(expected.appliedCombos, actual.appliedCombos);
+            Assert.assertEquals(expected.appliedBonus, actual.appliedBonus);
+            Assert.assertEquals(expected.rewardBeforeBonus, actual.rewardBeforeBonus, 0.0);
+        }
+    }
+}
@@ -4,11 +4,15 @@ import org.junit.Assert;
 import org.junit.Test;
 import scratchgame.model.CalculationResult;
 import scratchgame.model.Config;
+import scratchgame.model.Grid;
+import scratchgame.model.RoundScore;
 import scratchgame.model.SymbolConfig;
 import scratchgame.model.WinCombination;
 
 import java.util.*;
 
+// Also covers the deprecated Config overload, which is kept for existing callers
+@SuppressWarnings("deprecation")
 public class RewardCalculatorTest {
 
     private Config createTestConfig() {
@@ -127,4 +131,138 @@ public class RewardCalculatorTest {
         Assert.assertTrue(result.appliedCombinations.isEmpty());
         Assert.assertNull(result.appliedBonusSymbol);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCompiledCombinationsReusedAcrossRounds() {
+        CompiledWinCombinations compiled = CompiledWinCombinations.compile(createTestConfig(), 3, 3);
+
+        String[][] sameAndLine = {
+                {"A", "A", "A"},
+                {"A", "B", "C"},
+                {"D", "E", "F"}
+        };
+        CalculationResult first = RewardCalculator.calculateReward(compiled, sameAndLine, 100);
+        Assert.assertEquals(1500, first.finalReward);
+        Assert.assertEquals(List.of("same_symbol_4_times", "same_symbols_horizontally"), first.appliedCombinations.get("A"));
+
+        String[][] withExtraBonus = {
+                {"A", "A", "A"},
+                {"D", "+500", "C"},
+                {"D", "E", "F"}
+        };
+        CalculationResult second = RewardCalculator.calculateReward(compiled, withExtraBonus, 100);
+        Assert.assertEquals(1500, second.finalReward);
+        Assert.assertEquals("+500", second.appliedBonusSymbol);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoveredAreaOutsideGridRejected() {
+        Config config = createTestConfig();
+        config.win_combinations = Map.of(
+                "same_symbols_vertically", new WinCombination("linear_symbols", null, 2.0, "linear", List.of(List.of("0:3", "1:3")))
+        );
+        CompiledWinCombinations.compile(config, 3, 3);
+    }
+
+    @Test
+    public void testBreakdownRenderedOnDemand() {
+        String[][] matrix = {
+                {"C", "C", "C"},
+                {"A", "B", "E"},
+                {"F", "D", "MISS"}
+        };
+
+        CalculationResult result = RewardCalculator.calculateReward(matrix, 100, createTestConfig());
+
+        Assert.assertEquals(List.of(
+                String.format("Symbol 'C': bet(100) x symbol_multiplier(%.2f) x combo_multiplier(%.2f) = 500", 2.5, 2.0),
+                "Total winnings before bonus: 500",
+                "Bonus 'MISS' (no effect)."
+        ), result.getDetailedBreakdown());
+        Assert.assertSame(result.getDetailedBreakdown(), result.getDetailedBreakdown());
+    }
+
+    @Test
+    public void testFastPathMatchesDetailedResult() {
+        CompiledWinCombinations compiled = CompiledWinCombinations.compile(createTestConfig(), 3, 3);
+        String[][] matrix = {
+                {"F", "F", "A"},
+                {"B", "F", "B"},
+                {"F", "C", "5x"}
+        };
+        Grid grid = Grid.fromMatrix(matrix, compiled.dictionary());
+
+        CalculationResult detailed = RewardCalculator.calculateReward(compiled, grid, 200);
+        RoundScore fast = RewardCalculator.score(compiled, grid, 200, new RoundScore());
+
+        Assert.assertEquals(detailed.finalReward, fast.finalReward);
+        Assert.assertEquals(detailed.appliedBonusSymbol, compiled.dictionary().name(fast.appliedBonus));
+        Assert.assertEquals(1L << compiled.comboId("same_symbol_4_times"), fast.appliedCombos);
+    }
+
+    /**
+     * Test: Each bonus resolution applies '+500', '5x' and 'MISS' (in that grid order) to a 500 win its own way.
+     */
+    @Test
+    public void testBonusResolutions() {
+        String[][] matrix = {
+                {"C", "C", "C"},
+                {"+500", "A", "B"},
+                {"D", "5x", "MISS"}
+        };
+        Config config = createTestConfig();
+        Map<String, Long> expected = Map.of("first", 1000L, "all", 5000L, "highest", 2500L, "stacked", 3000L);
+        for (Map.Entry<String, Long> e : expected.entrySet()) {
+            config.bonus_resolution = e.getKey();
+            CalculationResult result = RewardCalculator.calculateReward(matrix, 100, config);
+            Assert.assertEquals(e.getKey(), (long) e.getValue(), result.finalReward);
+            Assert.assertEquals(e.getKey(), e.getKey().equals("highest") ? "5x" : "+500", result.appliedBonusSymbol);
+        }
+
+        config.bonus_resolution = "all";
+        Assert.assertEquals("Bonuses '+500', '5x', 'MISS' applied: (500) -> 5000",
+                RewardCalculator.calculateReward(matrix, 100, config).getDetailedBreakdown().get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownBonusResolutionRejected() {
+        Config config = createTestConfig();
+        config.bonus_resolution = "random";
+        CompiledWinCombinations.compile(config, 3, 3);
+    }
+
+    /**
+     * 81 cells need two bitboard words; the winning column spans both.
+     */
+    @Test
+    public void testLineOnGridLargerThanOneWord() {
+        List<List<String>> columns = new ArrayList<>();
+        for (int c = 0; c < 9; c++) {
+            List<String> column = new ArrayList<>();
+            for (int r = 0; r < 9; r++) {
+                column.add(r + ":" + c);
+            }
+            columns.add(column);
+        }
+        Config config = new Config();
+        config.symbols = Map.of(
+                "A", new SymbolConfig("standard", 5.0),
+                "B", new SymbolConfig("standard", 3.0));
+        config.win_combinations = Map.of(
+                "same_symbol_9_times", new WinCombination("same_symbols", 9, 1.0, "same_symbols"),
+                "same_symbols_vertically", new WinCombination("linear_symbols", null, 2.0, "vertically_linear_symbols", columns));
+
+        // A fills the last column and one cell of every other column, so B fills no column
+        String[][] matrix = new String[9][9];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                matrix[r][c] = (c == 8 || c == r) ? "A" : "B";
+            }
+        }
+        CalculationResult result = RewardCalculator.calculateReward(matrix, 10, config);
+
+        Assert.assertEquals(List.of("same_symbol_9_times", "same_symbols_vertically"), result.appliedCombinations.get("A"));
+        Assert.assertEquals(List.of("same_symbol_9_times"), result.appliedCombinations.get("B"));
+        Assert.assertEquals(10 * 5 * 2 + 10 * 3, result.finalReward);
+    }
+}
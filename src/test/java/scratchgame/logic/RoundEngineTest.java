@@ -0,0 +1,111 @@
+package scratchgame.logic;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.model.*;
+import scratchgame.random.RandomSource;
+import scratchgame.random.SeededRandomSource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+public class RoundEngineTest {
+
+    private Config config;
+    private GenerationPlan plan;
+    private CompiledWinCombinations combinations;
+
+    @Before
+    public void setup() {
+        config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("10x", new SymbolConfig("bonus", 10, "multiply_reward"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 3)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("10x", 1);
+
+        config.win_combinations = new LinkedHashMap<>();
+        config.win_combinations.put("same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+        config.win_combinations.put("same_symbols_horizontally", new WinCombination("linear_symbols", null, 2, "horizontal",
+                List.of(List.of("0:0", "0:1", "0:2"), List.of("1:0", "1:1", "1:2"), List.of("2:0", "2:1", "2:2"))));
+
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        plan = GenerationPlan.compile(config, dictionary, 3, 3);
+        combinations = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+    }
+
+    /**
+     * Test: The engine produces the same grids and rewards as generating and scoring separately.
+     */
+    @Test
+    public void testMatchesSeparateGenerationAndScoring() {
+        RoundEngine engine = new RoundEngine(plan, combinations);
+        SeededRandomSource engineRand = RandomSource.seeded(5);
+        SeededRandomSource plainRand = RandomSource.seeded(5);
+        for (int i = 0; i < 1000; i++) {
+            RoundScore score = engine.play(engineRand, 100);
+            Grid grid = MatrixGenerator.generateGrid(plan, plainRand);
+            CalculationResult expected = RewardCalculator.calculateReward(combinations, grid, 100);
+            Assert.assertEquals(grid, engine.grid());
+            Assert.assertEquals(expected.finalReward, score.finalReward);
+        }
+    }
+
+    /**
+     * Test: Steady-state rounds allocate nothing on the calling thread.
+     */
+    @Test
+    public void testSteadyStateRoundsDoNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+
+        RoundEngine engine = RoundEngine.local(plan, combinations);
+        SeededRandomSource rand = RandomSource.seeded(11);
+        long sink = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sink += engine.play(rand, 100).finalReward;
+        }
+        long before = allocations.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 20_000; i++) {
+            sink += engine.play(rand, 100).finalReward;
+        }
+        long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+
+        Assert.assertTrue(sink > 0);
+        // A single allocation per round would be well over 100 KB here; allow for the measurement itself
+        Assert.assertTrue("Allocated " + allocated + " bytes", allocated < 1024);
+        Assert.assertSame(engine, RoundEngine.local(plan, combinations));
+    }
+
+    /**
+     * Test: Released engines are handed out again for the same config only, and a seeded round
+     * regenerates the grid a seeded source gives.
+     */
+    @Test
+    public void testPooledEnginesAndSeededRounds() {
+        RoundEngine engine = RoundEngine.acquire(plan, combinations);
+        engine.release();
+        Assert.assertSame(engine, RoundEngine.acquire(plan, combinations));
+
+        CompiledWinCombinations reloaded = CompiledWinCombinations.compile(config, plan.dictionary(), 3, 3);
+        RoundEngine other = RoundEngine.acquire(plan, reloaded);
+        Assert.assertNotSame(engine, other);
+        other.release();
+        engine.release();
+
+        RoundScore score = engine.play(99L, 100);
+        Grid expected = MatrixGenerator.generateGrid(plan, RandomSource.seeded(99));
+        Assert.assertEquals(expected, engine.grid());
+        Assert.assertEquals(RewardCalculator.calculateReward(combinations, expected, 100).finalReward, score.finalReward);
+    }
+}
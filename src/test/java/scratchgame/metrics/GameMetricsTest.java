@@ -0,0 +1,90 @@
+package scratchgame.metrics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.MatrixGenerator;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.model.*;
+import scratchgame.random.RandomSource;
+
+import java.util.*;
+
+public class GameMetricsTest {
+
+    private GenerationPlan plan;
+    private CompiledWinCombinations combinations;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("+100", new SymbolConfig("bonus", 0, "extra_bonus", 100));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("+100", 1);
+
+        config.win_combinations = Map.of(
+                "same_symbol_5_times", new WinCombination("same_symbols", 5, 1, "same_symbols"));
+
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        plan = GenerationPlan.compile(config, dictionary, 3, 3);
+        combinations = CompiledWinCombinations.compile(config, dictionary, 3, 3);
+        GameMetrics.reset();
+    }
+
+    @After
+    public void teardown() {
+        GameMetrics.setEnabled(false);
+        GameMetrics.setLatencySampling(16);
+        GameMetrics.reset();
+    }
+
+    @Test
+    public void testCountersMatchPlayedRounds() {
+        GameMetrics.setEnabled(true);
+        GameMetrics.setLatencySampling(1);
+
+        RandomSource rand = RandomSource.seeded(11);
+        RoundScore score = new RoundScore();
+        long wins = 0;
+        long paid = 0;
+        long combo = 0;
+        long bonus = 0;
+        for (int i = 0; i < 2000; i++) {
+            Grid grid = MatrixGenerator.generateGrid(plan, rand);
+            RewardCalculator.score(combinations, grid, 10, score);
+            if (score.finalReward > 0) {
+                wins++;
+                paid += score.finalReward;
+            }
+            combo += Long.bitCount(score.appliedCombos);
+            bonus += score.appliedBonus == SymbolDictionary.UNKNOWN ? 0 : 1;
+        }
+
+        MetricsSnapshot snapshot = GameMetrics.snapshot();
+        Assert.assertEquals(2000, snapshot.rounds);
+        Assert.assertEquals(wins, snapshot.wins);
+        Assert.assertEquals(paid, snapshot.totalPaid);
+        Assert.assertEquals(combo, (long) snapshot.comboWins.get("same_symbol_5_times"));
+        Assert.assertEquals(bonus, (long) snapshot.bonusHits.get("+100"));
+        Assert.assertEquals(2000, snapshot.generation.count());
+        Assert.assertEquals(2000, snapshot.scoring.count());
+        Assert.assertTrue(snapshot.format().contains("rounds 2000"));
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() {
+        RewardCalculator.score(combinations, MatrixGenerator.generateGrid(plan, RandomSource.seeded(1)), 10, new RoundScore());
+        MetricsSnapshot snapshot = GameMetrics.snapshot();
+        Assert.assertEquals(0, snapshot.rounds);
+        Assert.assertEquals(0, snapshot.generation.count());
+    }
+}
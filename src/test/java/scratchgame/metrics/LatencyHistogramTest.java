@@ -0,0 +1,37 @@
+package scratchgame.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguousAndTight() {
+        for (int b = 0; b < LatencyHistogram.BUCKETS - 1; b++) {
+            Assert.assertEquals(LatencyHistogram.upperBound(b) + 1, LatencyHistogram.lowerBound(b + 1));
+        }
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.BUCKETS - 1));
+        for (long v : new long[]{0, 1, 31, 32, 33, 63, 64, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int b = LatencyHistogram.bucketOf(v);
+            Assert.assertTrue(v >= LatencyHistogram.lowerBound(b) && v <= LatencyHistogram.upperBound(b));
+            Assert.assertTrue(LatencyHistogram.upperBound(b) - v <= v / 32);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 100L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1000, snapshot.count());
+        Assert.assertEquals(50_000, snapshot.percentile(50), 50_000 / 32.0);
+        Assert.assertEquals(99_000, snapshot.percentile(99), 99_000 / 32.0);
+        Assert.assertEquals(100_000, snapshot.max(), 100_000 / 32.0);
+        Assert.assertEquals(50_050, snapshot.mean(), 50_050 / 32.0);
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.snapshot().count());
+    }
+}
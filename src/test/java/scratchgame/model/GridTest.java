@@ -0,0 +1,56 @@
+package scratchgame.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class GridTest {
+
+    private Config createTestConfig() {
+        Config config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("5x", new SymbolConfig("bonus", 5.0, "multiply_reward"));
+        config.symbols.put("A", new SymbolConfig("standard", 5.0));
+        config.symbols.put("B", new SymbolConfig("standard", 3.0));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "Z", 1)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1);
+        return config;
+    }
+
+    /**
+     * Test: Standard symbols get the lowest ordinals, then bonus, then probability-only symbols.
+     */
+    @Test
+    public void testDictionaryOrdering() {
+        SymbolDictionary dictionary = SymbolDictionary.of(createTestConfig());
+
+        Assert.assertEquals(4, dictionary.size());
+        Assert.assertEquals(2, dictionary.standardCount());
+        Assert.assertEquals(0, dictionary.ordinal("A"));
+        Assert.assertEquals(1, dictionary.ordinal("B"));
+        Assert.assertTrue(dictionary.isBonus(dictionary.ordinal("5x")));
+        Assert.assertFalse(dictionary.isStandard(dictionary.ordinal("Z")));
+        Assert.assertFalse(dictionary.isBonus(dictionary.ordinal("Z")));
+        Assert.assertEquals(SymbolDictionary.UNKNOWN, dictionary.ordinal("X"));
+    }
+
+    /**
+     * Test: Encoding a matrix and materializing it again gives back the same symbols.
+     */
+    @Test
+    public void testMatrixRoundTrip() {
+        SymbolDictionary dictionary = SymbolDictionary.of(createTestConfig());
+        String[][] matrix = {{"A", "B", "5x"}, {"Z", "A", "B"}};
+
+        Grid grid = Grid.fromMatrix(matrix, dictionary);
+
+        Assert.assertEquals(2, grid.rows());
+        Assert.assertEquals(3, grid.cols());
+        Assert.assertEquals(dictionary.ordinal("Z"), grid.get(1, 0));
+        Assert.assertArrayEquals(matrix, grid.toMatrix(dictionary));
+    }
+}
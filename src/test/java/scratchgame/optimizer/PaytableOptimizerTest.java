@@ -0,0 +1,101 @@
+package scratchgame.optimizer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.model.*;
+import scratchgame.simulation.ExactCalculator;
+import scratchgame.simulation.ExactResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class PaytableOptimizerTest {
+
+    private Config config;
+
+    @Before
+    public void setup() {
+        config = new Config();
+        config.rows = 2;
+        config.columns = 3;
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 1));
+        config.symbols.put("C", new SymbolConfig("standard", 0.2));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+        config.symbols.put("+100", new SymbolConfig("bonus", 0, "extra_bonus", 100));
+        config.symbols.put("MISS", new SymbolConfig("bonus", 0, "miss"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(
+                new StandardSymbolsProb(0, 0, new LinkedHashMap<>(Map.of("A", 1, "B", 3, "C", 6))),
+                new StandardSymbolsProb(1, 2, new LinkedHashMap<>(Map.of("A", 2, "B", 3, "C", 5))));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = new LinkedHashMap<>(Map.of("5x", 1, "+100", 1, "MISS", 8));
+
+        config.win_combinations = new LinkedHashMap<>();
+        config.win_combinations.put("same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+        config.win_combinations.put("same_symbol_4_times", new WinCombination("same_symbols", 4, 2, "same_symbols"));
+        config.win_combinations.put("same_symbols_horizontally", new WinCombination("linear_symbols", null, 3, "horizontal",
+                List.of(List.of("0:0", "0:1", "0:2"), List.of("1:0", "1:1", "1:2"))));
+    }
+
+    /**
+     * Test: At the weights the sample was drawn with, the estimate is the plain sample mean.
+     */
+    @Test
+    public void testEstimateAtSampledWeightsIsSampleMean() {
+        PaytableOptimizer optimizer = new PaytableOptimizer(config, 2, 3, 100, 20_000, null);
+        WeightSpace space = new WeightSpace(config, SymbolDictionary.of(config), 2, 3);
+        WeightedSample sample = optimizer.sample(space.weights(new double[space.dimensions()]), 7);
+        WeightedSample.Estimate estimate = sample.estimate(sample.weights());
+
+        Assert.assertEquals(20_000, sample.rounds());
+        Assert.assertEquals(1.0, estimate.effectiveSampleSize, 1e-9);
+        Assert.assertTrue(estimate.rtp > 0);
+        Assert.assertTrue(estimate.hitRate > 0 && estimate.hitRate < 1);
+
+        // The origin of the space reproduces the config's proportions
+        ExactResult exact = exact(ConfigSnapshot.of(space.toConfig(sample.weights())));
+        ExactResult original = exact(ConfigSnapshot.of(config));
+        Assert.assertEquals(original.rtp(), exact.rtp(), 1e-9);
+        Assert.assertEquals(original.rtp(), estimate.rtp, 4 * estimate.rtpConfidence95);
+    }
+
+    /**
+     * Test: The optimizer reaches a lower target RTP, confirmed exactly, and the config it writes loads back.
+     */
+    @Test
+    public void testReachesTargetRtp() throws IOException {
+        double original = exact(ConfigSnapshot.of(config)).rtp();
+        OptimizationTarget target = new OptimizationTarget(0.8 * original);
+        target.rtpTolerance = 0.02;
+
+        PaytableOptimizer optimizer = new PaytableOptimizer(config, 2, 3, 100, 50_000, null);
+        PaytableOptimizer.Result result = optimizer.optimize(target, 60, 8, 42);
+        Assert.assertTrue(result.estimate.format(), result.met);
+
+        Path file = Files.createTempFile("optimized", ".json");
+        try {
+            PaytableOptimizer.write(result.config, file);
+            ConfigSnapshot snapshot = ConfigSnapshot.load(file);
+            double rtp = exact(snapshot).rtp();
+            Assert.assertEquals(target.rtp, rtp, 2 * target.rtpTolerance);
+            Assert.assertEquals(2, snapshot.rows());
+            Assert.assertEquals(3, snapshot.cols());
+            // Only weights change
+            Assert.assertEquals(config.win_combinations.keySet(), result.config.win_combinations.keySet());
+            Assert.assertEquals(config.symbols.keySet(), result.config.symbols.keySet());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static ExactResult exact(ConfigSnapshot snapshot) {
+        return new ExactCalculator(snapshot.plan(), snapshot.combinations()).calculate(100);
+    }
+}
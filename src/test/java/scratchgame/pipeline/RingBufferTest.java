@@ -0,0 +1,73 @@
+package scratchgame.pipeline;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RingBufferTest {
+
+    @Test
+    public void testBoundedFifo() {
+        RingBuffer<Integer> ring = new RingBuffer<>(3);
+        Assert.assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(ring.offer(i));
+        }
+        Assert.assertFalse(ring.offer(4));
+        Assert.assertEquals(Integer.valueOf(0), ring.poll());
+        Assert.assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertEquals(Integer.valueOf(i), ring.poll());
+        }
+        Assert.assertNull(ring.poll());
+    }
+
+    /**
+     * Test: Items put and taken concurrently by several producers and consumers are each
+     * delivered exactly once, and take returns null once the ring is closed and drained.
+     */
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        RingBuffer<Long> ring = new RingBuffer<>(8);
+        int producers = 3;
+        int consumers = 2;
+        long perProducer = 20_000;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+
+        Thread[] threads = new Thread[producers + consumers];
+        for (int p = 0; p < producers; p++) {
+            long base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    Assert.assertTrue(ring.put(base + i));
+                }
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads[producers + c] = new Thread(() -> {
+                Long item;
+                while ((item = ring.take()) != null) {
+                    sum.addAndGet(item);
+                    count.incrementAndGet();
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (int p = 0; p < producers; p++) {
+            threads[p].join();
+        }
+        ring.close();
+        for (int c = 0; c < consumers; c++) {
+            threads[producers + c].join();
+        }
+
+        long total = producers * perProducer;
+        Assert.assertEquals(total, count.get());
+        Assert.assertEquals(total * (total - 1) / 2, sum.get());
+        Assert.assertFalse(ring.put(1L));
+    }
+}
@@ -0,0 +1,177 @@
+package scratchgame.pipeline;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.audit.AuditLog;
+import scratchgame.audit.AuditReplay;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.logic.BatchGenerator;
+import scratchgame.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class TicketPipelineTest {
+
+    private ConfigSnapshot snapshot;
+    private BatchGenerator generator;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.rows = 3;
+        config.columns = 3;
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("C", new SymbolConfig("standard", 1));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+        config.symbols.put("+500", new SymbolConfig("bonus", 0, "extra_bonus", 500));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2, "C", 3)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1, "+500", 2);
+
+        config.win_combinations = Map.of(
+                "same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"),
+                "same_symbol_4_times", new WinCombination("same_symbols", 4, 2, "same_symbols"));
+        snapshot = ConfigSnapshot.of(config);
+        generator = new BatchGenerator(snapshot.plan(), snapshot.combinations(), 100);
+    }
+
+    /**
+     * Test: For any parallelism, batch size and depth, the sink receives exactly the tickets
+     * the batch generator produces for the seed, in ticket order.
+     */
+    @Test
+    public void testOutputMatchesBatchGenerator() throws IOException {
+        TicketBatch expected = generator.fill(generator.newBatch(5000), 100, 5000, 42L);
+        int[][] shapes = {{1, 1, 256, 2}, {3, 2, 100, 4}, {2, 3, 777, 16}, {1, 4, 64, 3}};
+        for (int[] shape : shapes) {
+            TicketPipeline pipeline = new TicketPipeline(generator, shape[0], shape[1], shape[2], shape[3]);
+            Collector collector = new Collector(5000);
+            pipeline.run(100, 5100, 42L, collector);
+
+            String label = Arrays.toString(shape);
+            Assert.assertEquals(label, 5000, collector.size);
+            Assert.assertArrayEquals(label, expected.cells(), collector.cells);
+            Assert.assertArrayEquals(label, expected.rewards(), collector.rewards);
+            Assert.assertArrayEquals(label, expected.comboMasks(), collector.comboMasks);
+            Assert.assertArrayEquals(label, expected.bonuses(), collector.bonuses);
+            for (StageStats stage : pipeline.stages()) {
+                Assert.assertEquals(label + " " + stage.name(), 5000, stage.tickets());
+            }
+        }
+    }
+
+    /**
+     * Test: A slow sink holds every batch, so generators wait for free ones instead of running ahead.
+     */
+    @Test
+    public void testSlowSinkBackpressuresGenerators() throws IOException {
+        TicketPipeline pipeline = new TicketPipeline(generator, 2, 1, 64, 3);
+        int[] maxAhead = new int[1];
+        pipeline.run(0, 64 * 20, 1L, batch -> {
+            long generated = pipeline.stages().get(0).tickets();
+            long consumed = pipeline.stages().get(2).tickets();
+            maxAhead[0] = (int) Math.max(maxAhead[0], generated - consumed);
+            sleep(2);
+        });
+        // Never more batches generated than the depth holds
+        Assert.assertTrue("ran ahead by " + maxAhead[0], maxAhead[0] <= 3 * 64);
+        Assert.assertTrue(pipeline.stages().get(0).waitNanos() > 0);
+        Assert.assertEquals("sink", pipeline.bottleneck().name());
+        Assert.assertTrue(pipeline.report(), pipeline.report().contains("bottleneck: sink"));
+    }
+
+    /**
+     * Test: A failing sink stops the run and its exception reaches the caller; the pipeline stays usable.
+     */
+    @Test
+    public void testSinkFailureIsRethrown() throws IOException {
+        TicketPipeline pipeline = new TicketPipeline(generator, 2, 2, 32, 4);
+        int[] calls = new int[1];
+        try {
+            pipeline.run(0, 10_000, 1L, batch -> {
+                if (++calls[0] == 3) {
+                    throw new IOException("disk full");
+                }
+            });
+            Assert.fail("Expected the sink's exception");
+        } catch (IOException e) {
+            Assert.assertEquals("disk full", e.getMessage());
+        }
+        Assert.assertEquals(3, calls[0]);
+
+        Collector collector = new Collector(1000);
+        pipeline.run(0, 1000, 1L, collector);
+        Assert.assertEquals(1000, collector.size);
+    }
+
+    /**
+     * Test: Tickets recorded through the audit sink replay like audited rounds.
+     */
+    @Test
+    public void testAuditSinkRecordsReplay() throws IOException {
+        Path log = Files.createTempFile("pipeline-audit", ".log");
+        try {
+            try (AuditLog audit = new AuditLog(log)) {
+                new TicketPipeline(generator, 2, 1, 50, 4).run(0, 300, 9L, new AuditSink(audit, snapshot.hash(), 100, 9L));
+                audit.sync();
+            }
+            AuditReplay.Report report = new AuditReplay(List.of(snapshot)).verifyAll(log);
+            Assert.assertEquals(300, report.records);
+            Assert.assertEquals(300, report.verified);
+            Assert.assertEquals(generator.fill(generator.newBatch(300), 0, 300, 9L).reward(123),
+                    AuditReplay.find(log, 123).reward);
+        } finally {
+            Files.delete(log);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelismRejected() {
+        TicketPipeline.parseParallelism("4");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Collector implements TicketSink {
+        final byte[] cells;
+        final long[] rewards;
+        final long[] comboMasks;
+        final byte[] bonuses;
+        int size;
+        long nextTicket = -1;
+
+        Collector(int capacity) {
+            cells = new byte[capacity * 9];
+            rewards = new long[capacity];
+            comboMasks = new long[capacity];
+            bonuses = new byte[capacity];
+        }
+
+        @Override
+        public void accept(TicketBatch batch) {
+            if (nextTicket >= 0) {
+                Assert.assertEquals(nextTicket, batch.firstTicket());
+            }
+            System.arraycopy(batch.cells(), 0, cells, size * 9, batch.size() * 9);
+            System.arraycopy(batch.rewards(), 0, rewards, size, batch.size());
+            System.arraycopy(batch.comboMasks(), 0, comboMasks, size, batch.size());
+            System.arraycopy(batch.bonuses(), 0, bonuses, size, batch.size());
+            size += batch.size();
+            nextTicket = batch.firstTicket() + batch.size();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package scratchgame.pool;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.model.*;
+import scratchgame.simulation.ExactCalculator;
+
+import java.util.*;
+
+public class TicketPoolBuilderTest {
+
+    private GenerationPlan plan;
+    private CompiledWinCombinations combinations;
+    private TicketPoolBuilder builder;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("C", new SymbolConfig("standard", 1));
+        config.symbols.put("+100", new SymbolConfig("bonus", 0, "extra_bonus", 100));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2, "C", 3)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("+100", 1);
+
+        config.win_combinations = Map.of(
+                "same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        plan = GenerationPlan.compile(config, dictionary, 2, 3);
+        combinations = CompiledWinCombinations.compile(config, dictionary, 2, 3);
+        builder = new TicketPoolBuilder(plan, combinations, 10);
+    }
+
+    @Test
+    public void testPoolMatchesPrizeTableExactly() {
+        PrizeTable prizes = PrizeTable.parse("0:500, 10:150, 20:60, 110:20");
+        TicketPool pool = builder.build(prizes, 99L, 10_000_000L, null);
+        Assert.assertEquals(730, pool.size());
+
+        Map<Long, Integer> issued = new TreeMap<>();
+        Set<Integer> serials = new HashSet<>();
+        PoolTicket ticket;
+        while ((ticket = pool.issue()) != null) {
+            Assert.assertTrue(serials.add(ticket.serial));
+            Assert.assertEquals("Stored grid must score its payout", ticket.payout,
+                    RewardCalculator.calculateReward(combinations, ticket.grid, 10).finalReward);
+            issued.merge(ticket.payout, 1, Integer::sum);
+        }
+        Assert.assertEquals(Map.of(0L, 500, 10L, 150, 20L, 60, 110L, 20), issued);
+        Assert.assertEquals(0, pool.remaining());
+        Assert.assertNull(pool.issue());
+    }
+
+    @Test
+    public void testIssuanceOrderIsReproducibleAndShuffled() {
+        PrizeTable prizes = PrizeTable.parse("0:300,10:100");
+        TicketPool first = builder.build(prizes, 5L, 10_000_000L, null);
+        TicketPool second = builder.build(prizes, 5L, 10_000_000L, null);
+
+        int leadingLosers = 0;
+        for (int i = 0; i < first.size(); i++) {
+            PoolTicket a = first.issue();
+            PoolTicket b = second.issue();
+            Assert.assertEquals(a.sourceTicket, b.sourceTicket);
+            Assert.assertEquals(a.grid, b.grid);
+            if (a.payout == 0 && leadingLosers == i) {
+                leadingLosers++;
+            }
+        }
+        Assert.assertTrue("Winners must not all come last", leadingLosers < 300);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnreachablePayoutFails() {
+        builder.build(PrizeTable.parse("0:10,12345:1"), 1L, 100_000L, null);
+    }
+
+    @Test
+    public void testScaledFromExactDistribution() {
+        PrizeTable prizes = PrizeTable.fromDistribution(new ExactCalculator(plan, combinations).calculate(10), 1000);
+        Assert.assertEquals(1000, prizes.total());
+        Assert.assertEquals(prizes.total(), builder.build(prizes, 3L, 10_000_000L, null).size());
+    }
+}
@@ -0,0 +1,51 @@
+package scratchgame.random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SeededRandomSourceTest {
+
+    /**
+     * Test: The same seed yields the same stream, also after reseeding.
+     */
+    @Test
+    public void testSameSeedSameStream() {
+        SeededRandomSource first = RandomSource.seeded(42);
+        SeededRandomSource second = RandomSource.seeded(42);
+        long[] values = new long[16];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = first.nextLong();
+            Assert.assertEquals(values[i], second.nextLong());
+        }
+
+        first.reseed(42);
+        for (long value : values) {
+            Assert.assertEquals(value, first.nextLong());
+        }
+        Assert.assertEquals(42, first.seed());
+    }
+
+    /**
+     * Test: Bounded values stay in range for power-of-two and other bounds.
+     */
+    @Test
+    public void testNextIntBounds() {
+        SeededRandomSource rand = RandomSource.seeded(7);
+        int[] hits = new int[7];
+        for (int i = 0; i < 7000; i++) {
+            int v = rand.nextInt(7);
+            Assert.assertTrue(v >= 0 && v < 7);
+            hits[v]++;
+            int p = rand.nextInt(64);
+            Assert.assertTrue(p >= 0 && p < 64);
+        }
+        for (int h : hits) {
+            Assert.assertTrue("every value should appear", h > 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveBound() {
+        RandomSource.seeded(1).nextInt(0);
+    }
+}
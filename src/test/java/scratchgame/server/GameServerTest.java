@@ -0,0 +1,109 @@
+package scratchgame.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.audit.AuditLog;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class GameServerTest {
+
+    private ConfigSnapshot snapshot;
+    private GameServer server;
+
+    @Before
+    public void setup() throws IOException {
+        Config config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 1)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1);
+
+        config.win_combinations = Map.of(
+                "same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+
+        snapshot = ConfigSnapshot.of(config);
+        server = new GameServer(() -> snapshot, 0, 4);
+        server.start();
+    }
+
+    @After
+    public void teardown() {
+        server.stop();
+    }
+
+    @Test
+    public void testPlayReturnsRound() throws IOException {
+        HttpURLConnection connection = open("/play?bet=10");
+        Assert.assertEquals(200, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            JsonNode round = new ObjectMapper().readTree(in);
+            Assert.assertEquals(10, round.get("bet").asInt());
+            Assert.assertEquals(3, round.get("matrix").size());
+            Assert.assertEquals(3, round.get("matrix").get(0).size());
+            Assert.assertTrue(round.has("applied_winning_combinations"));
+        }
+    }
+
+    @Test
+    public void testInvalidBetIsRejected() throws IOException {
+        Assert.assertEquals(400, open("/play?bet=-5").getResponseCode());
+        Assert.assertEquals(400, open("/play?bet=abc").getResponseCode());
+    }
+
+    /**
+     * Test: Only an unavailable audit log answers 503; any other failure of the round is a 500.
+     */
+    @Test
+    public void testAuditOutageAndOtherFailuresAreToldApart() throws IOException {
+        Path file = Files.createTempFile("server-audit", ".log");
+        AuditLog audit = new AuditLog(file);
+        audit.close();
+        GameServer audited = new GameServer(() -> snapshot, 0, 2, audit);
+        GameServer broken = new GameServer(() -> {
+            throw new IllegalStateException("no config");
+        }, 0, 2);
+        audited.start();
+        broken.start();
+        try {
+            Assert.assertEquals(503, open(audited, "/play").getResponseCode());
+            Assert.assertEquals(500, open(broken, "/play").getResponseCode());
+        } finally {
+            audited.stop();
+            broken.stop();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testParseBetDefaults() {
+        Assert.assertEquals(GameServer.DEFAULT_BET, GameServer.parseBet(null));
+        Assert.assertEquals(GameServer.DEFAULT_BET, GameServer.parseBet("x=1"));
+        Assert.assertEquals(25, GameServer.parseBet("x=1&bet=25"));
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return open(server, path);
+    }
+
+    private static HttpURLConnection open(GameServer target, String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + target.port() + path).openConnection();
+    }
+}
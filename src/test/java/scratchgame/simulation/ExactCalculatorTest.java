@@ -0,0 +1,141 @@
+package scratchgame.simulation;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.logic.BonusResolution;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.logic.RewardCalculator;
+import scratchgame.logic.WeightTable;
+import scratchgame.model.*;
+
+import java.util.*;
+
+public class ExactCalculatorTest {
+
+    private Config config;
+    private GenerationPlan plan;
+    private CompiledWinCombinations combinations;
+
+    @Before
+    public void setup() {
+        config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 1.5));
+        config.symbols.put("5x", new SymbolConfig("bonus", 5, "multiply_reward"));
+        config.symbols.put("+100", new SymbolConfig("bonus", 0, "extra_bonus", 100));
+        config.symbols.put("MISS", new SymbolConfig("bonus", 0, "miss"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(
+                new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 2, "Z", 1)),
+                new StandardSymbolsProb(1, 2, Map.of("A", 3, "B", 1)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1, "+100", 2, "MISS", 3);
+
+        config.win_combinations = new LinkedHashMap<>();
+        config.win_combinations.put("same_symbol_2_times", new WinCombination("same_symbols", 2, 1, "same_symbols"));
+        config.win_combinations.put("same_symbol_3_times", new WinCombination("same_symbols", 3, 2, "same_symbols"));
+        config.win_combinations.put("same_symbol_5_times", new WinCombination("same_symbols", 5, 4, "same_symbols"));
+        config.win_combinations.put("same_symbols_horizontally", new WinCombination("linear_symbols", null, 3, "horizontal",
+                List.of(List.of("0:0", "0:1", "0:2"), List.of("1:0", "1:1", "1:2"))));
+        config.win_combinations.put("same_symbols_vertically", new WinCombination("linear_symbols", null, 2, "vertical",
+                List.of(List.of("0:0", "1:0"), List.of("0:1", "1:1"), List.of("0:2", "1:2"))));
+        config.win_combinations.put("same_symbols_diagonally", new WinCombination("linear_symbols", null, 7, "same_symbols",
+                List.of(List.of("0:0", "1:1"))));
+
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        plan = GenerationPlan.compile(config, dictionary, 2, 3);
+        combinations = CompiledWinCombinations.compile(config, dictionary, 2, 3);
+    }
+
+    /**
+     * Test: The DP distribution equals scoring every possible grid with RewardCalculator.
+     */
+    @Test
+    public void testMatchesBruteForceEnumeration() {
+        ExactResult exact = new ExactCalculator(plan, combinations).calculate(100);
+        Map<Long, Double> expected = bruteForce(100);
+
+        Assert.assertEquals(expected.keySet(), exact.distribution().keySet());
+        for (Map.Entry<Long, Double> e : expected.entrySet()) {
+            Assert.assertEquals("payout " + e.getKey(), e.getValue(), exact.probability(e.getKey()), 1e-12);
+        }
+        double total = 0;
+        for (double p : exact.distribution().values()) {
+            total += p;
+        }
+        Assert.assertEquals(1.0, total, 1e-12);
+    }
+
+    /**
+     * Test: Every bonus resolution, with per-cell bonus chances, matches brute-force enumeration.
+     */
+    @Test
+    public void testBonusResolutionsMatchBruteForce() {
+        config.symbols.put("2x", new SymbolConfig("bonus", 2, "multiply_reward"));
+        config.probabilities.bonus_symbols.symbols = Map.of("5x", 1, "2x", 2, "+100", 2, "MISS", 3);
+        config.probabilities.bonus_symbols.chance_percent = 30;
+        config.probabilities.standard_symbols.get(1).bonus_chance_percent = 60;
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        plan = GenerationPlan.compile(config, dictionary, 2, 3);
+        Assert.assertEquals(60, plan.bonusChancePercent(5));
+
+        for (BonusResolution resolution : BonusResolution.values()) {
+            config.bonus_resolution = resolution.name().toLowerCase();
+            combinations = CompiledWinCombinations.compile(config, dictionary, 2, 3);
+            ExactResult exact = new ExactCalculator(plan, combinations).calculate(100);
+            Map<Long, Double> expected = bruteForce(100);
+
+            Assert.assertEquals(resolution.name(), expected.keySet(), exact.distribution().keySet());
+            for (Map.Entry<Long, Double> e : expected.entrySet()) {
+                Assert.assertEquals(resolution + " payout " + e.getKey(), e.getValue(), exact.probability(e.getKey()), 1e-12);
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStateLimit() {
+        new ExactCalculator(plan, combinations, 10).calculate(100);
+    }
+
+    private Map<Long, Double> bruteForce(int bet) {
+        int cells = plan.rows() * plan.cols();
+        double[][] perCell = new double[cells][plan.dictionary().size()];
+        for (int c = 0; c < cells; c++) {
+            add(perCell[c], plan.cellTable(c), 1 - plan.bonusChancePercent(c) / 100.0);
+            add(perCell[c], plan.bonusTable(), plan.bonusChancePercent(c) / 100.0);
+        }
+
+        Map<Long, Double> result = new TreeMap<>();
+        Grid grid = new Grid(plan.rows(), plan.cols());
+        int symbols = plan.dictionary().size();
+        int[] digits = new int[cells];
+        while (true) {
+            double p = 1;
+            for (int c = 0; c < cells; c++) {
+                grid.set(c, digits[c]);
+                p *= perCell[c][digits[c]];
+            }
+            if (p > 0) {
+                long payout = RewardCalculator.calculateReward(combinations, grid, bet).finalReward;
+                result.merge(payout, p, Double::sum);
+            }
+            int i = 0;
+            while (i < cells && ++digits[i] == symbols) {
+                digits[i++] = 0;
+            }
+            if (i == cells) {
+                return result;
+            }
+        }
+    }
+
+    private static void add(double[] byOrdinal, WeightTable table, double weight) {
+        for (int i = 0; i < table.size(); i++) {
+            byOrdinal[table.symbolAt(i)] += weight * table.weightAt(i) / table.total();
+        }
+    }
+}
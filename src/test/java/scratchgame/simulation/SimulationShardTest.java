@@ -0,0 +1,150 @@
+package scratchgame.simulation;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.config.ConfigSnapshot;
+import scratchgame.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class SimulationShardTest {
+
+    private static final long ROUNDS = 5L * Simulator.CHUNK_ROUNDS + 999;
+
+    private Path directory;
+    private ConfigSnapshot snapshot;
+    private Simulator simulator;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("shards");
+
+        Config config = new Config();
+        config.rows = 3;
+        config.columns = 3;
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("10x", new SymbolConfig("bonus", 10, "multiply_reward"));
+        config.symbols.put("+250", new SymbolConfig("bonus", 0, "extra_bonus", 250));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 3)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("10x", 1, "+250", 3);
+
+        config.win_combinations = new LinkedHashMap<>();
+        config.win_combinations.put("same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+        config.win_combinations.put("same_symbols_horizontally", new WinCombination("linear_symbols", null, 2, "horizontal",
+                List.of(List.of("0:0", "0:1", "0:2"), List.of("1:0", "1:1", "1:2"), List.of("2:0", "2:1", "2:2"))));
+        snapshot = ConfigSnapshot.of(config);
+        simulator = new Simulator(snapshot.plan(), snapshot.combinations(), 100);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Test: Shards written to files and merged give exactly the statistics of a single-process run.
+     */
+    @Test
+    public void testMergedShardsEqualSingleRun() throws IOException {
+        SimulationStats single = simulator.run(ROUNDS, 77, 2);
+        for (int shard = 0; shard < 4; shard++) {
+            SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 77, shard, 4, 1)
+                    .write(directory.resolve(SimulationShard.fileName(shard, 4)));
+        }
+        SimulationShard merged = SimulationShard.merge(SimulationShard.readAll(directory));
+
+        SimulationStats stats = merged.stats;
+        Assert.assertEquals(snapshot.hash(), merged.configHash);
+        Assert.assertEquals(100, merged.bet);
+        Assert.assertEquals(4, merged.threads);
+        Assert.assertEquals(single.rounds(), stats.rounds());
+        Assert.assertEquals(single.hits(), stats.hits());
+        Assert.assertEquals(single.totalPaid(), stats.totalPaid());
+        Assert.assertEquals(single.maxWin(), stats.maxWin());
+        Assert.assertArrayEquals(single.comboHits, stats.comboHits);
+        Assert.assertArrayEquals(single.bonusHits, stats.bonusHits);
+        Assert.assertArrayEquals(single.histogram().payouts(), stats.histogram().payouts());
+        for (long payout : single.histogram().payouts()) {
+            Assert.assertEquals(single.histogram().count(payout), stats.histogram().count(payout));
+        }
+        Assert.assertEquals(single.variance(100), stats.variance(100), 0.0);
+    }
+
+    /**
+     * Test: More shards than chunks leaves some shards empty, and they still merge.
+     */
+    @Test
+    public void testMoreShardsThanChunks() {
+        List<SimulationShard> shards = new ArrayList<>();
+        for (int shard = 0; shard < 9; shard++) {
+            shards.add(SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 5, shard, 9, 1));
+        }
+        Collections.reverse(shards);
+        Assert.assertEquals(simulator.run(ROUNDS, 5, 1).totalPaid(), SimulationShard.merge(shards).stats.totalPaid());
+    }
+
+    /**
+     * Test: A rerun with a different shard count and seed into the same directory merges only its own files.
+     */
+    @Test
+    public void testRerunIgnoresStaleShardFiles() throws IOException {
+        for (int shard = 0; shard < 3; shard++) {
+            SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 8, shard, 3, 1)
+                    .write(directory.resolve(SimulationShard.fileName(shard, 3)));
+        }
+        for (int shard = 0; shard < 2; shard++) {
+            SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 9, shard, 2, 1)
+                    .write(directory.resolve(SimulationShard.fileName(shard, 2)));
+        }
+
+        assertRejected(SimulationShard.readAll(directory), "different run");
+        SimulationShard merged = SimulationShard.merge(SimulationShard.readAll(directory, 2));
+        Assert.assertEquals(9, merged.seed);
+        Assert.assertEquals(simulator.run(ROUNDS, 9, 1).totalPaid(), merged.stats.totalPaid());
+    }
+
+    @Test
+    public void testMissingOrForeignShardRejected() {
+        SimulationShard first = SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 3, 0, 3, 1);
+        SimulationShard second = SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 3, 1, 3, 1);
+        SimulationShard third = SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 3, 2, 3, 1);
+        SimulationShard otherSeed = SimulationShard.run(simulator, snapshot.hash(), ROUNDS, 4, 2, 3, 1);
+
+        assertRejected(List.of(first, third), "missing");
+        assertRejected(List.of(first, second, third, second), "overlaps");
+        assertRejected(List.of(first, second, otherSeed), "different run");
+        Assert.assertEquals(ROUNDS, SimulationShard.merge(List.of(third, first, second)).stats.rounds());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptFileRejected() throws IOException {
+        Path file = directory.resolve(SimulationShard.fileName(0, 1));
+        SimulationShard.run(simulator, snapshot.hash(), 1000, 1, 0, 1, 1).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        SimulationShard.read(file);
+    }
+
+    private static void assertRejected(List<SimulationShard> shards, String reason) {
+        try {
+            SimulationShard.merge(shards);
+            Assert.fail("Expected the merge to fail: " + reason);
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(reason));
+        }
+    }
+}
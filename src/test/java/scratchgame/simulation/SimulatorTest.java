@@ -0,0 +1,78 @@
+package scratchgame.simulation;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scratchgame.logic.CompiledWinCombinations;
+import scratchgame.logic.GenerationPlan;
+import scratchgame.model.*;
+
+import java.util.*;
+
+public class SimulatorTest {
+
+    private Simulator simulator;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.symbols = new LinkedHashMap<>();
+        config.symbols.put("A", new SymbolConfig("standard", 5));
+        config.symbols.put("B", new SymbolConfig("standard", 2));
+        config.symbols.put("10x", new SymbolConfig("bonus", 10, "multiply_reward"));
+        config.symbols.put("MISS", new SymbolConfig("bonus", 0, "miss"));
+
+        config.probabilities = new Probabilities();
+        config.probabilities.standard_symbols = List.of(new StandardSymbolsProb(0, 0, Map.of("A", 1, "B", 3)));
+        config.probabilities.bonus_symbols = new BonusSymbolsProb();
+        config.probabilities.bonus_symbols.symbols = Map.of("10x", 1, "MISS", 4);
+
+        config.win_combinations = new LinkedHashMap<>();
+        config.win_combinations.put("same_symbol_3_times", new WinCombination("same_symbols", 3, 1, "same_symbols"));
+        config.win_combinations.put("same_symbols_horizontally", new WinCombination("linear_symbols", null, 2, "horizontal",
+                List.of(List.of("0:0", "0:1", "0:2"), List.of("1:0", "1:1", "1:2"), List.of("2:0", "2:1", "2:2"))));
+
+        SymbolDictionary dictionary = SymbolDictionary.of(config);
+        simulator = new Simulator(
+                GenerationPlan.compile(config, dictionary, 3, 3),
+                CompiledWinCombinations.compile(config, dictionary, 3, 3),
+                100);
+    }
+
+    /**
+     * Test: The result for a seed is the same regardless of the number of threads.
+     */
+    @Test
+    public void testSameSeedSameStatsAcrossParallelism() {
+        long rounds = 3L * Simulator.CHUNK_ROUNDS + 123;
+        SimulationStats single = simulator.run(rounds, 99, 1);
+        SimulationStats parallel = simulator.run(rounds, 99, 4);
+
+        Assert.assertEquals(rounds, single.rounds());
+        Assert.assertEquals(single.rounds(), parallel.rounds());
+        Assert.assertEquals(single.totalPaid(), parallel.totalPaid());
+        Assert.assertEquals(single.hits(), parallel.hits());
+        Assert.assertEquals(single.maxWin(), parallel.maxWin());
+        Assert.assertEquals(single.comboHits(1), parallel.comboHits(1));
+    }
+
+    /**
+     * Test: Statistics derived from the histogram agree with the running totals.
+     */
+    @Test
+    public void testStatsAreConsistent() {
+        SimulationStats stats = simulator.run(50_000, 7, 2);
+
+        long paid = 0;
+        long rounds = 0;
+        for (long payout : stats.histogram().payouts()) {
+            paid += payout * stats.histogram().count(payout);
+            rounds += stats.histogram().count(payout);
+        }
+        Assert.assertEquals(stats.totalPaid(), paid);
+        Assert.assertEquals(stats.rounds(), rounds);
+        Assert.assertTrue(stats.hitRate() > 0 && stats.hitRate() < 1);
+        Assert.assertTrue(stats.rtpConfidence95(100) > 0);
+        Assert.assertTrue(stats.comboHits(0) > 0);
+    }
+}